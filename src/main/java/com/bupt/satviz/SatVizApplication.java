@@ -1,25 +1,78 @@
 package com.bupt.satviz;
 
+import com.bupt.satviz.batch.ScenarioBatchRunner;
+import com.bupt.satviz.calculation.PositionVelocityProvider;
 import com.bupt.satviz.calculation.SatelliteStateCalculator;
 import com.bupt.satviz.concurrent.ParallelVisibilityExecutor;
+import com.bupt.satviz.concurrent.ProgressiveVisibilityExecutor;
+import com.bupt.satviz.concurrent.ShardPlan;
+import com.bupt.satviz.concurrent.ShardedVisibilityExecutor;
+import com.bupt.satviz.concurrent.TimeChunkedVisibilityExecutor;
 import com.bupt.satviz.config.OrekitConfig;
 import com.bupt.satviz.config.SimulationConfig;
+import com.bupt.satviz.coverage.CoverageEngine;
+import com.bupt.satviz.coverage.CoverageResult;
+import com.bupt.satviz.coverage.EqualAreaGrid;
+import com.bupt.satviz.ephemeris.EphemerisTable;
 import com.bupt.satviz.model.SatResult;
 import com.bupt.satviz.model.SatelliteState;
 import com.bupt.satviz.output.ConsoleResultPrinter;
+import com.bupt.satviz.output.ContactPlanPrinter;
+import com.bupt.satviz.output.CoverageReportPrinter;
+import com.bupt.satviz.output.ProgressiveSlicePrinter;
+import com.bupt.satviz.output.TerminalReportPrinter;
+import com.bupt.satviz.scheduling.ContactScheduler;
+import com.bupt.satviz.terminal.TerminalIndex;
+import com.bupt.satviz.terminal.TerminalVisibilityEngine;
+import com.bupt.satviz.terminal.TerminalVisibilityResult;
 import com.bupt.satviz.model.GroundStation;
 import org.orekit.time.AbsoluteDate;
 import com.bupt.satviz.model.KeplerianElements;
 
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * 命令行参数（均可省略）：
+ *   --config 场景文件      classpath 下的 YAML 场景文件，默认 simulation_scenario_2.yaml
+ *   --shard k/n           只计算 n 个分片中的第 k 个，把部分结果写入分片目录后退出
+ *   --merge n             合并分片目录下的 n 个分片结果，打印与单进程计算相同的结果
+ *   --shard-dir 目录       分片结果文件所在目录，默认 shards
+ *   --batch 路径           批量运行：场景文件或包含场景文件（*.yaml）的目录，可重复指定；同一 JVM 中依次运行
+ *   --batch-threads n     批量运行时同时运行的场景数，默认 1（排队依次运行）
+ */
 public class SatVizApplication {
     public static void main(String[] args) {
+        String configFile = "simulation_scenario_2.yaml";
+        String shardSpec = null;
+        int mergeCount = 0;
+        Path shardDir = Paths.get("shards");
+        List<String> batchPaths = new ArrayList<>();
+        int batchThreads = 1;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--config" -> configFile = args[++i];
+                case "--shard" -> shardSpec = args[++i];
+                case "--merge" -> mergeCount = Integer.parseInt(args[++i]);
+                case "--shard-dir" -> shardDir = Paths.get(args[++i]);
+                case "--batch" -> batchPaths.add(args[++i]);
+                case "--batch-threads" -> batchThreads = Integer.parseInt(args[++i]);
+                default -> throw new IllegalArgumentException("未知参数：" + args[i]);
+            }
+        }
+
         // 记录仿真开始时间戳
         long startTimeMillis = System.currentTimeMillis();
         try {
             // 1. 初始化 Orekit（加载 orekit-data 数据）
             OrekitConfig.initialize();
+            if (!batchPaths.isEmpty()) {
+                ScenarioBatchRunner.run(ScenarioBatchRunner.expand(batchPaths), batchThreads);
+            } else {
 //            2. 调用数据准备模块，获取模拟参数(硬编码)
 //            DataPreparation.SimulationParameters simParams = DataPreparation.prepareSimulationData();
 //            List<KeplerianElements> orbits = simParams.satelliteOrbits;
@@ -27,24 +80,26 @@ public class SatVizApplication {
 //            AbsoluteDate startDate = simParams.startDate;
 //            AbsoluteDate endDate   = simParams.endDate;
 
-            // 2. 通过 SimulationConfig 加载仿真参数（YAML 文件在 src/main/resources 下）
-            SimulationConfig config = new SimulationConfig("simulation_scenario_2.yaml");
-            List<KeplerianElements> orbits = config.getSatelliteOrbits();
-            List<GroundStation> groundStations = config.getGroundStations();
-            AbsoluteDate startDate = config.getStartDate();
-            AbsoluteDate endDate = config.getEndDate();
-
-            // 3. 调用并行计算模块，计算所有卫星的可见性结果
-            List<SatResult> allResults = ParallelVisibilityExecutor.computeAllVisibilities(
-                    orbits, groundStations, startDate, endDate);
-
-            // 4. 计算并打印各卫星状态
-            List<SatelliteState> states = SatelliteStateCalculator.computeSatelliteStates(orbits, endDate);
-            SatelliteStateCalculator.printSatelliteStates(states);
+                // 2. 通过 SimulationConfig 加载仿真参数（YAML 文件在 src/main/resources 下）
+                SimulationConfig config = new SimulationConfig(configFile);
 
+                // 3. 准备星历：配置了星历文件时复用（或生成）并内存映射；使用高精度传播模型时每颗卫星只传播一次，
+                //    后续计算直接读取星历
+                List<PositionVelocityProvider> ephemerides = EphemerisTable.forScenario(config);
 
-            // 5. 打印可见性结果
-            ConsoleResultPrinter.printResults(allResults);
+                // 4. 调用并行计算模块，计算所有卫星的可见性结果并输出
+                //    分片模式下只计算本分片的单元并写入分片文件；合并模式下读取全部分片重建结果
+                if (shardSpec != null) {
+                    int[] shard = ShardPlan.parse(shardSpec);
+                    Path file = ShardedVisibilityExecutor.computeShard(config, ephemerides, shard[0], shard[1], shardDir);
+                    System.out.println("分片 " + shardSpec + " 计算完成，结果已写入 " + file);
+                } else if (mergeCount > 0) {
+                    List<SatResult> allResults = ShardedVisibilityExecutor.merge(config, mergeCount, shardDir);
+                    report(config, ephemerides, allResults, System.out);
+                } else {
+                    runScenario(config, ephemerides, System.out);
+                }
+            }
         } catch (Exception e) {
             e.printStackTrace();
         }
@@ -52,4 +107,96 @@ public class SatVizApplication {
         long endTimeMillis = System.currentTimeMillis();
         System.out.println("程序总运行时间：" + (endTimeMillis - startTimeMillis) + " 毫秒");
     }
+
+    /**
+     * 计算单个场景的全部可见性结果并输出卫星状态、可见性窗口及可选的覆盖与终端统计。
+     *
+     * @param config      仿真场景配置
+     * @param ephemerides 星历数据源，为 null 时直接按轨道元素传播
+     * @param out         输出目标
+     */
+    public static void runScenario(SimulationConfig config, List<PositionVelocityProvider> ephemerides,
+                                   PrintStream out) throws Exception {
+        List<KeplerianElements> orbits = config.getSatelliteOrbits();
+        List<GroundStation> groundStations = config.getGroundStations();
+        AbsoluteDate startDate = config.getStartDate();
+        AbsoluteDate endDate = config.getEndDate();
+        List<SatResult> allResults;
+        if (config.getProgressiveSliceSeconds() > 0) {
+            // 配置了渐进式计算时，按时间顺序逐片计算并打印进度与各片的窗口，较早时段的窗口最先可用
+            allResults = ProgressiveVisibilityExecutor.computeAllVisibilities(
+                    orbits, ephemerides, groundStations, startDate, endDate, config.getInterSatelliteEngine(),
+                    config.getToleranceProfile(), config.getVisibilityConstraints(),
+                    config.getProgressiveSliceSeconds(), new ProgressiveSlicePrinter(groundStations, out));
+        } else if (config.getTimeChunkSeconds() > 0) {
+            // 配置了时间分块时，再按时间块并行（适合卫星少、时段长的场景）
+            allResults = TimeChunkedVisibilityExecutor.computeAllVisibilities(
+                    orbits, ephemerides, groundStations, startDate, endDate, config.getInterSatelliteEngine(),
+                    config.getToleranceProfile(), config.getVisibilityConstraints(),
+                    config.getTimeChunkSeconds());
+        } else {
+            allResults = ParallelVisibilityExecutor.computeAllVisibilities(
+                    orbits, ephemerides, groundStations, startDate, endDate, config.getInterSatelliteEngine(),
+                    config.getToleranceProfile(), config.getVisibilityConstraints());
+        }
+        report(config, ephemerides, allResults, out);
+    }
+
+    private static void report(SimulationConfig config, List<PositionVelocityProvider> ephemerides,
+                               List<SatResult> allResults, PrintStream out) throws IOException {
+        List<KeplerianElements> orbits = config.getSatelliteOrbits();
+        AbsoluteDate startDate = config.getStartDate();
+        AbsoluteDate endDate = config.getEndDate();
+        // 5. 计算并打印各卫星状态
+        List<SatelliteState> states = (ephemerides != null)
+                ? SatelliteStateCalculator.computeSatelliteStatesFromEphemerides(ephemerides, endDate)
+                : SatelliteStateCalculator.computeSatelliteStates(orbits, endDate);
+        SatelliteStateCalculator.printSatelliteStates(states, out);
+
+        // 6. 打印可见性结果
+        ConsoleResultPrinter.printResults(allResults, out);
+
+        // 7. 配置了全球覆盖统计时计算并打印覆盖率与重访统计（可选输出覆盖图 CSV）
+        if (config.getCoverageCells() > 0) {
+            CoverageEngine coverageEngine = new CoverageEngine(new EqualAreaGrid(config.getCoverageCells()),
+                    config.getVisibilityConstraints(), config.getCoverageStepSeconds(),
+                    config.getCoverageHistogramBinSeconds());
+            CoverageResult coverage = (ephemerides != null)
+                    ? coverageEngine.computeCoverageFromEphemerides(ephemerides, startDate, endDate)
+                    : coverageEngine.computeCoverage(orbits, startDate, endDate);
+            CoverageReportPrinter.printReport(coverage, out);
+            if (config.getCoverageCsv() != null) {
+                coverage.writeCsv(Paths.get(config.getCoverageCsv()));
+            }
+        }
+
+        // 8. 配置了地面终端文件时，按空间索引计算全部终端的过境窗口（可选输出窗口 CSV）
+        if (config.getTerminalFile() != null) {
+            TerminalIndex index = new TerminalIndex(TerminalIndex.readCsv(Paths.get(config.getTerminalFile())),
+                    new EqualAreaGrid(config.getTerminalIndexCells()));
+            TerminalVisibilityEngine terminalEngine = new TerminalVisibilityEngine(index,
+                    config.getVisibilityConstraints(), config.getToleranceProfile());
+            TerminalVisibilityResult terminalResult = (ephemerides != null)
+                    ? terminalEngine.computeVisibilityFromEphemerides(ephemerides, startDate, endDate)
+                    : terminalEngine.computeVisibility(orbits, startDate, endDate);
+            TerminalReportPrinter.printReport(terminalResult, out);
+            if (config.getTerminalCsv() != null) {
+                terminalResult.writeCsv(Paths.get(config.getTerminalCsv()));
+            }
+        }
+
+        // 9. 配置了调度约束时，为各地面站的天线安排接触计划（可选输出接触计划 CSV）
+        if (config.getSchedulingConstraints() != null) {
+            ContactScheduler scheduler = new ContactScheduler(allResults, config.getGroundStations(), startDate,
+                    endDate, config.getSchedulingConstraints());
+            scheduler.schedule();
+            if (config.isSchedulingImprove()) {
+                scheduler.improve();
+            }
+            ContactPlanPrinter.printReport(scheduler, config.getGroundStations(), out);
+            if (config.getSchedulingCsv() != null) {
+                scheduler.writeCsv(Paths.get(config.getSchedulingCsv()));
+            }
+        }
+    }
 }
@@ -0,0 +1,170 @@
+package com.bupt.satviz.batch;
+
+import com.bupt.satviz.SatVizApplication;
+import com.bupt.satviz.calculation.PositionVelocityProvider;
+import com.bupt.satviz.config.SimulationConfig;
+import com.bupt.satviz.ephemeris.EphemerisCache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+/**
+ * 多场景批量运行器
+ * 在同一 JVM 中排队（或按指定并发数同时）运行多个场景：Orekit 数据、参考系与地球模型只初始化一次，
+ * 前面场景触发的 JIT 编译对后面的场景继续有效；使用高精度传播模型时，多个场景中相同的卫星通过 EphemerisCache 只传播一次。
+ * 并发运行时各场景的输出先写入各自的缓冲区，按场景顺序整体打印，不会相互交错。最后打印各场景的耗时汇总。
+ * 全部场景配置在开始运行前加载，以便登记各场景需要的共享星历；星历在最后一个需要它的场景结束后释放。
+ */
+public class ScenarioBatchRunner {
+
+    /**
+     * 单个场景的运行记录，耗时单位为毫秒；运行失败时 error 为失败原因。
+     */
+    private record ScenarioTiming(String name, int satelliteCount, int stationCount,
+                                  double loadMs, double ephemerisMs, double computeMs, String error) {
+        double totalMs() {
+            return loadMs + ephemerisMs + computeMs;
+        }
+    }
+
+    /**
+     * 预先加载的场景配置，加载失败时 config 为 null、error 为失败原因。
+     */
+    private record LoadedScenario(String file, SimulationConfig config, double loadMs, Exception error) {
+    }
+
+    /**
+     * 展开场景路径：目录展开为其中按文件名排序的 *.yaml / *.yml 文件，其余路径原样保留
+     * （文件系统中不存在时按 classpath 资源加载）。
+     */
+    public static List<String> expand(List<String> paths) throws IOException {
+        List<String> files = new ArrayList<>();
+        for (String path : paths) {
+            Path dir = Paths.get(path);
+            if (!Files.isDirectory(dir)) {
+                files.add(path);
+                continue;
+            }
+            try (Stream<Path> entries = Files.list(dir)) {
+                entries.filter(p -> p.getFileName().toString().endsWith(".yaml")
+                                || p.getFileName().toString().endsWith(".yml"))
+                        .sorted()
+                        .forEach(p -> files.add(p.toString()));
+            }
+        }
+        if (files.isEmpty()) {
+            throw new IllegalArgumentException("未找到场景文件：" + paths);
+        }
+        return files;
+    }
+
+    /**
+     * 运行全部场景并打印耗时汇总。调用前须已初始化 Orekit。
+     *
+     * @param scenarioFiles 场景文件列表
+     * @param threads       同时运行的场景数，1 表示排队依次运行
+     */
+    public static void run(List<String> scenarioFiles, int threads) throws InterruptedException {
+        EphemerisCache cache = new EphemerisCache();
+        long t0 = System.nanoTime();
+        List<LoadedScenario> scenarios = new ArrayList<>(scenarioFiles.size());
+        for (String file : scenarioFiles) {
+            LoadedScenario scenario = load(file);
+            if (scenario.config() != null) {
+                cache.reserve(scenario.config());
+            }
+            scenarios.add(scenario);
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, threads));
+        List<Future<ScenarioTiming>> futures = new ArrayList<>(scenarioFiles.size());
+        List<ByteArrayOutputStream> buffers = new ArrayList<>(scenarioFiles.size());
+        for (LoadedScenario scenario : scenarios) {
+            // 依次运行时直接输出，并发运行时写入缓冲区
+            ByteArrayOutputStream buffer = (threads > 1) ? new ByteArrayOutputStream() : null;
+            PrintStream out = (buffer != null) ? new PrintStream(buffer, true, StandardCharsets.UTF_8) : System.out;
+            buffers.add(buffer);
+            futures.add(executor.submit(() -> runScenario(scenario, cache, out)));
+        }
+        List<ScenarioTiming> timings = new ArrayList<>(scenarioFiles.size());
+        try {
+            for (int i = 0; i < futures.size(); i++) {
+                timings.add(futures.get(i).get());
+                if (buffers.get(i) != null) {
+                    System.out.print(buffers.get(i).toString(StandardCharsets.UTF_8));
+                }
+            }
+        } catch (ExecutionException e) {
+            throw new RuntimeException("批量运行失败：" + e.getCause().getMessage(), e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        printSummary(timings, (System.nanoTime() - t0) / 1e6, threads, cache);
+    }
+
+    private static LoadedScenario load(String file) {
+        long t0 = System.nanoTime();
+        try {
+            return new LoadedScenario(file, new SimulationConfig(file), (System.nanoTime() - t0) / 1e6, null);
+        } catch (Exception e) {
+            return new LoadedScenario(file, null, (System.nanoTime() - t0) / 1e6, e);
+        }
+    }
+
+    private static ScenarioTiming runScenario(LoadedScenario scenario, EphemerisCache cache, PrintStream out) {
+        out.println("==== 场景：" + scenario.file() + " ====");
+        // 1. 场景配置已预先加载
+        SimulationConfig config = scenario.config();
+        if (config == null) {
+            scenario.error().printStackTrace(out);
+            return new ScenarioTiming(scenario.file(), 0, 0, scenario.loadMs(), 0.0, 0.0,
+                    String.valueOf(scenario.error().getMessage()));
+        }
+        long t1 = System.nanoTime();
+        long t2 = t1;
+        try {
+            // 2. 准备星历（与其他场景共享相同卫星的星历）
+            List<PositionVelocityProvider> ephemerides = cache.forScenario(config);
+            t2 = System.nanoTime();
+            // 3. 计算并输出结果
+            SatVizApplication.runScenario(config, ephemerides, out);
+            long t3 = System.nanoTime();
+            return new ScenarioTiming(scenario.file(), config.getSatelliteOrbits().size(),
+                    config.getGroundStations().size(), scenario.loadMs(), (t2 - t1) / 1e6, (t3 - t2) / 1e6, null);
+        } catch (Exception e) {
+            e.printStackTrace(out);
+            long t3 = System.nanoTime();
+            return new ScenarioTiming(scenario.file(), 0, 0, scenario.loadMs(), (t2 - t1) / 1e6, (t3 - t2) / 1e6,
+                    String.valueOf(e.getMessage()));
+        } finally {
+            cache.release(config);
+        }
+    }
+
+    private static void printSummary(List<ScenarioTiming> timings, double wallMs, int threads, EphemerisCache cache) {
+        System.out.println("==== 批量运行耗时汇总（" + timings.size() + " 个场景，同时运行 " + Math.max(1, threads)
+                + " 个）====");
+        System.out.println(String.format("  %-40s %6s %6s %10s %10s %10s %10s  %s",
+                "场景", "卫星", "地面站", "加载(ms)", "星历(ms)", "计算(ms)", "合计(ms)", "结果"));
+        double sumMs = 0.0;
+        for (ScenarioTiming t : timings) {
+            sumMs += t.totalMs();
+            System.out.println(String.format("  %-40s %6d %6d %10.0f %10.0f %10.0f %10.0f  %s",
+                    t.name(), t.satelliteCount(), t.stationCount(), t.loadMs(), t.ephemerisMs(), t.computeMs(),
+                    t.totalMs(), (t.error() == null) ? "完成" : "失败：" + t.error()));
+        }
+        System.out.println(String.format("  总耗时 %.0f 毫秒（各场景合计 %.0f 毫秒）；星历复用 %d 颗次，新传播 %d 颗",
+                wallMs, sumMs, cache.getReusedCount(), cache.getSampledCount()));
+    }
+}
@@ -0,0 +1,170 @@
+package com.bupt.satviz.benchmark;
+
+import com.bupt.satviz.config.OrekitConfig;
+import com.bupt.satviz.config.SchedulingConstraints;
+import com.bupt.satviz.model.GroundStation;
+import com.bupt.satviz.model.SatResult;
+import com.bupt.satviz.model.ScheduledContact;
+import com.bupt.satviz.model.VisibilityWindow;
+import com.bupt.satviz.scheduling.ContactScheduler;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.time.TimeScalesFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 接触计划调度基准测试
+ * 随机生成（默认 1000 颗卫星 × 50 个地面站、1 天）的可见窗口，每个组合 2～6 个 120～720 秒的过境，
+ * 卫星优先级 1～3、每站 2～4 副天线、准备间隔 60 秒、最短接触 120 秒；
+ * 分别计时贪心调度、改进步骤与 100 次单个组合的增量重排，并检查计划满足全部约束
+ * （同一天线相邻接触间隔不小于准备时间、同一卫星接触互不重叠、接触不短于最短时长），不满足时以非零状态码退出。
+ * 运行方式：java ... ContactSchedulerBenchmark [卫星数] [地面站数] [时长（秒）]
+ */
+public class ContactSchedulerBenchmark {
+
+    private static final double SETUP_SECONDS = 60.0;
+    private static final double MIN_PASS_SECONDS = 120.0;
+
+    public static void main(String[] args) {
+        OrekitConfig.initialize();
+        int satCount = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int stationCount = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        double horizon = args.length > 2 ? Double.parseDouble(args[2]) : 86400.0;
+        AbsoluteDate startDate = new AbsoluteDate(2024, 1, 1, 0, 0, 0.0, TimeScalesFactory.getUTC());
+        AbsoluteDate endDate = startDate.shiftedBy(horizon);
+        Random random = new Random(42);
+
+        // 1. 随机地面站、约束与可见窗口
+        List<GroundStation> stations = new ArrayList<>(stationCount);
+        int[] antennas = new int[stationCount];
+        for (int g = 0; g < stationCount; g++) {
+            stations.add(new GroundStation(-60.0 + 120.0 * g / Math.max(1, stationCount - 1),
+                    360.0 * random.nextDouble() - 180.0, 0.0));
+            antennas[g] = 2 + random.nextInt(3);
+        }
+        double[] priorities = new double[satCount];
+        for (int s = 0; s < satCount; s++) {
+            priorities[s] = 1 + random.nextInt(3);
+        }
+        SchedulingConstraints constraints = new SchedulingConstraints(1, antennas, SETUP_SECONDS,
+                MIN_PASS_SECONDS, priorities);
+        List<SatResult> results = new ArrayList<>(satCount);
+        for (int s = 0; s < satCount; s++) {
+            SatResult result = new SatResult(s);
+            for (GroundStation station : stations) {
+                result.addGroundStationResult(station.toString(), randomWindows(random, startDate, horizon));
+            }
+            results.add(result);
+        }
+
+        // 2. 调度：先完整运行一次预热 JIT，再计时
+        run(results, stations, startDate, endDate, constraints);
+        long t0 = System.nanoTime();
+        ContactScheduler scheduler = new ContactScheduler(results, stations, startDate, endDate, constraints);
+        long t1 = System.nanoTime();
+        scheduler.schedule();
+        long t2 = System.nanoTime();
+        double greedyObjective = scheduler.getObjective();
+        int greedyCount = scheduler.getScheduledCount();
+        scheduler.improve();
+        long t3 = System.nanoTime();
+        boolean valid = validate(scheduler, constraints, "调度与改进");
+
+        // 3. 增量重排：随机替换 100 个（卫星, 地面站）组合的窗口
+        int updates = 100;
+        int changes = 0;
+        long t4 = System.nanoTime();
+        for (int i = 0; i < updates; i++) {
+            changes += scheduler.updateWindows(random.nextInt(satCount), random.nextInt(stationCount),
+                    randomWindows(random, startDate, horizon));
+        }
+        long t5 = System.nanoTime();
+        valid &= validate(scheduler, constraints, "增量重排");
+
+        double loadMs = (t1 - t0) / 1e6;
+        double greedyMs = (t2 - t1) / 1e6;
+        double improveMs = (t3 - t2) / 1e6;
+        System.out.println("==== 接触计划调度基准：" + satCount + " 颗卫星 × " + stationCount + " 个地面站，"
+                + String.format("%.0f 秒", horizon) + " ====");
+        System.out.println(String.format("  候选接触 %d 个，建立索引 %.0f 毫秒",
+                scheduler.getCandidateCount(), loadMs));
+        System.out.println(String.format("  贪心调度：%.0f 毫秒，安排 %d 个接触，目标值 %.0f",
+                greedyMs, greedyCount, greedyObjective));
+        System.out.println(String.format("  改进步骤：%.0f 毫秒，安排 %d 个接触，目标值 %.0f（提高 %.2f%%）",
+                improveMs, scheduler.getScheduledCount(), scheduler.getObjective(),
+                greedyObjective > 0 ? (scheduler.getObjective() - greedyObjective) * 100 / greedyObjective : 0.0));
+        System.out.println(String.format("  增量重排：%d 次共 %.1f 毫秒（平均 %.3f 毫秒），计划变化 %d 处",
+                updates, (t5 - t4) / 1e6, (t5 - t4) / 1e6 / updates, changes));
+        System.out.println("  调度 + 改进合计 " + String.format("%.0f 毫秒", greedyMs + improveMs)
+                + ((greedyMs + improveMs) < 1000.0 ? "（1 秒以内）" : "（超过 1 秒）")
+                + "；约束检查" + (valid ? "通过" : "未通过"));
+        if (!valid) {
+            System.exit(1);
+        }
+    }
+
+    private static void run(List<SatResult> results, List<GroundStation> stations, AbsoluteDate startDate,
+                            AbsoluteDate endDate, SchedulingConstraints constraints) {
+        ContactScheduler scheduler = new ContactScheduler(results, stations, startDate, endDate, constraints);
+        scheduler.schedule();
+        scheduler.improve();
+    }
+
+    /**
+     * 在仿真时段内均匀分布的 2～6 个互不重叠的过境，长度 120～720 秒。
+     */
+    private static List<VisibilityWindow> randomWindows(Random random, AbsoluteDate startDate, double horizon) {
+        int count = 2 + random.nextInt(5);
+        double slot = horizon / count;
+        List<VisibilityWindow> windows = new ArrayList<>(count);
+        for (int k = 0; k < count; k++) {
+            double duration = 120.0 + 600.0 * random.nextDouble();
+            double start = k * slot + (slot - duration) * random.nextDouble();
+            windows.add(new VisibilityWindow(startDate.shiftedBy(start), startDate.shiftedBy(start + duration),
+                    duration));
+        }
+        return windows;
+    }
+
+    private static boolean validate(ContactScheduler scheduler, SchedulingConstraints constraints, String stage) {
+        List<ScheduledContact> contacts = scheduler.getContacts();
+        int violations = 0;
+        // 同一天线：相邻接触间隔不小于准备时间（getContacts 已按地面站、天线、开始时间排序）
+        for (int i = 1; i < contacts.size(); i++) {
+            ScheduledContact prev = contacts.get(i - 1);
+            ScheduledContact next = contacts.get(i);
+            if (prev.getStationIndex() == next.getStationIndex() && prev.getAntenna() == next.getAntenna()
+                    && next.getStartTime().durationFrom(prev.getEndTime()) < constraints.getSetupSeconds() - 1e-6) {
+                violations++;
+            }
+        }
+        // 同一卫星：接触互不重叠
+        List<ScheduledContact> bySatellite = new ArrayList<>(contacts);
+        bySatellite.sort(Comparator.comparingInt(ScheduledContact::getSatId)
+                .thenComparing(ScheduledContact::getStartTime));
+        for (int i = 1; i < bySatellite.size(); i++) {
+            ScheduledContact prev = bySatellite.get(i - 1);
+            ScheduledContact next = bySatellite.get(i);
+            if (prev.getSatId() == next.getSatId() && next.getStartTime().durationFrom(prev.getEndTime()) < -1e-6) {
+                violations++;
+            }
+        }
+        // 天线编号有效、接触不短于最短时长
+        for (ScheduledContact contact : contacts) {
+            if (contact.getAntenna() >= constraints.antennasAt(contact.getStationIndex())
+                    || contact.getDurationSeconds() < constraints.getMinPassSeconds() - 1e-6) {
+                violations++;
+            }
+        }
+        if (contacts.size() != scheduler.getScheduledCount()) {
+            violations++;
+        }
+        if (violations > 0) {
+            System.out.println("  " + stage + "：发现 " + violations + " 处违反约束");
+        }
+        return violations == 0;
+    }
+}
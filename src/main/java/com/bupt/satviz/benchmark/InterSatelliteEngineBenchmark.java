@@ -0,0 +1,130 @@
+package com.bupt.satviz.benchmark;
+
+import com.bupt.satviz.concurrent.ParallelVisibilityExecutor;
+import com.bupt.satviz.config.InterSatelliteEngineType;
+import com.bupt.satviz.config.OrekitConfig;
+import com.bupt.satviz.config.ToleranceProfile;
+import com.bupt.satviz.config.VisibilityConstraints;
+import com.bupt.satviz.model.KeplerianElements;
+import com.bupt.satviz.model.SatResult;
+import com.bupt.satviz.model.VisibilityWindow;
+import com.bupt.satviz.visibility.InterSatelliteVisibilityAnalyzer;
+import com.bupt.satviz.visibility.VectorInterSatelliteEngine;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.time.TimeScalesFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 卫星间可见性引擎基准测试
+ * 对比逐对事件检测器（InterSatelliteVisibilityAnalyzer）与 SIMD 批量引擎（VectorInterSatelliteEngine）。
+ * 检测器方式在千颗以上规模下全量运行需要数小时，因此只对随机抽样的卫星对计时并按总对数外推，
+ * 同时以抽样卫星对的窗口边界差异检查两种引擎的一致性。
+ * SIMD 引擎分别计时单线程全量计算与 ParallelVisibilityExecutor 按行分给全部核心的计算，并核对两者结果相同。
+ * 运行方式：java --add-modules jdk.incubator.vector ... InterSatelliteEngineBenchmark [卫星数...]
+ */
+public class InterSatelliteEngineBenchmark {
+
+    private static final double MAX_DISTANCE = 5_000_000.0;
+    private static final double DURATION_SECONDS = 3600.0;
+    private static final int SAMPLE_PAIRS = 200;
+
+    public static void main(String[] args) throws Exception {
+        OrekitConfig.initialize();
+        int[] sizes = args.length > 0
+                ? Arrays.stream(args).mapToInt(Integer::parseInt).toArray()
+                : new int[]{1000, 5000};
+        AbsoluteDate start = new AbsoluteDate("2025-01-01T04:00:00Z", TimeScalesFactory.getUTC());
+        AbsoluteDate end = start.shiftedBy(DURATION_SECONDS);
+
+        for (int n : sizes) {
+            List<KeplerianElements> orbits = walkerConstellation(n, start);
+            long pairCount = (long) n * (n - 1) / 2;
+
+            // 1. SIMD 批量引擎：全量计算
+            VectorInterSatelliteEngine vectorEngine = new VectorInterSatelliteEngine(MAX_DISTANCE, 10.0, 1e-6);
+            long t0 = System.nanoTime();
+            List<SatResult> vectorResults = vectorEngine.computeVisibility(orbits, start, end);
+            double vectorMs = (System.nanoTime() - t0) / 1e6;
+
+            // 1.1 SIMD 批量引擎：按行分给线程池中的全部核心（与 operational/survey 档位的运行路径相同）
+            ToleranceProfile tolerance = new ToleranceProfile("benchmark", 60.0, 1e-6, 10.0, 1e-6, 100,
+                    InterSatelliteEngineType.VECTOR, 10.0);
+            VisibilityConstraints constraints = new VisibilityConstraints(0.0, 45.0, MAX_DISTANCE);
+            long tp = System.nanoTime();
+            List<SatResult> parallelResults = ParallelVisibilityExecutor.computeAllVisibilities(orbits, null,
+                    Collections.emptyList(), start, end, InterSatelliteEngineType.VECTOR, tolerance, constraints);
+            double parallelMs = (System.nanoTime() - tp) / 1e6;
+            int rowMismatch = 0;
+            for (int s = 0; s < n; s++) {
+                if (!parallelResults.get(s).getInterSatelliteResults()
+                        .equals(vectorResults.get(s).getInterSatelliteResults())) {
+                    rowMismatch++;
+                }
+            }
+
+            // 2. 事件检测器：抽样计时并外推
+            InterSatelliteVisibilityAnalyzer analyzer = new InterSatelliteVisibilityAnalyzer(MAX_DISTANCE);
+            Random random = new Random(42);
+            double maxEdgeError = 0.0;
+            int windowCountMismatch = 0;
+            long t1 = System.nanoTime();
+            for (int s = 0; s < SAMPLE_PAIRS; s++) {
+                int i = random.nextInt(n - 1);
+                int j = i + 1 + random.nextInt(n - i - 1);
+                List<VisibilityWindow> expected = analyzer.computeVisibility(orbits.get(i), orbits.get(j), start, end);
+                List<VisibilityWindow> actual = vectorResults.get(i).getInterSatelliteResults()
+                        .getOrDefault(j, Collections.emptyList());
+                if (expected.size() != actual.size()) {
+                    windowCountMismatch++;
+                    continue;
+                }
+                for (int w = 0; w < expected.size(); w++) {
+                    maxEdgeError = Math.max(maxEdgeError, edgeError(expected.get(w), actual.get(w)));
+                }
+            }
+            double detectorMsPerPair = (System.nanoTime() - t1) / 1e6 / SAMPLE_PAIRS;
+            double detectorMs = detectorMsPerPair * pairCount;
+
+            System.out.println("==== 卫星数 " + n + "（" + pairCount + " 对，时长 " + DURATION_SECONDS + " 秒）====");
+            System.out.println(String.format("  SIMD 引擎（单线程）：%.0f 毫秒", vectorMs));
+            System.out.println(String.format("  SIMD 引擎（按行并行，%d 线程）：%.0f 毫秒，与单线程结果不一致的卫星 %d 颗",
+                    Runtime.getRuntime().availableProcessors(), parallelMs, rowMismatch));
+            System.out.println(String.format("  检测器（外推，单线程）：%.0f 毫秒（%.3f 毫秒/对）", detectorMs, detectorMsPerPair));
+            System.out.println(String.format("  加速比：%.1fx", detectorMs / vectorMs));
+            System.out.println(String.format("  抽样 %d 对：窗口数不一致 %d 对，最大边界误差 %.6f 秒",
+                    SAMPLE_PAIRS, windowCountMismatch, maxEdgeError));
+        }
+    }
+
+    private static double edgeError(VisibilityWindow expected, VisibilityWindow actual) {
+        double error = Math.abs(expected.getStartTime().durationFrom(actual.getStartTime()));
+        if (expected.getEndTime() != null && actual.getEndTime() != null) {
+            error = Math.max(error, Math.abs(expected.getEndTime().durationFrom(actual.getEndTime())));
+        } else if (expected.getEndTime() != actual.getEndTime()) {
+            error = Double.POSITIVE_INFINITY;
+        }
+        return error;
+    }
+
+    /**
+     * 构造 Walker 星座：轨道面数取 sqrt(n)，每个轨道面均匀分布卫星，高度 550 km，倾角 53°。
+     */
+    static List<KeplerianElements> walkerConstellation(int n, AbsoluteDate epoch) {
+        int planes = Math.max(1, (int) Math.round(Math.sqrt(n)));
+        List<KeplerianElements> orbits = new ArrayList<>(n);
+        for (int s = 0; s < n; s++) {
+            int plane = s % planes;
+            int slot = s / planes;
+            int perPlane = (n + planes - 1) / planes;
+            double raan = 360.0 * plane / planes;
+            double anomaly = (360.0 * slot / perPlane + 360.0 * plane / n) % 360.0;
+            orbits.add(new KeplerianElements(6_928_137.0, 0.0, 53.0, raan, 0.0, anomaly, epoch));
+        }
+        return orbits;
+    }
+}
@@ -0,0 +1,101 @@
+package com.bupt.satviz.benchmark;
+
+import com.bupt.satviz.calculation.PositionVelocityProvider;
+import com.bupt.satviz.concurrent.ProgressiveVisibilityExecutor;
+import com.bupt.satviz.concurrent.ShardPlan;
+import com.bupt.satviz.concurrent.TimeChunkedVisibilityExecutor;
+import com.bupt.satviz.concurrent.VisibilitySliceConsumer;
+import com.bupt.satviz.config.OrekitConfig;
+import com.bupt.satviz.config.SimulationConfig;
+import com.bupt.satviz.ephemeris.EphemerisTable;
+import com.bupt.satviz.model.SatResult;
+import com.bupt.satviz.model.VisibilityWindow;
+import com.bupt.satviz.output.ConsoleResultPrinter;
+import org.orekit.time.AbsoluteDate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 渐进式计算延迟与一致性检查
+ * 对同一场景分别按时间分块（全部完成后才返回）和渐进式计算，时间片长度相同：
+ * 报告渐进式计算中第一个时间片可用的时间占总耗时的比例，并检查渐进式计算的最终结果与时间分块计算逐字节一致、
+ * 发布的确定窗口数与最终结果的窗口数相同，否则以非零状态码退出。
+ * 运行方式：java ... ProgressiveLatencyCheck [场景文件] [时间片长度（秒）]
+ */
+public class ProgressiveLatencyCheck {
+
+    public static void main(String[] args) throws Exception {
+        OrekitConfig.initialize();
+        String configFile = args.length > 0 ? args[0] : "simulation_scenario_2.yaml";
+        SimulationConfig config = new SimulationConfig(configFile);
+        double sliceSeconds = args.length > 1 ? Double.parseDouble(args[1])
+                : (config.getProgressiveSliceSeconds() > 0 ? config.getProgressiveSliceSeconds() : 3600.0);
+        List<PositionVelocityProvider> ephemerides = EphemerisTable.forScenario(config);
+
+        // 1. 参照：时间分块计算，全部完成后返回
+        long t0 = System.nanoTime();
+        List<SatResult> reference = TimeChunkedVisibilityExecutor.computeAllVisibilities(config.getSatelliteOrbits(),
+                ephemerides, config.getGroundStations(), config.getStartDate(), config.getEndDate(),
+                config.getInterSatelliteEngine(), config.getToleranceProfile(), config.getVisibilityConstraints(),
+                sliceSeconds);
+        double referenceMs = (System.nanoTime() - t0) / 1e6;
+
+        // 2. 渐进式计算：记录各时间片完成的时刻与发布的确定窗口数
+        List<Double> sliceMs = new ArrayList<>();
+        int[] finalised = new int[1];
+        long t1 = System.nanoTime();
+        List<SatResult> progressive = ProgressiveVisibilityExecutor.computeAllVisibilities(
+                config.getSatelliteOrbits(), ephemerides, config.getGroundStations(), config.getStartDate(),
+                config.getEndDate(), config.getInterSatelliteEngine(), config.getToleranceProfile(),
+                config.getVisibilityConstraints(), sliceSeconds, new VisibilitySliceConsumer() {
+                    @Override
+                    public void windowFinalised(ShardPlan.Unit unit, VisibilityWindow window) {
+                        finalised[0]++;
+                    }
+
+                    @Override
+                    public void sliceCompleted(int slice, AbsoluteDate sliceStart, AbsoluteDate sliceEnd) {
+                        sliceMs.add((System.nanoTime() - t1) / 1e6);
+                    }
+                });
+        double progressiveMs = (System.nanoTime() - t1) / 1e6;
+
+        // 3. 比较最终结果
+        int windowCount = 0;
+        for (SatResult result : progressive) {
+            for (List<VisibilityWindow> windows : result.getGroundStationResults().values()) {
+                windowCount += windows.size();
+            }
+            for (List<VisibilityWindow> windows : result.getInterSatelliteResults().values()) {
+                windowCount += windows.size();
+            }
+        }
+        boolean identical = Arrays.equals(render(reference), render(progressive));
+        boolean passed = identical && windowCount == finalised[0];
+
+        System.out.println("==== 渐进式计算检查：" + configFile + "，" + sliceMs.size() + " 个时间片（"
+                + String.format("%.0f 秒", sliceSeconds) + "）====");
+        System.out.println(String.format("  时间分块（全部完成后返回）：%.0f 毫秒", referenceMs));
+        System.out.println(String.format("  渐进式：第一个时间片 %.0f 毫秒（占总耗时 %.1f%%），全部完成 %.0f 毫秒",
+                sliceMs.isEmpty() ? 0.0 : sliceMs.get(0),
+                sliceMs.isEmpty() ? 0.0 : sliceMs.get(0) * 100 / progressiveMs, progressiveMs));
+        System.out.println("  发布确定窗口 " + finalised[0] + " 个，最终结果 " + windowCount + " 个；最终结果与时间分块计算"
+                + (identical ? "逐字节一致" : "不一致") + "，检查" + (passed ? "通过" : "未通过"));
+        if (!passed) {
+            System.exit(1);
+        }
+    }
+
+    private static byte[] render(List<SatResult> results) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        PrintStream out = new PrintStream(buffer, true, StandardCharsets.UTF_8);
+        ConsoleResultPrinter.printResults(results, out);
+        out.flush();
+        return buffer.toByteArray();
+    }
+}
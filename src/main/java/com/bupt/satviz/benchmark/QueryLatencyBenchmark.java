@@ -0,0 +1,150 @@
+package com.bupt.satviz.benchmark;
+
+import com.bupt.satviz.calculation.PositionVelocityProvider;
+import com.bupt.satviz.concurrent.ParallelVisibilityExecutor;
+import com.bupt.satviz.config.InterSatelliteEngineType;
+import com.bupt.satviz.config.OrekitConfig;
+import com.bupt.satviz.config.SimulationConfig;
+import com.bupt.satviz.ephemeris.EphemerisTable;
+import com.bupt.satviz.model.SatResult;
+import com.bupt.satviz.model.VisibilityWindow;
+import com.bupt.satviz.query.VisibilityQueryService;
+import org.orekit.time.AbsoluteDate;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 按需查询延迟基准测试
+ * 对场景随机生成“下一次过境”与“是否建链”查询，分别统计首次查询（需要运行检测器）与重复查询（命中缓存）的延迟分位数，
+ * 并与整段全量计算的结果核对：下一次过境的起止时间之差须在两倍收敛阈值以内，建链状态须一致（边界附近的查询除外）。
+ * 运行方式：java ... QueryLatencyBenchmark [场景文件] [查询数]
+ */
+public class QueryLatencyBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        OrekitConfig.initialize();
+        String configFile = args.length > 0 ? args[0] : "simulation_scenario_2.yaml";
+        int queryCount = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        SimulationConfig config = new SimulationConfig(configFile);
+        List<PositionVelocityProvider> ephemerides = EphemerisTable.forScenario(config);
+        int satCount = config.getSatelliteOrbits().size();
+        int stationCount = config.getGroundStations().size();
+        double duration = config.getEndDate().durationFrom(config.getStartDate());
+
+        // 1. 全量计算作为参照（逐对检测器）
+        long t0 = System.nanoTime();
+        List<SatResult> reference = ParallelVisibilityExecutor.computeAllVisibilities(config.getSatelliteOrbits(),
+                ephemerides, config.getGroundStations(), config.getStartDate(), config.getEndDate(),
+                InterSatelliteEngineType.DETECTOR, config.getToleranceProfile(), config.getVisibilityConstraints());
+        double eagerMs = (System.nanoTime() - t0) / 1e6;
+
+        // 2. 随机查询：偶数号为下一次过境，奇数号为是否建链
+        VisibilityQueryService service = new VisibilityQueryService(config.getSatelliteOrbits(), ephemerides,
+                config.getGroundStations(), config.getStartDate(), config.getEndDate(),
+                config.getToleranceProfile(), config.getVisibilityConstraints());
+        Random random = new Random(42);
+        int[][] queries = new int[queryCount][2];
+        double[] offsets = new double[queryCount];
+        for (int q = 0; q < queryCount; q++) {
+            queries[q][0] = random.nextInt(satCount);
+            queries[q][1] = (q % 2 == 0) ? random.nextInt(stationCount)
+                    : (queries[q][0] + 1 + random.nextInt(satCount - 1)) % satCount;
+            offsets[q] = random.nextDouble() * duration;
+        }
+        double bound = 2 * Math.max(config.getToleranceProfile().getGroundThreshold(),
+                config.getToleranceProfile().getInterThreshold());
+        double[] cold = new double[queryCount];
+        double[] warm = new double[queryCount];
+        int mismatches = 0;
+        for (int pass = 0; pass < 2; pass++) {
+            for (int q = 0; q < queryCount; q++) {
+                AbsoluteDate t = config.getStartDate().shiftedBy(offsets[q]);
+                long start = System.nanoTime();
+                if (q % 2 == 0) {
+                    VisibilityWindow window = service.nextPass(queries[q][0], queries[q][1], t);
+                    (pass == 0 ? cold : warm)[q] = (System.nanoTime() - start) / 1e6;
+                    if (pass == 0) {
+                        List<VisibilityWindow> expected = reference.get(queries[q][0]).getGroundStationResults()
+                                .getOrDefault(config.getGroundStations().get(queries[q][1]).toString(),
+                                        Collections.emptyList());
+                        mismatches += matches(window, next(expected, t), bound) ? 0 : 1;
+                    }
+                } else {
+                    boolean linked = service.isLinked(queries[q][0], queries[q][1], t);
+                    (pass == 0 ? cold : warm)[q] = (System.nanoTime() - start) / 1e6;
+                    if (pass == 0) {
+                        int lo = Math.min(queries[q][0], queries[q][1]);
+                        int hi = Math.max(queries[q][0], queries[q][1]);
+                        List<VisibilityWindow> expected = reference.get(lo).getInterSatelliteResults()
+                                .getOrDefault(hi, Collections.emptyList());
+                        mismatches += (linked == linked(expected, t, bound, config.getEndDate())
+                                || nearEdge(expected, t, bound)) ? 0 : 1;
+                    }
+                }
+            }
+        }
+
+        System.out.println("==== 按需查询延迟：" + configFile + "，" + queryCount + " 次查询 ====");
+        System.out.println(String.format("  全量计算：%.0f 毫秒", eagerMs));
+        System.out.println(String.format("  首次查询：p50 %.2f 毫秒，p99 %.2f 毫秒，最大 %.2f 毫秒",
+                percentile(cold, 0.5), percentile(cold, 0.99), percentile(cold, 1.0)));
+        System.out.println(String.format("  重复查询：p50 %.3f 毫秒，p99 %.3f 毫秒，最大 %.3f 毫秒",
+                percentile(warm, 0.5), percentile(warm, 0.99), percentile(warm, 1.0)));
+        System.out.println("  运行检测器的段数：" + service.getComputedSegmentCount() + "，与全量计算不一致的查询："
+                + mismatches);
+        if (mismatches > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static VisibilityWindow next(List<VisibilityWindow> windows, AbsoluteDate t) {
+        for (VisibilityWindow w : windows) {
+            if (w.getEndTime() == null || w.getEndTime().isAfter(t)) {
+                return w;
+            }
+        }
+        return null;
+    }
+
+    private static boolean matches(VisibilityWindow actual, VisibilityWindow expected, double bound) {
+        if (actual == null || expected == null) {
+            return actual == expected;
+        }
+        if (Math.abs(actual.getStartTime().durationFrom(expected.getStartTime())) > bound) {
+            return false;
+        }
+        if (actual.getEndTime() == null || expected.getEndTime() == null) {
+            return actual.getEndTime() == expected.getEndTime();
+        }
+        return Math.abs(actual.getEndTime().durationFrom(expected.getEndTime())) <= bound;
+    }
+
+    private static boolean linked(List<VisibilityWindow> windows, AbsoluteDate t, double bound, AbsoluteDate horizon) {
+        for (VisibilityWindow w : windows) {
+            AbsoluteDate end = (w.getEndTime() != null) ? w.getEndTime() : horizon.shiftedBy(bound);
+            if (!t.isBefore(w.getStartTime()) && t.isBefore(end)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean nearEdge(List<VisibilityWindow> windows, AbsoluteDate t, double bound) {
+        for (VisibilityWindow w : windows) {
+            if (Math.abs(t.durationFrom(w.getStartTime())) <= bound
+                    || (w.getEndTime() != null && Math.abs(t.durationFrom(w.getEndTime())) <= bound)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static double percentile(double[] values, double p) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[Math.max(0, (int) Math.ceil(p * sorted.length) - 1)];
+    }
+}
@@ -0,0 +1,105 @@
+package com.bupt.satviz.benchmark;
+
+import com.bupt.satviz.SatVizApplication;
+import com.bupt.satviz.calculation.PositionVelocityProvider;
+import com.bupt.satviz.concurrent.ParallelVisibilityExecutor;
+import com.bupt.satviz.concurrent.ShardedVisibilityExecutor;
+import com.bupt.satviz.config.OrekitConfig;
+import com.bupt.satviz.config.SimulationConfig;
+import com.bupt.satviz.ephemeris.EphemerisTable;
+import com.bupt.satviz.model.SatResult;
+import com.bupt.satviz.output.ConsoleResultPrinter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 多进程分片一致性检查
+ * 在本机启动 n 个子进程（SatVizApplication --shard k/n）分别计算各分片，全部结束后在本进程合并，
+ * 并与单进程 ParallelVisibilityExecutor 的结果逐字节比较打印输出，同时给出两种方式的耗时。
+ * 子进程沿用本进程的 classpath 与 JVM 参数，各子进程的可用核数限制为总核数 / n，避免线程数超订。
+ * 子进程的 classpath 取自 java.class.path，须直接用 java 命令启动（mvn exec:java 下该属性为 Maven 自身的 classpath）。
+ * 运行方式：java --add-modules jdk.incubator.vector -cp ... ShardingCheck [分片数] [场景文件] [分片目录]
+ */
+public class ShardingCheck {
+
+    public static void main(String[] args) throws Exception {
+        int shardCount = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        String configFile = args.length > 1 ? args[1] : "simulation_scenario_2.yaml";
+        Path shardDir = Paths.get(args.length > 2 ? args[2] : "shards");
+
+        // 1. 清除上次运行留下的分片文件，启动各分片子进程并等待全部结束
+        Files.createDirectories(shardDir);
+        for (int k = 0; k < shardCount; k++) {
+            Files.deleteIfExists(ShardedVisibilityExecutor.shardFile(shardDir, k, shardCount));
+        }
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        int coresPerShard = Math.max(1, Runtime.getRuntime().availableProcessors() / shardCount);
+        long t0 = System.nanoTime();
+        List<Process> processes = new ArrayList<>();
+        for (int k = 0; k < shardCount; k++) {
+            List<String> command = new ArrayList<>();
+            command.add(java);
+            command.addAll(ManagementFactory.getRuntimeMXBean().getInputArguments());
+            command.add("-XX:ActiveProcessorCount=" + coresPerShard);
+            command.addAll(Arrays.asList("-cp", System.getProperty("java.class.path"),
+                    SatVizApplication.class.getName(),
+                    "--config", configFile,
+                    "--shard", k + "/" + shardCount,
+                    "--shard-dir", shardDir.toString()));
+            processes.add(new ProcessBuilder(command)
+                    .redirectOutput(new File(shardDir.toFile(), "shard-" + k + ".log"))
+                    .redirectErrorStream(true)
+                    .start());
+        }
+        for (int k = 0; k < shardCount; k++) {
+            int exitCode = processes.get(k).waitFor();
+            if (exitCode != 0) {
+                throw new IllegalStateException("分片 " + k + "/" + shardCount + " 子进程异常退出：" + exitCode);
+            }
+        }
+
+        // 2. 合并分片结果
+        OrekitConfig.initialize();
+        SimulationConfig config = new SimulationConfig(configFile);
+        List<PositionVelocityProvider> ephemerides = EphemerisTable.forScenario(config);
+        List<SatResult> merged = ShardedVisibilityExecutor.merge(config, shardCount, shardDir);
+        double shardedMs = (System.nanoTime() - t0) / 1e6;
+
+        // 3. 单进程计算作为参照
+        long t1 = System.nanoTime();
+        List<SatResult> reference = ParallelVisibilityExecutor.computeAllVisibilities(config.getSatelliteOrbits(),
+                ephemerides, config.getGroundStations(), config.getStartDate(), config.getEndDate(),
+                config.getInterSatelliteEngine(), config.getToleranceProfile(), config.getVisibilityConstraints());
+        double singleMs = (System.nanoTime() - t1) / 1e6;
+
+        // 4. 逐字节比较打印输出
+        byte[] mergedBytes = render(merged);
+        byte[] referenceBytes = render(reference);
+        boolean identical = Arrays.equals(mergedBytes, referenceBytes);
+        System.out.println("==== 分片一致性检查：" + configFile + "，" + shardCount + " 个进程 ====");
+        System.out.println(String.format("  多进程（含子进程启动与合并）：%.0f 毫秒", shardedMs));
+        System.out.println(String.format("  单进程：%.0f 毫秒", singleMs));
+        System.out.println("  输出 " + mergedBytes.length + " 字节，与单进程" + (identical ? "逐字节一致" : "不一致"));
+        if (!identical) {
+            System.exit(1);
+        }
+    }
+
+    private static byte[] render(List<SatResult> results) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        PrintStream out = new PrintStream(buffer, true, StandardCharsets.UTF_8);
+        ConsoleResultPrinter.printResults(results, out);
+        out.flush();
+        return buffer.toByteArray();
+    }
+}
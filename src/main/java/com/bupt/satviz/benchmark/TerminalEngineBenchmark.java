@@ -0,0 +1,128 @@
+package com.bupt.satviz.benchmark;
+
+import com.bupt.satviz.calculation.PositionVelocityProvider;
+import com.bupt.satviz.config.OrekitConfig;
+import com.bupt.satviz.config.SimulationConfig;
+import com.bupt.satviz.config.ToleranceProfile;
+import com.bupt.satviz.coverage.EqualAreaGrid;
+import com.bupt.satviz.ephemeris.EphemerisTable;
+import com.bupt.satviz.model.AzimuthElevationMask;
+import com.bupt.satviz.model.GroundStation;
+import com.bupt.satviz.model.TerminalPass;
+import com.bupt.satviz.model.VisibilityWindow;
+import com.bupt.satviz.terminal.TerminalIndex;
+import com.bupt.satviz.terminal.TerminalVisibilityEngine;
+import com.bupt.satviz.terminal.TerminalVisibilityResult;
+import com.bupt.satviz.visibility.GroundStationVisibilityAnalyzer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * 大规模地面终端可见性基准测试
+ * 在球面上均匀随机生成终端（默认 10 万个），用 TerminalVisibilityEngine 计算场景内全部卫星对全部终端的过境窗口，
+ * 报告耗时与精确判定的组合数（对比逐步遍历全部卫星 × 终端组合的数量）；
+ * 再随机抽取部分终端，与逐对运行 GroundStationVisibilityAnalyzer 的结果比较：
+ * 没有漏检、多检且窗口边界误差不超过两倍收敛阈值时判定为通过，否则以非零状态码退出。
+ * 可指定带随机遮挡模板的终端比例，检查两条路径对遮挡模板的处理一致并观察查表的开销。
+ * 运行方式：java ... TerminalEngineBenchmark [场景文件] [终端数] [抽检终端数] [带遮挡模板的终端比例]
+ */
+public class TerminalEngineBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        OrekitConfig.initialize();
+        String configFile = args.length > 0 ? args[0] : "simulation_scenario_2.yaml";
+        int terminalCount = args.length > 1 ? Integer.parseInt(args[1]) : 100000;
+        int sampleCount = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+        double maskedFraction = args.length > 3 ? Double.parseDouble(args[3]) : 0.0;
+        SimulationConfig config = new SimulationConfig(configFile);
+        List<PositionVelocityProvider> ephemerides = EphemerisTable.forScenario(config);
+        ToleranceProfile tolerance = config.getToleranceProfile();
+
+        // 1. 球面均匀分布的随机终端，按比例附加随机遮挡模板（每 30° 一个点，仰角 0～20°）
+        Random random = new Random(42);
+        List<GroundStation> terminals = new ArrayList<>(terminalCount);
+        for (int t = 0; t < terminalCount; t++) {
+            double lat = Math.toDegrees(Math.asin(2 * random.nextDouble() - 1));
+            double lon = 360 * random.nextDouble() - 180;
+            AzimuthElevationMask mask = null;
+            if (random.nextDouble() < maskedFraction) {
+                double[][] points = new double[12][];
+                for (int k = 0; k < points.length; k++) {
+                    points[k] = new double[]{30.0 * k, 20.0 * random.nextDouble()};
+                }
+                mask = new AzimuthElevationMask(points);
+            }
+            terminals.add(new GroundStation(lat, lon, 0.0, mask));
+        }
+        long t0 = System.nanoTime();
+        TerminalIndex index = new TerminalIndex(terminals, new EqualAreaGrid(config.getTerminalIndexCells() > 0
+                ? config.getTerminalIndexCells() : 100000));
+        double indexMs = (System.nanoTime() - t0) / 1e6;
+
+        // 2. 索引引擎：先运行一次预热 JIT，再计时
+        TerminalVisibilityEngine engine = new TerminalVisibilityEngine(index, config.getVisibilityConstraints(),
+                tolerance);
+        run(engine, config, ephemerides);
+        long t1 = System.nanoTime();
+        TerminalVisibilityResult result = run(engine, config, ephemerides);
+        double engineMs = (System.nanoTime() - t1) / 1e6;
+        int satCount = config.getSatelliteOrbits().size();
+        long steps = (long) Math.ceil(config.getEndDate().durationFrom(config.getStartDate())
+                / tolerance.getGroundMaxCheck()) + 1;
+        double exhaustive = (double) satCount * terminalCount * steps;
+
+        // 3. 抽检：逐对检测器作为参照
+        GroundStationVisibilityAnalyzer analyzer = new GroundStationVisibilityAnalyzer(
+                config.getVisibilityConstraints().getMinElevationDeg(),
+                config.getVisibilityConstraints().getCoverageHalfAngleDeg(), tolerance);
+        ToleranceProfileHarness.Comparison comparison = new ToleranceProfileHarness.Comparison(config.getEndDate());
+        for (int k = 0; k < sampleCount && terminalCount > 0; k++) {
+            int t = random.nextInt(terminalCount);
+            GroundStation gs = terminals.get(t);
+            Map<Integer, List<VisibilityWindow>> expected = new HashMap<>();
+            for (int s = 0; s < satCount; s++) {
+                List<VisibilityWindow> windows = (ephemerides != null)
+                        ? analyzer.computeVisibility(ephemerides.get(s), config.getStartDate(), config.getEndDate(),
+                                gs)
+                        : analyzer.computeVisibility(config.getSatelliteOrbits().get(s), config.getStartDate(),
+                                config.getEndDate(), gs);
+                if (!windows.isEmpty()) {
+                    expected.put(s, windows);
+                }
+            }
+            Map<Integer, List<VisibilityWindow>> actual = new HashMap<>();
+            for (TerminalPass pass : result.passesOf(t)) {
+                actual.computeIfAbsent(pass.getSatId(), id -> new ArrayList<>()).add(new VisibilityWindow(
+                        pass.getStartTime(), pass.getEndTime(), pass.getDurationSeconds()));
+            }
+            comparison.compare(expected, actual);
+        }
+        double bound = 2 * tolerance.getGroundThreshold();
+        boolean passed = comparison.missed == 0 && comparison.spurious == 0 && comparison.maxError <= bound;
+
+        System.out.println("==== 大规模地面终端可见性：" + configFile + "，" + satCount + " 颗卫星 × "
+                + terminalCount + " 个终端 ====");
+        System.out.println(String.format("  建立索引：%.0f 毫秒，计算：%.0f 毫秒，过境窗口 %d 个",
+                indexMs, engineMs, result.getPasses().size()));
+        System.out.println(String.format("  精确判定组合数：%d（逐步遍历全部组合为 %.0f，占 %.2f%%），窗口边界求根 %d 次",
+                result.getCandidateTests(), exhaustive, result.getCandidateTests() * 100 / exhaustive,
+                result.getRefinements()));
+        System.out.println(String.format("  抽检 %d 个终端：匹配 %d，漏检 %d，多检 %d，最大边界误差 %.6f 秒  %s",
+                sampleCount, comparison.matched, comparison.missed, comparison.spurious, comparison.maxError,
+                passed ? "通过" : "超限"));
+        if (!passed) {
+            System.exit(1);
+        }
+    }
+
+    private static TerminalVisibilityResult run(TerminalVisibilityEngine engine, SimulationConfig config,
+                                                List<PositionVelocityProvider> ephemerides) {
+        return (ephemerides != null)
+                ? engine.computeVisibilityFromEphemerides(ephemerides, config.getStartDate(), config.getEndDate())
+                : engine.computeVisibility(config.getSatelliteOrbits(), config.getStartDate(), config.getEndDate());
+    }
+}
@@ -0,0 +1,132 @@
+package com.bupt.satviz.benchmark;
+
+import com.bupt.satviz.calculation.PositionVelocityProvider;
+import com.bupt.satviz.concurrent.ParallelVisibilityExecutor;
+import com.bupt.satviz.concurrent.TimeChunkPlan;
+import com.bupt.satviz.concurrent.TimeChunkedVisibilityExecutor;
+import com.bupt.satviz.config.InterSatelliteEngineType;
+import com.bupt.satviz.config.OrekitConfig;
+import com.bupt.satviz.config.SimulationConfig;
+import com.bupt.satviz.config.ToleranceProfile;
+import com.bupt.satviz.ephemeris.EphemerisTable;
+import com.bupt.satviz.model.SatResult;
+import com.bupt.satviz.model.VisibilityWindow;
+import com.bupt.satviz.output.ConsoleResultPrinter;
+import org.orekit.time.AbsoluteDate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 时间分块一致性检查
+ * 对同一场景分别按卫星并行（整段传播）和按时间分块并行计算，比较两者的窗口：
+ * 两次计算的采样点不一定重合，短于约一个检查间隔的窗口（或窗口间的短间隙）可能只被其中一方检测到，这类差异只报告；
+ * 去掉短窗口、合并短间隙后不允许漏检或多检，窗口边界之差不超过两倍收敛阈值（两次根搜索各自的误差）。
+ * 同时报告打印输出是否逐字节一致与加速比。
+ * 可配合 -XX:ActiveProcessorCount 观察耗时随核数的变化。
+ * 运行方式：java ... TimeChunkCheck [场景文件] [时间块长度（秒）]
+ */
+public class TimeChunkCheck {
+
+    public static void main(String[] args) throws Exception {
+        OrekitConfig.initialize();
+        String configFile = args.length > 0 ? args[0] : "simulation_scenario_2.yaml";
+        SimulationConfig config = new SimulationConfig(configFile);
+        double chunkSeconds = args.length > 1 ? Double.parseDouble(args[1])
+                : (config.getTimeChunkSeconds() > 0 ? config.getTimeChunkSeconds() : 21600.0);
+        List<PositionVelocityProvider> ephemerides = EphemerisTable.forScenario(config);
+        ToleranceProfile tolerance = config.getToleranceProfile();
+        TimeChunkPlan plan = new TimeChunkPlan(config.getStartDate(), config.getEndDate(), chunkSeconds,
+                TimeChunkPlan.alignment(tolerance, config.getInterSatelliteEngine()));
+
+        // 1. 参照：按卫星并行、整段传播
+        long t0 = System.nanoTime();
+        List<SatResult> reference = ParallelVisibilityExecutor.computeAllVisibilities(config.getSatelliteOrbits(),
+                ephemerides, config.getGroundStations(), config.getStartDate(), config.getEndDate(),
+                config.getInterSatelliteEngine(), tolerance, config.getVisibilityConstraints());
+        double referenceMs = (System.nanoTime() - t0) / 1e6;
+
+        // 2. 按时间分块并行
+        long t1 = System.nanoTime();
+        List<SatResult> chunked = TimeChunkedVisibilityExecutor.computeAllVisibilities(config.getSatelliteOrbits(),
+                ephemerides, config.getGroundStations(), config.getStartDate(), config.getEndDate(),
+                config.getInterSatelliteEngine(), tolerance, config.getVisibilityConstraints(), chunkSeconds);
+        double chunkedMs = (System.nanoTime() - t1) / 1e6;
+
+        // 3. 逐个地面站、卫星对比较窗口：原始结果只统计差异，去掉短窗口、合并短间隙后的结果判定是否通过
+        AbsoluteDate horizon = config.getEndDate();
+        double groundLimit = tolerance.getGroundMaxCheck();
+        double interLimit = (config.getInterSatelliteEngine() == InterSatelliteEngineType.DETECTOR)
+                ? tolerance.getInterMaxCheck() : tolerance.getVectorStepSeconds();
+        ToleranceProfileHarness.Comparison raw = new ToleranceProfileHarness.Comparison(horizon);
+        ToleranceProfileHarness.Comparison comparison = new ToleranceProfileHarness.Comparison(horizon);
+        for (int s = 0; s < reference.size(); s++) {
+            SatResult expected = reference.get(s);
+            SatResult actual = chunked.get(s);
+            raw.compare(expected.getGroundStationResults(), actual.getGroundStationResults());
+            raw.compare(expected.getInterSatelliteResults(), actual.getInterSatelliteResults());
+            comparison.compare(withoutShort(expected.getGroundStationResults(), groundLimit, horizon),
+                    withoutShort(actual.getGroundStationResults(), groundLimit, horizon));
+            comparison.compare(withoutShort(expected.getInterSatelliteResults(), interLimit, horizon),
+                    withoutShort(actual.getInterSatelliteResults(), interLimit, horizon));
+        }
+        double bound = 2 * Math.max(tolerance.getGroundThreshold(), tolerance.getInterThreshold());
+        boolean passed = comparison.missed == 0 && comparison.spurious == 0 && comparison.maxError <= bound;
+        boolean identical = Arrays.equals(render(reference), render(chunked));
+
+        System.out.println("==== 时间分块一致性检查：" + configFile + "，" + plan.getChunkCount() + " 个时间块（"
+                + String.format("%.0f 秒", plan.getChunkSeconds()) + "），"
+                + Runtime.getRuntime().availableProcessors() + " 核 ====");
+        System.out.println(String.format("  整段传播：%.0f 毫秒", referenceMs));
+        System.out.println(String.format("  时间分块：%.0f 毫秒（加速比 %.1fx）", chunkedMs, referenceMs / chunkedMs));
+        System.out.println(String.format("  原始窗口 %d 个，漏检 %d，多检 %d，最大边界误差 %.3g 秒"
+                        + "（含短于检查间隔 %.0f/%.0f 秒的窗口或间隙，采样点不同所致，只报告）",
+                raw.matched, raw.missed, raw.spurious, raw.maxError, groundLimit, interLimit));
+        System.out.println(String.format("  去掉短窗口、合并短间隙后：窗口 %d 个，漏检 %d，多检 %d，最大边界误差 %.3g 秒（上限 %.3g 秒）",
+                comparison.matched, comparison.missed, comparison.spurious, comparison.maxError, bound));
+        System.out.println("  打印输出" + (identical ? "逐字节一致" : "存在舍入差异") + "，检查" + (passed ? "通过" : "未通过"));
+        if (!passed) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * 去掉短于 limit 秒的窗口，再合并间隔短于 limit 秒的相邻窗口。
+     */
+    private static <K> Map<K, List<VisibilityWindow>> withoutShort(Map<K, List<VisibilityWindow>> results,
+                                                                 double limit, AbsoluteDate horizon) {
+        Map<K, List<VisibilityWindow>> filtered = new HashMap<>();
+        for (Map.Entry<K, List<VisibilityWindow>> entry : results.entrySet()) {
+            List<VisibilityWindow> windows = new ArrayList<>();
+            for (VisibilityWindow window : entry.getValue()) {
+                AbsoluteDate end = (window.getEndTime() != null) ? window.getEndTime() : horizon;
+                if (end.durationFrom(window.getStartTime()) < limit) {
+                    continue;
+                }
+                VisibilityWindow last = windows.isEmpty() ? null : windows.get(windows.size() - 1);
+                if (last != null && window.getStartTime().durationFrom(last.getEndTime()) < limit) {
+                    windows.set(windows.size() - 1, new VisibilityWindow(last.getStartTime(), window.getEndTime(),
+                            end.durationFrom(last.getStartTime())));
+                } else {
+                    windows.add(window);
+                }
+            }
+            filtered.put(entry.getKey(), windows);
+        }
+        return filtered;
+    }
+
+    private static byte[] render(List<SatResult> results) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        PrintStream out = new PrintStream(buffer, true, StandardCharsets.UTF_8);
+        ConsoleResultPrinter.printResults(results, out);
+        out.flush();
+        return buffer.toByteArray();
+    }
+}
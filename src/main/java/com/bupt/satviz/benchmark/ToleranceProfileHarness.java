@@ -0,0 +1,152 @@
+package com.bupt.satviz.benchmark;
+
+import com.bupt.satviz.calculation.PositionVelocityProvider;
+import com.bupt.satviz.concurrent.ParallelVisibilityExecutor;
+import com.bupt.satviz.config.InterSatelliteEngineType;
+import com.bupt.satviz.config.OrekitConfig;
+import com.bupt.satviz.config.SimulationConfig;
+import com.bupt.satviz.config.ToleranceProfile;
+import com.bupt.satviz.ephemeris.EphemerisTable;
+import com.bupt.satviz.model.SatResult;
+import com.bupt.satviz.model.VisibilityWindow;
+import org.orekit.time.AbsoluteDate;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 容差档位精度回归测试
+ * 以 precise 档位（逐对检测器）的结果为参照，对场景依次运行各容差档位，统计：
+ * 窗口漏检/多检数、窗口边界的最大与平均误差，以及相对参照的加速比。
+ * 最大边界误差不超过“档位阈值 + 参照阈值”且没有漏检、多检时判定为通过，否则以非零状态码退出，
+ * 可直接用于放宽容差前后的回归检查。survey 档位的检查间隔较长，按设计可能漏掉极短的擦边窗口。
+ * 运行方式：java --add-modules jdk.incubator.vector ... ToleranceProfileHarness [场景文件] [档位...]
+ */
+public class ToleranceProfileHarness {
+
+    public static void main(String[] args) throws Exception {
+        OrekitConfig.initialize();
+        String configFile = args.length > 0 ? args[0] : "simulation_scenario_2.yaml";
+        List<String> profiles = args.length > 1
+                ? Arrays.asList(args).subList(1, args.length)
+                : Arrays.asList("survey", "operational", "precise");
+        SimulationConfig config = new SimulationConfig(configFile);
+        List<PositionVelocityProvider> ephemerides = EphemerisTable.forScenario(config);
+
+        // 1. 参照结果：precise 档位 + 逐对检测器；先运行一次预热 JIT，再计时
+        ToleranceProfile reference = ToleranceProfile.precise();
+        run(config, ephemerides, reference, InterSatelliteEngineType.DETECTOR);
+        long t0 = System.nanoTime();
+        List<SatResult> expected = run(config, ephemerides, reference, InterSatelliteEngineType.DETECTOR);
+        double referenceMs = (System.nanoTime() - t0) / 1e6;
+
+        System.out.println("==== 容差档位精度回归：" + configFile + "（参照：precise / detector，"
+                + String.format("%.0f 毫秒", referenceMs) + "）====");
+        System.out.println(String.format("  %-12s %-9s %10s %8s %8s %6s %6s %16s %16s  %s",
+                "档位", "引擎", "耗时(ms)", "加速比", "窗口数", "漏检", "多检", "最大边界误差(s)", "平均边界误差(s)", "结果"));
+        boolean allPassed = true;
+        for (String name : profiles) {
+            // 2. 按档位自身的引擎选择运行并计时
+            ToleranceProfile profile = ToleranceProfile.named(name);
+            long t1 = System.nanoTime();
+            List<SatResult> actual = run(config, ephemerides, profile, profile.getInterSatelliteEngine());
+            double elapsedMs = (System.nanoTime() - t1) / 1e6;
+
+            // 3. 逐个地面站、卫星对比较窗口
+            Comparison comparison = new Comparison(config.getEndDate());
+            for (int s = 0; s < expected.size(); s++) {
+                comparison.compare(expected.get(s).getGroundStationResults(), actual.get(s).getGroundStationResults());
+                comparison.compare(expected.get(s).getInterSatelliteResults(), actual.get(s).getInterSatelliteResults());
+            }
+            double bound = Math.max(profile.getGroundThreshold(), profile.getInterThreshold())
+                    + Math.max(reference.getGroundThreshold(), reference.getInterThreshold());
+            boolean passed = comparison.missed == 0 && comparison.spurious == 0 && comparison.maxError <= bound;
+            allPassed &= passed;
+            System.out.println(String.format("  %-12s %-9s %10.0f %7.1fx %8d %6d %6d %16.6f %16.6f  %s",
+                    profile.getName(), profile.getInterSatelliteEngine().name().toLowerCase(), elapsedMs,
+                    referenceMs / elapsedMs, comparison.matched, comparison.missed, comparison.spurious,
+                    comparison.maxError, comparison.meanError(), passed ? "通过" : "超限"));
+        }
+        if (!allPassed) {
+            System.exit(1);
+        }
+    }
+
+    private static List<SatResult> run(SimulationConfig config, List<PositionVelocityProvider> ephemerides,
+                                       ToleranceProfile profile, InterSatelliteEngineType engineType) throws Exception {
+        return ParallelVisibilityExecutor.computeAllVisibilities(config.getSatelliteOrbits(), ephemerides,
+                config.getGroundStations(), config.getStartDate(), config.getEndDate(), engineType,
+                profile, config.getVisibilityConstraints());
+    }
+
+    /**
+     * 窗口比较统计：按时间重叠配对参照窗口与待测窗口，未配对的分别计为漏检与多检。
+     */
+    static class Comparison {
+        private final AbsoluteDate horizon;
+        int matched;
+        int missed;
+        int spurious;
+        private int edges;
+        double maxError;
+        private double sumError;
+
+        Comparison(AbsoluteDate horizon) {
+            this.horizon = horizon;
+        }
+
+        <K> void compare(Map<K, List<VisibilityWindow>> expected, Map<K, List<VisibilityWindow>> actual) {
+            Set<K> keys = new HashSet<>(expected.keySet());
+            keys.addAll(actual.keySet());
+            for (K key : keys) {
+                compare(expected.getOrDefault(key, Collections.emptyList()),
+                        actual.getOrDefault(key, Collections.emptyList()));
+            }
+        }
+
+        private void compare(List<VisibilityWindow> expected, List<VisibilityWindow> actual) {
+            int i = 0;
+            int j = 0;
+            while (i < expected.size() && j < actual.size()) {
+                VisibilityWindow e = expected.get(i);
+                VisibilityWindow a = actual.get(j);
+                if (endOf(e).compareTo(a.getStartTime()) < 0) {
+                    missed++;
+                    i++;
+                } else if (endOf(a).compareTo(e.getStartTime()) < 0) {
+                    spurious++;
+                    j++;
+                } else {
+                    matched++;
+                    addError(Math.abs(a.getStartTime().durationFrom(e.getStartTime())));
+                    // 窗口在仿真结束时仍未关闭时只比较开始时间；一方关闭另一方未关闭时按到结束时刻的差计
+                    if (e.getEndTime() != null || a.getEndTime() != null) {
+                        addError(Math.abs(endOf(a).durationFrom(endOf(e))));
+                    }
+                    i++;
+                    j++;
+                }
+            }
+            missed += expected.size() - i;
+            spurious += actual.size() - j;
+        }
+
+        private AbsoluteDate endOf(VisibilityWindow window) {
+            return window.getEndTime() != null ? window.getEndTime() : horizon;
+        }
+
+        private void addError(double error) {
+            edges++;
+            sumError += error;
+            maxError = Math.max(maxError, error);
+        }
+
+        double meanError() {
+            return edges > 0 ? sumError / edges : 0.0;
+        }
+    }
+}
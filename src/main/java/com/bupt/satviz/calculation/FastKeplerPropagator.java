@@ -0,0 +1,165 @@
+package com.bupt.satviz.calculation;
+
+import com.bupt.satviz.model.KeplerianElements;
+import lombok.Getter;
+import org.hipparchus.util.FastMath;
+import org.hipparchus.util.MathUtils;
+import org.orekit.time.AbsoluteDate;
+
+/**
+ * 轻量级开普勒轨道传播器
+ * 构造时一次性预计算近焦点坐标系到惯性系（EME2000）的旋转矩阵与平均角速度，
+ * 之后每次求值只需若干三角函数运算，结果写入调用方提供的 double 数组，不产生任何对象分配。
+ * 圆轨道（偏心率为 0）走闭式解；椭圆轨道用牛顿迭代求解开普勒方程，初值只取决于求值时刻，
+ * 同一时刻的结果与调用顺序无关（分片、分块与整段计算逐位一致）。实例无可变状态，可在线程间共享。
+ */
+public class FastKeplerPropagator implements PositionVelocityProvider {
+
+    // 偏心率小于该值时按圆轨道处理
+    private static final double CIRCULAR_ECCENTRICITY = 1e-12;
+    // 开普勒方程牛顿迭代的最大次数与收敛阈值（rad，按 1/(1-e) 放宽）
+    private static final int MAX_KEPLER_ITERATIONS = 50;
+    private static final double KEPLER_TOLERANCE = 1e-14;
+
+    @Getter
+    private final AbsoluteDate epoch;
+    @Getter
+    private final double meanMotion;        // 平均角速度 (rad/s)
+    private final double semiMajorAxis;
+    private final double eccentricity;
+    private final boolean circular;
+    private final double initialAngle;      // 圆轨道：初始真近点角；椭圆轨道：初始平近点角 (rad)
+    private final double sqrtOneMinusE2;
+
+    // 近焦点坐标系基向量 P（指向近地点）与 Q 在惯性系下的分量
+    private final double px, py, pz;
+    private final double qx, qy, qz;
+
+    public FastKeplerPropagator(KeplerianElements elements, double mu) {
+        if (elements.getEccentricity() < 0.0 || elements.getEccentricity() >= 1.0) {
+            throw new IllegalArgumentException("仅支持闭合轨道（0 <= e < 1），当前偏心率：" + elements.getEccentricity());
+        }
+        this.epoch = elements.getEpoch();
+        this.semiMajorAxis = elements.getSemiMajorAxis();
+        this.eccentricity = elements.getEccentricity();
+        this.circular = eccentricity < CIRCULAR_ECCENTRICITY;
+        this.meanMotion = FastMath.sqrt(mu / (semiMajorAxis * semiMajorAxis * semiMajorAxis));
+        this.sqrtOneMinusE2 = FastMath.sqrt(1.0 - eccentricity * eccentricity);
+
+        double i = FastMath.toRadians(elements.getInclination());
+        double raan = FastMath.toRadians(elements.getRaan());
+        double w = FastMath.toRadians(elements.getArgPerigee());
+        double cosRaan = FastMath.cos(raan), sinRaan = FastMath.sin(raan);
+        double cosW = FastMath.cos(w), sinW = FastMath.sin(w);
+        double cosI = FastMath.cos(i), sinI = FastMath.sin(i);
+        this.px = cosRaan * cosW - sinRaan * sinW * cosI;
+        this.py = sinRaan * cosW + cosRaan * sinW * cosI;
+        this.pz = sinW * sinI;
+        this.qx = -cosRaan * sinW - sinRaan * cosW * cosI;
+        this.qy = -sinRaan * sinW + cosRaan * cosW * cosI;
+        this.qz = cosW * sinI;
+
+        double nu = FastMath.toRadians(elements.getTrueAnomaly());
+        if (circular) {
+            this.initialAngle = nu;
+        } else {
+            // 真近点角 -> 偏近点角 -> 平近点角
+            double e0 = 2.0 * FastMath.atan(FastMath.sqrt((1.0 - eccentricity) / (1.0 + eccentricity))
+                    * FastMath.tan(0.5 * nu));
+            this.initialAngle = e0 - eccentricity * FastMath.sin(e0);
+        }
+    }
+
+    /**
+     * 计算目标时刻卫星在惯性系下的位置。
+     *
+     * @param date     目标时间
+     * @param position 输出数组，至少 3 个元素：x, y, z (m)
+     */
+    @Override
+    public void getPosition(AbsoluteDate date, double[] position) {
+        evaluate(date.durationFrom(epoch), position, false);
+    }
+
+    /**
+     * 计算目标时刻卫星在惯性系下的位置与速度。
+     *
+     * @param date 目标时间
+     * @param pv   输出数组，至少 6 个元素：x, y, z (m), vx, vy, vz (m/s)
+     */
+    @Override
+    public void getPositionVelocity(AbsoluteDate date, double[] pv) {
+        evaluate(date.durationFrom(epoch), pv, true);
+    }
+
+    /**
+     * 按相对历元的秒数求值，供已自行维护时间偏移的批量计算使用。
+     */
+    public void getPosition(double secondsSinceEpoch, double[] position) {
+        evaluate(secondsSinceEpoch, position, false);
+    }
+
+    /**
+     * 按相对历元的秒数求值，供已自行维护时间偏移的批量计算使用。
+     */
+    public void getPositionVelocity(double secondsSinceEpoch, double[] pv) {
+        evaluate(secondsSinceEpoch, pv, true);
+    }
+
+    private void evaluate(double dt, double[] out, boolean withVelocity) {
+        double xp, yp, vxp = 0.0, vyp = 0.0;
+        if (circular) {
+            // 圆轨道：真近点角随时间线性变化
+            double angle = initialAngle + meanMotion * dt;
+            double cos = FastMath.cos(angle);
+            double sin = FastMath.sin(angle);
+            xp = semiMajorAxis * cos;
+            yp = semiMajorAxis * sin;
+            if (withVelocity) {
+                double v = semiMajorAxis * meanMotion;
+                vxp = -v * sin;
+                vyp = v * cos;
+            }
+        } else {
+            double bigE = solveKepler(initialAngle + meanMotion * dt);
+            double cosE = FastMath.cos(bigE);
+            double sinE = FastMath.sin(bigE);
+            xp = semiMajorAxis * (cosE - eccentricity);
+            yp = semiMajorAxis * sqrtOneMinusE2 * sinE;
+            if (withVelocity) {
+                double factor = semiMajorAxis * meanMotion / (1.0 - eccentricity * cosE);
+                vxp = -factor * sinE;
+                vyp = factor * sqrtOneMinusE2 * cosE;
+            }
+        }
+        out[0] = xp * px + yp * qx;
+        out[1] = xp * py + yp * qy;
+        out[2] = xp * pz + yp * qz;
+        if (withVelocity) {
+            out[3] = vxp * px + vyp * qx;
+            out[4] = vxp * py + vyp * qy;
+            out[5] = vxp * pz + vyp * qz;
+        }
+    }
+
+    /**
+     * 牛顿迭代求解开普勒方程 M = E - e·sinE。
+     * 平近点角先归约到 [0, 2π)；初值取 M + e·sinM，高偏心率（e > 0.8）时取 π，
+     * 两种初值在整个区间上都能收敛。高偏心率时近地点附近 dM/dE = 1 - e·cosE 接近 0，舍入误差按 1/(1-e) 放大，
+     * 收敛阈值随之放宽，否则迭代会在末位附近来回振荡。
+     */
+    private double solveKepler(double meanAnomaly) {
+        double m = MathUtils.normalizeAngle(meanAnomaly, FastMath.PI);
+        double bigE = (eccentricity > 0.8) ? FastMath.PI : m + eccentricity * FastMath.sin(m);
+        double tolerance = KEPLER_TOLERANCE / (1.0 - eccentricity);
+        for (int iter = 0; iter < MAX_KEPLER_ITERATIONS; iter++) {
+            double f = bigE - eccentricity * FastMath.sin(bigE) - m;
+            double delta = f / (1.0 - eccentricity * FastMath.cos(bigE));
+            bigE -= delta;
+            if (FastMath.abs(delta) < tolerance) {
+                return bigE;
+            }
+        }
+        throw new IllegalStateException("开普勒方程未收敛：M=" + meanAnomaly + "，e=" + eccentricity);
+    }
+}
@@ -2,15 +2,12 @@ package com.bupt.satviz.calculation;
 
 import com.bupt.satviz.model.KeplerianElements;
 import com.bupt.satviz.model.PropagationResult;
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
 import org.orekit.bodies.GeodeticPoint;
 import org.orekit.bodies.OneAxisEllipsoid;
 import org.orekit.frames.Frame;
 import org.orekit.frames.FramesFactory;
 import org.orekit.frames.Transform;
-import org.orekit.orbits.KeplerianOrbit;
-import org.orekit.propagation.Propagator;
-import org.orekit.propagation.SpacecraftState;
-import org.orekit.propagation.analytical.KeplerianPropagator;
 import org.orekit.time.AbsoluteDate;
 import org.orekit.utils.Constants;
 import org.orekit.utils.IERSConventions;
@@ -27,8 +24,11 @@ public class OrbitPropagator {
             Constants.WGS84_EARTH_EQUATORIAL_RADIUS,
             Constants.WGS84_EARTH_FLATTENING,
             earthFrame);
+    // 位置速度缓冲区（x, y, z, vx, vy, vz）
+    private final double[] pv = new double[6];
+
     /*
-     *  使用Orekit的开普勒轨道传播器
+     *  使用闭式开普勒传播器（FastKeplerPropagator）
      *  将给定轨道参数的卫星传播到目标时间
      *  返回包含位置和变化率的结果对象
      *  输出接口说明：PropagationResult 中可以通过相应的getter获取结果。
@@ -36,29 +36,21 @@ public class OrbitPropagator {
      *  result.getLatRateDegPerSec() 等方法提供变化率（纬度/经度为度每秒，高度为米每秒）。
      */
     public PropagationResult propagate(KeplerianElements orbitElem, AbsoluteDate targetDate) {
-        // 1. 构造开普勒轨道和传播器
-        KeplerianOrbit orbit = orbitElem.toOrbit(inertialFrame, Constants.WGS84_EARTH_MU);
-        Propagator keplerProp = new KeplerianPropagator(orbit);
-
-        // 2. 将轨道传播到目标时间，得到卫星状态
-        SpacecraftState state = keplerProp.propagate(targetDate);
-
-        // 3. 获取卫星在惯性系下的轨道坐标 (位置、速度)
-        PVCoordinates pvInertial = state.getPVCoordinates(inertialFrame);
-
-        // 4. 计算从惯性系转换到地球固定系 (ITRF) 的变换，并获得卫星在ITRF下的坐标
-        Transform inertialToEarth = inertialFrame.getTransformTo(earthFrame, targetDate);
-        PVCoordinates pvEarth = inertialToEarth.transformPVCoordinates(pvInertial);
+        // 1. 构造闭式开普勒传播器（预计算旋转矩阵与平均角速度）
+        FastKeplerPropagator keplerProp = new FastKeplerPropagator(orbitElem, Constants.WGS84_EARTH_MU);
+        return propagate(keplerProp, targetDate);
+    }
 
-        // 5. 将地心直角坐标转换为大地坐标 (经纬度、高度)
-        GeodeticPoint geoPoint = earth.transform(pvEarth.getPosition(), earthFrame, targetDate);
+    /*
+     *  与上面相同，但卫星位置来自预计算星历等数据源（PositionVelocityProvider）
+     */
+    public PropagationResult propagate(PositionVelocityProvider satellite, AbsoluteDate targetDate) {
+        // 2~5. 传播到目标时间并转换为大地坐标
+        GeodeticPoint geoPoint = toGeodetic(satellite, targetDate);
 
         // 6. 数值微分计算经纬高变化率（以很小的dt计算差分）
         double dt = 0.1; // 时间步长0.1秒
-        SpacecraftState stateLater = keplerProp.propagate(targetDate.shiftedBy(dt));
-        PVCoordinates pvEarthLater = inertialFrame.getTransformTo(earthFrame, stateLater.getDate())
-                .transformPVCoordinates(stateLater.getPVCoordinates(inertialFrame));
-        GeodeticPoint geoPointLater = earth.transform(pvEarthLater.getPosition(), earthFrame, stateLater.getDate());
+        GeodeticPoint geoPointLater = toGeodetic(satellite, targetDate.shiftedBy(dt));
 
         // 计算每秒变化量
         double latRate = Math.toDegrees(geoPointLater.getLatitude() - geoPoint.getLatitude()) / dt;
@@ -68,4 +60,18 @@ public class OrbitPropagator {
         // 7. 封装结果
         return new PropagationResult(geoPoint, latRate, lonRate, altRate);
     }
+
+    private GeodeticPoint toGeodetic(PositionVelocityProvider satellite, AbsoluteDate date) {
+        // 获取卫星在惯性系下的轨道坐标 (位置、速度)
+        satellite.getPositionVelocity(date, pv);
+        PVCoordinates pvInertial = new PVCoordinates(new Vector3D(pv[0], pv[1], pv[2]),
+                new Vector3D(pv[3], pv[4], pv[5]));
+
+        // 计算从惯性系转换到地球固定系 (ITRF) 的变换，并获得卫星在ITRF下的坐标
+        Transform inertialToEarth = inertialFrame.getTransformTo(earthFrame, date);
+        PVCoordinates pvEarth = inertialToEarth.transformPVCoordinates(pvInertial);
+
+        // 将地心直角坐标转换为大地坐标 (经纬度、高度)
+        return earth.transform(pvEarth.getPosition(), earthFrame, date);
+    }
 }
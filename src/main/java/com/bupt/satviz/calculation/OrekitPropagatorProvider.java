@@ -0,0 +1,48 @@
+package com.bupt.satviz.calculation;
+
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.orekit.frames.Frame;
+import org.orekit.propagation.Propagator;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.utils.PVCoordinates;
+
+/**
+ * 将 Orekit 传播器包装为位置速度数据源
+ * 用于对解析 J2 模型、数值积分的稠密输出等传播器按时间采样生成星历。
+ * 数值传播器按时间顺序求值时会从上一次的状态继续积分；包装对象不是线程安全的。
+ */
+public class OrekitPropagatorProvider implements PositionVelocityProvider {
+
+    private final Propagator propagator;
+    private final Frame frame;
+
+    /**
+     * @param propagator Orekit 传播器
+     * @param frame      输出坐标所在的惯性系
+     */
+    public OrekitPropagatorProvider(Propagator propagator, Frame frame) {
+        this.propagator = propagator;
+        this.frame = frame;
+    }
+
+    @Override
+    public void getPosition(AbsoluteDate date, double[] position) {
+        Vector3D p = propagator.getPosition(date, frame);
+        position[0] = p.getX();
+        position[1] = p.getY();
+        position[2] = p.getZ();
+    }
+
+    @Override
+    public void getPositionVelocity(AbsoluteDate date, double[] pv) {
+        PVCoordinates coordinates = propagator.getPVCoordinates(date, frame);
+        Vector3D p = coordinates.getPosition();
+        Vector3D v = coordinates.getVelocity();
+        pv[0] = p.getX();
+        pv[1] = p.getY();
+        pv[2] = p.getZ();
+        pv[3] = v.getX();
+        pv[4] = v.getY();
+        pv[5] = v.getZ();
+    }
+}
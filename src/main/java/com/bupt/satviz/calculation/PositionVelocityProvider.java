@@ -0,0 +1,23 @@
+package com.bupt.satviz.calculation;
+
+import org.orekit.time.AbsoluteDate;
+
+/**
+ * 卫星位置速度数据源
+ * 统一闭式传播器（FastKeplerPropagator）与预计算星历（EphemerisTable）的访问方式：
+ * 结果均为 EME2000 惯性系下的坐标，写入调用方提供的 double 数组，不产生对象分配。
+ */
+public interface PositionVelocityProvider {
+
+    /**
+     * @param date     目标时间
+     * @param position 输出数组，至少 3 个元素：x, y, z (m)
+     */
+    void getPosition(AbsoluteDate date, double[] position);
+
+    /**
+     * @param date 目标时间
+     * @param pv   输出数组，至少 6 个元素：x, y, z (m), vx, vy, vz (m/s)
+     */
+    void getPositionVelocity(AbsoluteDate date, double[] pv);
+}
@@ -0,0 +1,204 @@
+package com.bupt.satviz.calculation;
+
+import com.bupt.satviz.config.PropagationModelType;
+import com.bupt.satviz.model.KeplerianElements;
+import lombok.AccessLevel;
+import lombok.Getter;
+import org.hipparchus.ode.nonstiff.AdaptiveStepsizeIntegrator;
+import org.hipparchus.ode.nonstiff.DormandPrince853Integrator;
+import org.orekit.bodies.CelestialBodyFactory;
+import org.orekit.bodies.OneAxisEllipsoid;
+import org.orekit.forces.drag.DragForce;
+import org.orekit.forces.drag.IsotropicDrag;
+import org.orekit.forces.gravity.HolmesFeatherstoneAttractionModel;
+import org.orekit.forces.gravity.potential.GravityFieldFactory;
+import org.orekit.forces.gravity.potential.NormalizedSphericalHarmonicsProvider;
+import org.orekit.forces.gravity.potential.UnnormalizedSphericalHarmonicsProvider;
+import org.orekit.frames.Frame;
+import org.orekit.frames.FramesFactory;
+import org.orekit.models.earth.ReferenceEllipsoid;
+import org.orekit.models.earth.atmosphere.NRLMSISE00;
+import org.orekit.models.earth.atmosphere.NRLMSISE00InputParameters;
+import org.orekit.models.earth.atmosphere.data.CssiSpaceWeatherData;
+import org.orekit.models.earth.atmosphere.data.MarshallSolarActivityFutureEstimation;
+import org.orekit.orbits.KeplerianOrbit;
+import org.orekit.orbits.OrbitType;
+import org.orekit.propagation.EphemerisGenerator;
+import org.orekit.propagation.Propagator;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.propagation.analytical.BrouwerLyddanePropagator;
+import org.orekit.propagation.analytical.EcksteinHechlerPropagator;
+import org.orekit.propagation.analytical.KeplerianPropagator;
+import org.orekit.propagation.numerical.NumericalPropagator;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.utils.Constants;
+import org.orekit.utils.IERSConventions;
+
+/**
+ * 轨道传播模型
+ * 根据场景配置为每颗卫星构造位置速度数据源：开普勒模型直接使用闭式传播器；
+ * 解析 J2 模型（Eckstein-Hechler / Brouwer-Lyddane）与数值模型（重力场 + 大气阻力）包装为 Orekit 传播器。
+ * 高精度模型每次求值代价很高，应只用于生成星历（见 EphemerisWriter），
+ * 每颗卫星只积分一次，所有检测器共享插值后的星历，而不是在检测器的 g 函数中逐次调用。
+ * 重力场系数与空间天气数据在同一模型的所有卫星之间共享，只加载一次。
+ */
+@Getter
+public class PropagationModel {
+
+    // 数值积分的最小、最大步长（秒）
+    private static final double MIN_STEP = 0.001;
+    private static final double MAX_STEP = 300.0;
+    // 解析模型所需的带谐项最高阶数（Eckstein-Hechler 使用 J2~J6，Brouwer-Lyddane 使用 J2~J5）
+    private static final int ZONAL_DEGREE = 6;
+
+    private static final Frame inertialFrame = FramesFactory.getEME2000();
+    private static final Frame earthFrame = FramesFactory.getITRF(IERSConventions.IERS_2010, true);
+
+    private final PropagationModelType type;
+    // 数值模型的重力场阶数与次数
+    private final int gravityDegree;
+    private final int gravityOrder;
+    // 数值模型是否计入大气阻力，以及空间天气数据来源（cssi 或 msafe）
+    private final boolean drag;
+    private final String spaceWeather;
+    // 卫星质量（kg）、迎风面积（m²）与阻力系数
+    private final double massKg;
+    private final double dragArea;
+    private final double dragCoefficient;
+    // 数值积分的位置容差（米）
+    private final double positionTolerance;
+
+    // 各卫星共享的重力场与空间天气数据，首次使用时加载
+    @Getter(AccessLevel.NONE)
+    private UnnormalizedSphericalHarmonicsProvider zonalField;
+    @Getter(AccessLevel.NONE)
+    private NormalizedSphericalHarmonicsProvider gravityField;
+    @Getter(AccessLevel.NONE)
+    private NRLMSISE00InputParameters spaceWeatherData;
+
+    public PropagationModel(PropagationModelType type, int gravityDegree, int gravityOrder,
+                            boolean drag, String spaceWeather, double massKg, double dragArea,
+                            double dragCoefficient, double positionTolerance) {
+        this.type = type;
+        this.gravityDegree = gravityDegree;
+        this.gravityOrder = gravityOrder;
+        this.drag = drag;
+        this.spaceWeather = spaceWeather;
+        this.massKg = massKg;
+        this.dragArea = dragArea;
+        this.dragCoefficient = dragCoefficient;
+        this.positionTolerance = positionTolerance;
+    }
+
+    /**
+     * 默认的二体开普勒模型。
+     */
+    public static PropagationModel keplerian() {
+        return new PropagationModel(PropagationModelType.KEPLERIAN, 8, 8, false, "cssi", 260.0, 1.0, 2.2, 1.0);
+    }
+
+    /**
+     * 为一颗卫星构造覆盖 [start, end] 的位置速度数据源（EME2000）。
+     * 数值模型在此处一次性积分到 end 并保留积分器的稠密输出，之后的求值只做插值；
+     * 返回的数据源不是线程安全的，每颗卫星的数据源只应在一个线程中使用。
+     *
+     * @param orbitElem 卫星轨道参数
+     * @param start     需要覆盖的起始时间
+     * @param end       需要覆盖的结束时间
+     */
+    public PositionVelocityProvider createProvider(KeplerianElements orbitElem, AbsoluteDate start, AbsoluteDate end) {
+        switch (type) {
+            case KEPLERIAN:
+                return new FastKeplerPropagator(orbitElem, Constants.WGS84_EARTH_MU);
+            case NUMERICAL: {
+                Propagator propagator = createPropagator(orbitElem);
+                EphemerisGenerator generator = propagator.getEphemerisGenerator();
+                propagator.propagate(start, end);
+                return new OrekitPropagatorProvider(generator.getGeneratedEphemeris(), inertialFrame);
+            }
+            default:
+                return new OrekitPropagatorProvider(createPropagator(orbitElem), inertialFrame);
+        }
+    }
+
+    /**
+     * 按模型构造 Orekit 传播器（初始轨道视为密切根数）。
+     */
+    public Propagator createPropagator(KeplerianElements orbitElem) {
+        KeplerianOrbit orbit = orbitElem.toOrbit(inertialFrame, Constants.WGS84_EARTH_MU);
+        switch (type) {
+            case ECKSTEIN_HECHLER:
+                return new EcksteinHechlerPropagator(orbit, zonalField());
+            case BROUWER_LYDDANE:
+                // M2 为经验阻力系数，取 0 表示不计阻力
+                return new BrouwerLyddanePropagator(orbit, zonalField(), 0.0);
+            case NUMERICAL:
+                return createNumericalPropagator(orbit);
+            default:
+                return new KeplerianPropagator(orbit);
+        }
+    }
+
+    private Propagator createNumericalPropagator(KeplerianOrbit orbit) {
+        double[][] tolerances = NumericalPropagator.tolerances(positionTolerance, orbit, OrbitType.CARTESIAN);
+        AdaptiveStepsizeIntegrator integrator = new DormandPrince853Integrator(MIN_STEP, MAX_STEP,
+                tolerances[0], tolerances[1]);
+        NumericalPropagator propagator = new NumericalPropagator(integrator);
+        propagator.setOrbitType(OrbitType.CARTESIAN);
+        propagator.setInitialState(new SpacecraftState(orbit, massKg));
+        // 中心引力项由传播器按轨道的引力常数自动加入，这里只添加非球形摄动
+        propagator.addForceModel(new HolmesFeatherstoneAttractionModel(earthFrame, gravityField()));
+        if (drag) {
+            OneAxisEllipsoid earth = ReferenceEllipsoid.getWgs84(earthFrame);
+            NRLMSISE00 atmosphere = new NRLMSISE00(spaceWeatherData(), CelestialBodyFactory.getSun(), earth);
+            propagator.addForceModel(new DragForce(atmosphere, new IsotropicDrag(dragArea, dragCoefficient)));
+        }
+        return propagator;
+    }
+
+    private synchronized UnnormalizedSphericalHarmonicsProvider zonalField() {
+        if (zonalField == null) {
+            zonalField = GravityFieldFactory.getUnnormalizedProvider(ZONAL_DEGREE, 0);
+        }
+        return zonalField;
+    }
+
+    private synchronized NormalizedSphericalHarmonicsProvider gravityField() {
+        if (gravityField == null) {
+            gravityField = GravityFieldFactory.getNormalizedProvider(gravityDegree, gravityOrder);
+        }
+        return gravityField;
+    }
+
+    private synchronized NRLMSISE00InputParameters spaceWeatherData() {
+        if (spaceWeatherData == null) {
+            spaceWeatherData = "msafe".equalsIgnoreCase(spaceWeather)
+                    ? new MarshallSolarActivityFutureEstimation(
+                            MarshallSolarActivityFutureEstimation.DEFAULT_SUPPORTED_NAMES,
+                            MarshallSolarActivityFutureEstimation.StrengthLevel.AVERAGE)
+                    : new CssiSpaceWeatherData(CssiSpaceWeatherData.DEFAULT_SUPPORTED_NAMES);
+        }
+        return spaceWeatherData;
+    }
+
+    /**
+     * 在轨道参数指纹的基础上叠加模型参数，模型或参数变化时已有星历文件不再复用。
+     * 开普勒模型保持轨道参数指纹不变，与此前生成的星历文件兼容。
+     */
+    public long fingerprint(long orbitsFingerprint) {
+        if (type == PropagationModelType.KEPLERIAN) {
+            return orbitsFingerprint;
+        }
+        long hash = orbitsFingerprint;
+        double[] values = {
+                type.ordinal(), gravityDegree, gravityOrder, drag ? 1 : 0,
+                "msafe".equalsIgnoreCase(spaceWeather) ? 1 : 0,
+                massKg, dragArea, dragCoefficient, positionTolerance
+        };
+        for (double value : values) {
+            hash ^= Double.doubleToLongBits(value);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+}
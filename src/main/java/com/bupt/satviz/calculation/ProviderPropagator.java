@@ -0,0 +1,58 @@
+package com.bupt.satviz.calculation;
+
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.orekit.attitudes.FrameAlignedProvider;
+import org.orekit.frames.Frame;
+import org.orekit.orbits.CartesianOrbit;
+import org.orekit.orbits.Orbit;
+import org.orekit.propagation.Propagator;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.propagation.analytical.AbstractAnalyticalPropagator;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.utils.TimeStampedPVCoordinates;
+
+/**
+ * 将 PositionVelocityProvider 包装为 Orekit 传播器
+ * 使预计算星历等数据源可以直接挂载 Orekit 事件检测器（仰角、视场、布尔组合等）。
+ * 轨道状态完全由数据源给出，事件处理器重置状态时忽略重置，此后的状态仍由数据源给出。
+ */
+public class ProviderPropagator extends AbstractAnalyticalPropagator {
+
+    private final PositionVelocityProvider provider;
+    private final Frame frame;
+    private final double mu;
+    private final double[] pv = new double[6];
+
+    /**
+     * @param provider    位置速度数据源（坐标系须为 frame）
+     * @param initialDate 初始状态时间
+     * @param frame       数据源所在的惯性系
+     * @param mu          中心引力常数
+     */
+    public ProviderPropagator(PositionVelocityProvider provider, AbsoluteDate initialDate, Frame frame, double mu) {
+        super(new FrameAlignedProvider(frame));
+        this.provider = provider;
+        this.frame = frame;
+        this.mu = mu;
+        super.resetInitialState(new SpacecraftState(propagateOrbit(initialDate), Propagator.DEFAULT_MASS));
+    }
+
+    @Override
+    public Orbit propagateOrbit(AbsoluteDate date) {
+        provider.getPositionVelocity(date, pv);
+        TimeStampedPVCoordinates coordinates = new TimeStampedPVCoordinates(date,
+                new Vector3D(pv[0], pv[1], pv[2]),
+                new Vector3D(pv[3], pv[4], pv[5]));
+        return new CartesianOrbit(coordinates, frame, mu);
+    }
+
+    @Override
+    protected double getMass(AbsoluteDate date) {
+        return Propagator.DEFAULT_MASS;
+    }
+
+    @Override
+    protected void resetIntermediateState(SpacecraftState state, boolean forward) {
+        // 数据源无内部状态，重置没有意义
+    }
+}
@@ -7,6 +7,7 @@ import lombok.Getter;
 import org.orekit.bodies.GeodeticPoint;
 import org.orekit.time.AbsoluteDate;
 
+import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -42,25 +43,50 @@ public class SatelliteStateCalculator {
         return states;
     }
 
+    /**
+     * 计算所有卫星在目标时间的状态信息，卫星位置直接读取预计算星历等数据源。
+     *
+     * @param satellites 卫星位置速度数据源列表（顺序即卫星编号）
+     * @param targetTime 目标时间
+     * @return 每颗卫星的状态列表，每个状态包含经纬度、高度以及变化率
+     */
+    public static List<SatelliteState> computeSatelliteStatesFromEphemerides(
+            List<? extends PositionVelocityProvider> satellites, AbsoluteDate targetTime) {
+        List<SatelliteState> states = new ArrayList<>();
+        OrbitPropagator propagator = new OrbitPropagator();
+        for (int i = 0; i < satellites.size(); i++) {
+            PropagationResult result = propagator.propagate(satellites.get(i), targetTime);
+            states.add(new SatelliteState(i, result.getPosition(),
+                    result.getLatRateDegPerSec(),
+                    result.getLonRateDegPerSec(),
+                    result.getAltRateMetersPerSec()));
+        }
+        return states;
+    }
+
     /**
      * 打印所有卫星的状态信息。
      *
      * @param states 卫星状态列表
      */
     public static void printSatelliteStates(List<SatelliteState> states) {
+        printSatelliteStates(states, System.out);
+    }
+
+    public static void printSatelliteStates(List<SatelliteState> states, PrintStream out) {
         for (SatelliteState state : states) {
             GeodeticPoint pos = state.getPosition();
             // 将纬度和经度从弧度转换为度
             double latDeg = Math.toDegrees(pos.getLatitude());
             double lonDeg = Math.toDegrees(pos.getLongitude());
-            System.out.println("卫星 #" + state.getSatelliteId() + " 状态:");
-            System.out.println("  纬度: " + latDeg + "°");
-            System.out.println("  经度: " + lonDeg + "°");
-            System.out.println("  高度: " + pos.getAltitude() + " m");
-            System.out.println("  纬度变化率: " + state.getLatRateDegPerSec() + " deg/s");
-            System.out.println("  经度变化率: " + state.getLonRateDegPerSec() + " deg/s");
-            System.out.println("  高度变化率: " + state.getAltRateMetersPerSec() + " m/s");
-            System.out.println();
+            out.println("卫星 #" + state.getSatelliteId() + " 状态:");
+            out.println("  纬度: " + latDeg + "°");
+            out.println("  经度: " + lonDeg + "°");
+            out.println("  高度: " + pos.getAltitude() + " m");
+            out.println("  纬度变化率: " + state.getLatRateDegPerSec() + " deg/s");
+            out.println("  经度变化率: " + state.getLonRateDegPerSec() + " deg/s");
+            out.println("  高度变化率: " + state.getAltRateMetersPerSec() + " m/s");
+            out.println();
         }
     }
 }
@@ -1,12 +1,19 @@
 package com.bupt.satviz.concurrent;
 
+import com.bupt.satviz.calculation.FastKeplerPropagator;
+import com.bupt.satviz.calculation.PositionVelocityProvider;
+import com.bupt.satviz.config.InterSatelliteEngineType;
+import com.bupt.satviz.config.ToleranceProfile;
+import com.bupt.satviz.config.VisibilityConstraints;
 import com.bupt.satviz.model.GroundStation;
 import com.bupt.satviz.model.KeplerianElements;
 import com.bupt.satviz.model.SatResult;
 import com.bupt.satviz.model.VisibilityWindow;
 import com.bupt.satviz.visibility.GroundStationVisibilityAnalyzer;
 import com.bupt.satviz.visibility.InterSatelliteVisibilityAnalyzer;
+import com.bupt.satviz.visibility.VectorInterSatelliteEngine;
 import org.orekit.time.AbsoluteDate;
+import org.orekit.utils.Constants;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -28,29 +35,152 @@ public class ParallelVisibilityExecutor {
                                                          List<GroundStation> groundStations,
                                                          AbsoluteDate startDate,
                                                          AbsoluteDate endDate) throws Exception {
+        return computeAllVisibilities(orbits, groundStations, startDate, endDate, InterSatelliteEngineType.DETECTOR);
+    }
+
+    /**
+     * 并发计算所有卫星的可见性窗口，并指定卫星间可见性的计算引擎。
+     * 使用 VECTOR 引擎时，各线程只计算星地可见性，卫星间可见性由 VectorInterSatelliteEngine 一次性批量计算后合并。
+     * @param orbits         所有卫星轨道元素列表
+     * @param groundStations 地面站列表
+     * @param startDate      仿真开始时间
+     * @param endDate        仿真结束时间
+     * @param engineType     卫星间可见性计算引擎
+     * @return 每颗卫星的可见性结果列表
+     */
+    public static List<SatResult> computeAllVisibilities(List<KeplerianElements> orbits,
+                                                         List<GroundStation> groundStations,
+                                                         AbsoluteDate startDate,
+                                                         AbsoluteDate endDate,
+                                                         InterSatelliteEngineType engineType) throws Exception {
+        return computeAllVisibilities(orbits, null, groundStations, startDate, endDate, engineType);
+    }
+
+    /**
+     * 并发计算所有卫星的可见性窗口，卫星位置读取预计算星历（如内存映射的星历文件）。
+     * @param orbits         所有卫星轨道元素列表
+     * @param ephemerides    与 orbits 一一对应的星历数据源，为 null 时直接按轨道元素传播
+     * @param groundStations 地面站列表
+     * @param startDate      仿真开始时间
+     * @param endDate        仿真结束时间
+     * @param engineType     卫星间可见性计算引擎
+     * @return 每颗卫星的可见性结果列表
+     */
+    public static List<SatResult> computeAllVisibilities(List<KeplerianElements> orbits,
+                                                         List<? extends PositionVelocityProvider> ephemerides,
+                                                         List<GroundStation> groundStations,
+                                                         AbsoluteDate startDate,
+                                                         AbsoluteDate endDate,
+                                                         InterSatelliteEngineType engineType) throws Exception {
+        return computeAllVisibilities(orbits, ephemerides, groundStations, startDate, endDate, engineType,
+                ToleranceProfile.precise(), VisibilityConstraints.defaults());
+    }
+
+    /**
+     * 并发计算所有卫星的可见性窗口，并指定检测器容差档位与可见性判定条件。
+     * @param orbits         所有卫星轨道元素列表
+     * @param ephemerides    与 orbits 一一对应的星历数据源，为 null 时直接按轨道元素传播
+     * @param groundStations 地面站列表
+     * @param startDate      仿真开始时间
+     * @param endDate        仿真结束时间
+     * @param engineType     卫星间可见性计算引擎
+     * @param tolerance      检测器容差档位
+     * @param constraints    可见性判定条件（最小仰角、覆盖半角、最大通信距离）
+     * @return 每颗卫星的可见性结果列表
+     */
+    public static List<SatResult> computeAllVisibilities(List<KeplerianElements> orbits,
+                                                         List<? extends PositionVelocityProvider> ephemerides,
+                                                         List<GroundStation> groundStations,
+                                                         AbsoluteDate startDate,
+                                                         AbsoluteDate endDate,
+                                                         InterSatelliteEngineType engineType,
+                                                         ToleranceProfile tolerance,
+                                                         VisibilityConstraints constraints) throws Exception {
+        boolean useDetector = engineType == InterSatelliteEngineType.DETECTOR;
         // 1. 创建固定大小的线程池（线程数可设为CPU核心数）
         int numThreads = Runtime.getRuntime().availableProcessors();
         ExecutorService executor = Executors.newFixedThreadPool(numThreads);
 
-        // 2. 为每颗卫星创建可见性计算任务并提交到线程池
+        // 2. VECTOR 引擎：卫星对按行轮转分成若干批量计算任务，先于星地任务提交到同一线程池
+        int[] rows = new int[useDetector ? 0 : Math.max(orbits.size() - 1, 0)];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = i;
+        }
+        int rowTasks = Math.min(numThreads, rows.length);
+        List<Future<List<SatResult>>> rowFutures = submitVectorRows(executor, rows, rowTasks, orbits, ephemerides,
+                startDate, endDate, tolerance, constraints);
+
+        // 3. 为每颗卫星创建可见性计算任务并提交到线程池
         List<Future<SatResult>> futures = new ArrayList<>();
         for (int satIndex = 0; satIndex < orbits.size(); satIndex++) {
             Callable<SatResult> task = new SatelliteVisibilityTask(
                     satIndex, orbits.get(satIndex),
                     groundStations, orbits,
-                    startDate, endDate);
+                    startDate, endDate, useDetector, ephemerides, tolerance, constraints);
             futures.add(executor.submit(task));
         }
 
-        // 3. 收集所有任务的执行结果
+        // 4. 收集所有任务的执行结果
         List<SatResult> allResults = new ArrayList<>();
         for (Future<SatResult> future : futures) {
             SatResult result = future.get();  // 阻塞等待每个任务完成
             allResults.add(result);
         }
+        List<List<SatResult>> rowResults = new ArrayList<>(rowTasks);
+        for (Future<List<SatResult>> future : rowFutures) {
+            rowResults.add(future.get());
+        }
 
-        // 4. 关闭线程池
+        // 5. 关闭线程池
         executor.shutdown();
+
+        // 6. 把批量计算的各行合并到各卫星结果中
+        for (int r = 0; r < rows.length; r++) {
+            allResults.get(rows[r]).getInterSatelliteResults()
+                    .putAll(rowResults.get(r % rowTasks).get(rows[r]).getInterSatelliteResults());
+        }
         return allResults;
     }
+
+    /**
+     * 把 VECTOR 引擎要计算的行轮转分成 taskCount 份提交到线程池，每份对自己的行做一次批量计算。
+     * 第 r 行（rows[r]）的结果在第 r % taskCount 个任务的结果中。行 i 含 n-1-i 个卫星对，轮转分配使各份工作量接近。
+     */
+    static List<Future<List<SatResult>>> submitVectorRows(ExecutorService executor,
+                                                          int[] rows,
+                                                          int taskCount,
+                                                          List<KeplerianElements> orbits,
+                                                          List<? extends PositionVelocityProvider> ephemerides,
+                                                          AbsoluteDate startDate,
+                                                          AbsoluteDate endDate,
+                                                          ToleranceProfile tolerance,
+                                                          VisibilityConstraints constraints) {
+        List<Future<List<SatResult>>> rowFutures = new ArrayList<>(taskCount);
+        if (taskCount == 0) {
+            return rowFutures;
+        }
+        VectorInterSatelliteEngine engine = new VectorInterSatelliteEngine(constraints.getMaxInterSatelliteDistance(),
+                tolerance.getVectorStepSeconds(), tolerance.getInterThreshold());
+        for (int t = 0; t < taskCount; t++) {
+            int[] part = new int[(rows.length - t + taskCount - 1) / taskCount];
+            for (int r = 0; r < part.length; r++) {
+                part[r] = rows[t + r * taskCount];
+            }
+            // 每个任务各自创建传播器，任务之间不共享任何实例
+            rowFutures.add(executor.submit(() -> engine.computeRows(
+                    (ephemerides != null) ? ephemerides : keplerPropagators(orbits), startDate, endDate, part)));
+        }
+        return rowFutures;
+    }
+
+    /**
+     * 为每颗卫星新建一个开普勒传播器，每个计算任务各自调用一次。
+     */
+    static List<FastKeplerPropagator> keplerPropagators(List<KeplerianElements> orbits) {
+        List<FastKeplerPropagator> props = new ArrayList<>(orbits.size());
+        for (KeplerianElements orbit : orbits) {
+            props.add(new FastKeplerPropagator(orbit, Constants.WGS84_EARTH_MU));
+        }
+        return props;
+    }
 }
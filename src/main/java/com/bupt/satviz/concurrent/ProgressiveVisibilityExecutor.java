@@ -0,0 +1,189 @@
+package com.bupt.satviz.concurrent;
+
+import com.bupt.satviz.calculation.PositionVelocityProvider;
+import com.bupt.satviz.config.InterSatelliteEngineType;
+import com.bupt.satviz.config.ToleranceProfile;
+import com.bupt.satviz.config.VisibilityConstraints;
+import com.bupt.satviz.model.GroundStation;
+import com.bupt.satviz.model.KeplerianElements;
+import com.bupt.satviz.model.SatResult;
+import com.bupt.satviz.model.VisibilityWindow;
+import com.bupt.satviz.visibility.VectorInterSatelliteEngine;
+import org.orekit.time.AbsoluteDate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * 渐进式（按时间顺序）可见性计算模块
+ * 与 TimeChunkedVisibilityExecutor 一样按 TimeChunkPlan 把仿真时段切成时间片、每个（计算单元, 时间片）组合一个任务，
+ * 但任务按时间片顺序提交，线程池先完成全部组合的第一个时间片，再完成第二个，依此类推；
+ * 每完成一个时间片立即通过 VisibilitySliceConsumer 发布：时间片内结束的窗口为确定窗口，
+ * 时间片末仍未结束的窗口先作为暂定窗口发布，在其结束的时间片中再确定。
+ * 最近一段时间的接触计划因此只需约（时间片长度 / 总时长）的计算时间即可得到。
+ * 跨时间片的窗口拼接方式与 TimeChunkPlan.stitch 相同，全部完成后返回的结果与相同块长度的时间分块计算一致。
+ */
+public class ProgressiveVisibilityExecutor {
+
+    /**
+     * 按时间顺序渐进计算所有卫星的可见性窗口。
+     *
+     * @param orbits         所有卫星轨道元素列表
+     * @param ephemerides    与 orbits 一一对应的星历数据源，为 null 时直接按轨道元素传播
+     * @param groundStations 地面站列表
+     * @param startDate      仿真开始时间
+     * @param endDate        仿真结束时间
+     * @param engineType     卫星间可见性计算引擎
+     * @param tolerance      检测器容差档位
+     * @param constraints    可见性判定条件
+     * @param sliceSeconds   期望的时间片长度（秒），实际长度按检查间隔对齐
+     * @param consumer       时间片结果的接收方，在调用线程中按时间顺序回调
+     * @return 每颗卫星的可见性结果列表
+     */
+    public static List<SatResult> computeAllVisibilities(List<KeplerianElements> orbits,
+                                                         List<? extends PositionVelocityProvider> ephemerides,
+                                                         List<GroundStation> groundStations,
+                                                         AbsoluteDate startDate,
+                                                         AbsoluteDate endDate,
+                                                         InterSatelliteEngineType engineType,
+                                                         ToleranceProfile tolerance,
+                                                         VisibilityConstraints constraints,
+                                                         double sliceSeconds,
+                                                         VisibilitySliceConsumer consumer) throws Exception {
+        boolean useDetector = engineType == InterSatelliteEngineType.DETECTOR;
+        TimeChunkPlan plan = new TimeChunkPlan(startDate, endDate, sliceSeconds,
+                TimeChunkPlan.alignment(tolerance, engineType));
+        int sliceCount = plan.getChunkCount();
+        ShardPlan units = new ShardPlan(0, 1, orbits.size(), groundStations.size(), useDetector);
+        List<ShardPlan.Unit> allUnits = new ArrayList<>(units.groundUnits());
+        allUnits.addAll(units.interSatelliteUnits());
+        // 批量引擎计算的卫星对，按规范顺序发布
+        List<ShardPlan.Unit> vectorPairs = useDetector ? new ArrayList<>()
+                : new ShardPlan(0, 1, orbits.size(), groundStations.size(), true).interSatelliteUnits();
+        VectorInterSatelliteEngine engine = useDetector ? null : new VectorInterSatelliteEngine(
+                constraints.getMaxInterSatelliteDistance(), tolerance.getVectorStepSeconds(),
+                tolerance.getInterThreshold());
+
+        // 1. 按时间片顺序提交任务：线程池先进先出，较早的时间片先完成
+        int numThreads = Runtime.getRuntime().availableProcessors();
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        List<List<Future<List<VisibilityWindow>>>> futures = new ArrayList<>(sliceCount);
+        List<Future<List<SatResult>>> vectorFutures = new ArrayList<>(sliceCount);
+        for (int c = 0; c < sliceCount; c++) {
+            AbsoluteDate sliceStart = plan.chunkStart(c);
+            AbsoluteDate sliceEnd = plan.chunkEnd(c);
+            List<Future<List<VisibilityWindow>>> slice = new ArrayList<>(allUnits.size());
+            for (ShardPlan.Unit unit : allUnits) {
+                slice.add(executor.submit(() -> ShardedVisibilityExecutor.computeUnit(unit, orbits, ephemerides,
+                        groundStations, sliceStart, sliceEnd, tolerance, constraints)));
+            }
+            futures.add(slice);
+            if (engine != null) {
+                vectorFutures.add(executor.submit(() -> (ephemerides != null)
+                        ? engine.computeVisibilityFromEphemerides(ephemerides, sliceStart, sliceEnd)
+                        : engine.computeVisibility(orbits, sliceStart, sliceEnd)));
+            }
+        }
+
+        // 2. 依次等待各时间片完成并发布
+        Stitcher stitcher = new Stitcher(plan, consumer);
+        for (ShardPlan.Unit unit : allUnits) {
+            stitcher.finals.put(unit, new ArrayList<>());
+        }
+        for (ShardPlan.Unit pair : vectorPairs) {
+            stitcher.finals.put(pair, new ArrayList<>());
+        }
+        try {
+            for (int c = 0; c < sliceCount; c++) {
+                for (int u = 0; u < allUnits.size(); u++) {
+                    stitcher.advance(allUnits.get(u), futures.get(c).get(u).get(), c);
+                }
+                if (engine != null) {
+                    List<SatResult> slice = vectorFutures.get(c).get();
+                    for (ShardPlan.Unit pair : vectorPairs) {
+                        List<VisibilityWindow> windows = slice.get(pair.satId()).getInterSatelliteResults()
+                                .get(pair.target());
+                        stitcher.advance(pair, windows, c);
+                    }
+                }
+                consumer.sliceCompleted(c, plan.chunkStart(c), plan.chunkEnd(c));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // 3. 按单进程计算的顺序重建各卫星结果
+        Map<ShardPlan.Unit, List<VisibilityWindow>> byUnit = new HashMap<>(stitcher.finals);
+        byUnit.keySet().removeAll(stitcher.failed);
+        return ShardedVisibilityExecutor.assemble(byUnit, orbits.size(), groundStations);
+    }
+
+    /**
+     * 逐时间片拼接各计算单元的窗口，规则与 TimeChunkPlan.stitch 相同。
+     */
+    static class Stitcher {
+        private final TimeChunkPlan plan;
+        private final VisibilitySliceConsumer consumer;
+        // 各单元已确定的窗口
+        private final Map<ShardPlan.Unit, List<VisibilityWindow>> finals = new HashMap<>();
+        // 上一时间片末仍可见的单元及其窗口开始时间
+        private final Map<ShardPlan.Unit, AbsoluteDate> openSince = new HashMap<>();
+        // 计算出错的单元，不再发布
+        private final Set<ShardPlan.Unit> failed = new HashSet<>();
+
+        Stitcher(TimeChunkPlan plan, VisibilitySliceConsumer consumer) {
+            this.plan = plan;
+            this.consumer = consumer;
+        }
+
+        void advance(ShardPlan.Unit unit, List<VisibilityWindow> slice, int c) {
+            if (failed.contains(unit)) {
+                return;
+            }
+            if (slice == null) {
+                failed.add(unit);
+                openSince.remove(unit);
+                return;
+            }
+            AbsoluteDate boundary = plan.chunkStart(c);
+            AbsoluteDate open = openSince.remove(unit);
+            for (int w = 0; w < slice.size(); w++) {
+                VisibilityWindow window = slice.get(w);
+                AbsoluteDate start = window.getStartTime();
+                if (w == 0 && open != null && start.equals(boundary)) {
+                    // 跨越时间片边界的窗口：沿用上一片的起点
+                    start = open;
+                } else if (open != null) {
+                    // 上一片末可见、本片起点不可见：窗口在边界处结束
+                    finalise(unit, new VisibilityWindow(open, boundary, boundary.durationFrom(open)));
+                }
+                open = null;
+                if (window.getEndTime() != null) {
+                    finalise(unit, new VisibilityWindow(start, window.getEndTime(),
+                            window.getEndTime().durationFrom(start)));
+                } else if (c == plan.getChunkCount() - 1) {
+                    finalise(unit, new VisibilityWindow(start, null, plan.getEndDate().durationFrom(start)));
+                } else {
+                    openSince.put(unit, start);
+                    consumer.windowProvisional(unit, new VisibilityWindow(start, null,
+                            plan.chunkEnd(c).durationFrom(start)));
+                }
+            }
+            if (open != null) {
+                finalise(unit, new VisibilityWindow(open, boundary, boundary.durationFrom(open)));
+            }
+        }
+
+        private void finalise(ShardPlan.Unit unit, VisibilityWindow window) {
+            finals.computeIfAbsent(unit, u -> new ArrayList<>()).add(window);
+            consumer.windowFinalised(unit, window);
+        }
+    }
+}
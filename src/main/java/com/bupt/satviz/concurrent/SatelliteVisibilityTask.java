@@ -1,5 +1,8 @@
 package com.bupt.satviz.concurrent;
 
+import com.bupt.satviz.calculation.PositionVelocityProvider;
+import com.bupt.satviz.config.ToleranceProfile;
+import com.bupt.satviz.config.VisibilityConstraints;
 import com.bupt.satviz.model.GroundStation;
 import com.bupt.satviz.model.KeplerianElements;
 import com.bupt.satviz.model.SatResult;
@@ -18,6 +21,13 @@ public class SatelliteVisibilityTask implements Callable<SatResult> {
     private List<KeplerianElements> allSatOrbits;
     private AbsoluteDate startDate;
     private AbsoluteDate endDate;
+    // 是否在本任务内逐对计算卫星间可见性（使用批量引擎时由外部统一计算）
+    private boolean computeInterSatellite;
+    // 预计算星历（按卫星编号排列），为 null 时直接使用开普勒轨道元素传播
+    private List<? extends PositionVelocityProvider> ephemerides;
+    // 检测器容差档位与可见性判定条件
+    private ToleranceProfile tolerance;
+    private VisibilityConstraints constraints;
 
     public SatelliteVisibilityTask(int satId,
                                    KeplerianElements satOrbit,
@@ -25,24 +35,64 @@ public class SatelliteVisibilityTask implements Callable<SatResult> {
                                    List<KeplerianElements> allSatOrbits,
                                    AbsoluteDate startDate,
                                    AbsoluteDate endDate) {
+        this(satId, satOrbit, groundStations, allSatOrbits, startDate, endDate, true);
+    }
+
+    public SatelliteVisibilityTask(int satId,
+                                   KeplerianElements satOrbit,
+                                   List<GroundStation> groundStations,
+                                   List<KeplerianElements> allSatOrbits,
+                                   AbsoluteDate startDate,
+                                   AbsoluteDate endDate,
+                                   boolean computeInterSatellite) {
+        this(satId, satOrbit, groundStations, allSatOrbits, startDate, endDate, computeInterSatellite, null);
+    }
+
+    public SatelliteVisibilityTask(int satId,
+                                   KeplerianElements satOrbit,
+                                   List<GroundStation> groundStations,
+                                   List<KeplerianElements> allSatOrbits,
+                                   AbsoluteDate startDate,
+                                   AbsoluteDate endDate,
+                                   boolean computeInterSatellite,
+                                   List<? extends PositionVelocityProvider> ephemerides) {
+        this(satId, satOrbit, groundStations, allSatOrbits, startDate, endDate, computeInterSatellite, ephemerides,
+                ToleranceProfile.precise(), VisibilityConstraints.defaults());
+    }
+
+    public SatelliteVisibilityTask(int satId,
+                                   KeplerianElements satOrbit,
+                                   List<GroundStation> groundStations,
+                                   List<KeplerianElements> allSatOrbits,
+                                   AbsoluteDate startDate,
+                                   AbsoluteDate endDate,
+                                   boolean computeInterSatellite,
+                                   List<? extends PositionVelocityProvider> ephemerides,
+                                   ToleranceProfile tolerance,
+                                   VisibilityConstraints constraints) {
         this.satId = satId;
         this.satOrbit = satOrbit;
         this.groundStations = groundStations;
         this.allSatOrbits = allSatOrbits;
         this.startDate = startDate;
         this.endDate = endDate;
+        this.computeInterSatellite = computeInterSatellite;
+        this.ephemerides = ephemerides;
+        this.tolerance = tolerance;
+        this.constraints = constraints;
     }
 
     @Override
     public SatResult call() {
         SatResult result = new SatResult(satId);
         // 1. 计算该卫星对每个地面站的可见性窗口
-        GroundStationVisibilityAnalyzer gsAnalyzer = new GroundStationVisibilityAnalyzer(0.0, 45.0);
+        GroundStationVisibilityAnalyzer gsAnalyzer = new GroundStationVisibilityAnalyzer(
+                constraints.getMinElevationDeg(), constraints.getCoverageHalfAngleDeg(), tolerance);
         for (GroundStation gs : groundStations) {
             try {
-                List<VisibilityWindow> windows = gsAnalyzer.computeVisibility(
-                        satOrbit, startDate, endDate,
-                        gs.lat, gs.lon, gs.alt);
+                List<VisibilityWindow> windows = (ephemerides != null)
+                        ? gsAnalyzer.computeVisibility(ephemerides.get(satId), startDate, endDate, gs)
+                        : gsAnalyzer.computeVisibility(satOrbit, startDate, endDate, gs);
                 result.addGroundStationResult(gs.toString(), windows);
             } catch (Exception e) {
                 System.err.println("卫星#" + satId + " 与地面站 " + gs.toString() +
@@ -50,12 +100,18 @@ public class SatelliteVisibilityTask implements Callable<SatResult> {
             }
         }
         // 2. 计算该卫星与其它卫星的可见性窗口（只计算编号比当前大的，以避免重复）
-        InterSatelliteVisibilityAnalyzer interSatAnalyzer = new InterSatelliteVisibilityAnalyzer(5_000_000.0);
+        if (!computeInterSatellite) {
+            return result;
+        }
+        InterSatelliteVisibilityAnalyzer interSatAnalyzer = new InterSatelliteVisibilityAnalyzer(
+                constraints.getMaxInterSatelliteDistance(), tolerance);
         for (int otherId = satId + 1; otherId < allSatOrbits.size(); otherId++) {
             try {
-                List<VisibilityWindow> windows = interSatAnalyzer.computeVisibility(
-                        satOrbit, allSatOrbits.get(otherId),
-                        startDate, endDate);
+                List<VisibilityWindow> windows = (ephemerides != null)
+                        ? interSatAnalyzer.computeVisibility(ephemerides.get(satId), ephemerides.get(otherId),
+                                startDate, endDate)
+                        : interSatAnalyzer.computeVisibility(satOrbit, allSatOrbits.get(otherId),
+                                startDate, endDate);
                 result.addInterSatelliteResult(otherId, windows);
             } catch (Exception e) {
                 System.err.println("卫星#" + satId + " 与卫星#" + otherId +
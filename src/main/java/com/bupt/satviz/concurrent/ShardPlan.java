@@ -0,0 +1,111 @@
+package com.bupt.satviz.concurrent;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 分片计划
+ * 把可见性计算拆成互相独立的计算单元：每个（卫星, 地面站）组合和每个卫星对 (i, j)（i < j）各为一个单元，
+ * 再按确定的规则把单元分配给 n 个分片中的第 k 个。
+ * 两类单元分别按规范顺序编号后轮转分配（编号 mod n），各分片的星地单元数与卫星对单元数最多相差 1，
+ * 同类单元的计算量相近，因此各分片负载基本均衡；分配只依赖卫星数、地面站数和分片数，任何进程、任何主机上结果都相同。
+ * 使用批量引擎时卫星对不逐个分配，而是按行（卫星 i 与全部编号更大的卫星）轮转分配，各分片对分到的行做一次批量计算。
+ */
+@Getter
+public class ShardPlan {
+
+    private final int shardIndex;
+    private final int shardCount;
+    private final int satelliteCount;
+    private final int stationCount;
+    private final boolean includeInterSatellite;
+
+    /**
+     * @param shardIndex            本分片编号（从 0 开始）
+     * @param shardCount            分片总数
+     * @param satelliteCount        卫星数
+     * @param stationCount          地面站数
+     * @param includeInterSatellite 是否包含卫星对单元（使用批量引擎时为 false，卫星对按行分配，见 interSatelliteRows）
+     */
+    public ShardPlan(int shardIndex, int shardCount, int satelliteCount, int stationCount,
+                     boolean includeInterSatellite) {
+        if (shardCount <= 0 || shardIndex < 0 || shardIndex >= shardCount) {
+            throw new IllegalArgumentException("非法的分片编号：" + shardIndex + "/" + shardCount);
+        }
+        this.shardIndex = shardIndex;
+        this.shardCount = shardCount;
+        this.satelliteCount = satelliteCount;
+        this.stationCount = stationCount;
+        this.includeInterSatellite = includeInterSatellite;
+    }
+
+    /**
+     * 解析 "k/n" 形式的分片描述，例如 "0/4" 表示 4 个分片中的第 0 个。
+     */
+    public static int[] parse(String spec) {
+        String[] parts = spec.split("/");
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("分片描述应为 k/n 形式：" + spec);
+        }
+        return new int[]{Integer.parseInt(parts[0].trim()), Integer.parseInt(parts[1].trim())};
+    }
+
+    /**
+     * 本分片负责的星地单元，按规范顺序（卫星编号、地面站编号升序）排列。
+     */
+    public List<Unit> groundUnits() {
+        List<Unit> units = new ArrayList<>();
+        long total = (long) satelliteCount * stationCount;
+        for (long u = shardIndex; u < total; u += shardCount) {
+            units.add(new Unit(true, (int) (u / stationCount), (int) (u % stationCount)));
+        }
+        return units;
+    }
+
+    /**
+     * 本分片负责的卫星对单元，按规范顺序（i 升序，再 j 升序）排列。
+     */
+    public List<Unit> interSatelliteUnits() {
+        List<Unit> units = new ArrayList<>();
+        if (!includeInterSatellite) {
+            return units;
+        }
+        long index = 0;
+        for (int i = 0; i < satelliteCount; i++) {
+            for (int j = i + 1; j < satelliteCount; j++, index++) {
+                if (index % shardCount == shardIndex) {
+                    units.add(new Unit(false, i, j));
+                }
+            }
+        }
+        return units;
+    }
+
+    /**
+     * 本分片负责的卫星对行（仅批量引擎），行 i 包含全部卫星对 (i, j)（j > i），按行编号轮转分配。
+     * 逐对检测器的卫星对已作为单元分配，此时返回空数组。
+     */
+    public int[] interSatelliteRows() {
+        if (includeInterSatellite || satelliteCount < 2) {
+            return new int[0];
+        }
+        int rowCount = satelliteCount - 1;
+        int[] rows = new int[(rowCount - shardIndex + shardCount - 1) / shardCount];
+        for (int r = 0; r < rows.length; r++) {
+            rows[r] = shardIndex + r * shardCount;
+        }
+        return rows;
+    }
+
+    /**
+     * 计算单元
+     *
+     * @param ground 是否为星地单元
+     * @param satId  卫星编号
+     * @param target 星地单元为地面站编号，卫星对单元为另一卫星编号（大于 satId）
+     */
+    public record Unit(boolean ground, int satId, int target) {
+    }
+}
@@ -0,0 +1,300 @@
+package com.bupt.satviz.concurrent;
+
+import com.bupt.satviz.calculation.PositionVelocityProvider;
+import com.bupt.satviz.config.InterSatelliteEngineType;
+import com.bupt.satviz.config.SimulationConfig;
+import com.bupt.satviz.config.ToleranceProfile;
+import com.bupt.satviz.config.VisibilityConstraints;
+import com.bupt.satviz.ephemeris.EphemerisWriter;
+import com.bupt.satviz.model.GroundStation;
+import com.bupt.satviz.model.KeplerianElements;
+import com.bupt.satviz.model.SatResult;
+import com.bupt.satviz.model.VisibilityWindow;
+import com.bupt.satviz.visibility.GroundStationVisibilityAnalyzer;
+import com.bupt.satviz.visibility.InterSatelliteVisibilityAnalyzer;
+import org.orekit.time.AbsoluteDate;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * 多进程分片计算模块
+ * 每个进程按 ShardPlan 只计算分给自己的星地单元和卫星对单元，并把窗口写入分片结果文件；
+ * 全部分片完成后，合并步骤读取各分片文件，按单进程计算时的插入顺序重建每颗卫星的 SatResult，
+ * 打印结果与 ParallelVisibilityExecutor 单进程计算逐字节一致。
+ * 时间以 AbsoluteDate 的序列化形式原样保存，不经过任何换算，合并后的窗口与单进程计算完全相同。
+ * 使用 VECTOR 引擎时，卫星对按行分配给各分片，每个分片对分到的行做批量计算，再按卫星对写入分片结果文件，
+ * 合并阶段不再做任何计算。
+ */
+public class ShardedVisibilityExecutor {
+
+    private static final String MAGIC = "SATSHRD1";
+
+    /**
+     * 计算一个分片并写入分片结果文件。
+     *
+     * @param config      仿真场景配置
+     * @param ephemerides 与场景卫星一一对应的星历数据源，为 null 时直接按轨道元素传播
+     * @param shardIndex  本分片编号（从 0 开始）
+     * @param shardCount  分片总数
+     * @param directory   分片结果文件所在目录
+     * @return 写入的分片结果文件
+     */
+    public static Path computeShard(SimulationConfig config,
+                                    List<? extends PositionVelocityProvider> ephemerides,
+                                    int shardIndex,
+                                    int shardCount,
+                                    Path directory) throws Exception {
+        List<KeplerianElements> orbits = config.getSatelliteOrbits();
+        List<GroundStation> groundStations = config.getGroundStations();
+        AbsoluteDate startDate = config.getStartDate();
+        AbsoluteDate endDate = config.getEndDate();
+        ToleranceProfile tolerance = config.getToleranceProfile();
+        VisibilityConstraints constraints = config.getVisibilityConstraints();
+        ShardPlan plan = new ShardPlan(shardIndex, shardCount, orbits.size(), groundStations.size(),
+                config.getInterSatelliteEngine() == InterSatelliteEngineType.DETECTOR);
+        List<ShardPlan.Unit> units = new ArrayList<>(plan.groundUnits());
+        units.addAll(plan.interSatelliteUnits());
+
+        // 1. 在本进程的线程池中并发计算分到的全部单元
+        int numThreads = Runtime.getRuntime().availableProcessors();
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        List<Future<List<VisibilityWindow>>> futures = new ArrayList<>(units.size());
+        for (ShardPlan.Unit unit : units) {
+            futures.add(executor.submit(() -> computeUnit(unit, orbits, ephemerides, groundStations,
+                    startDate, endDate, tolerance, constraints)));
+        }
+        // 1.1 VECTOR 引擎：分到的行再轮转分给各线程，每个线程对自己的行做一次批量计算
+        int[] rows = plan.interSatelliteRows();
+        int rowTasks = Math.min(numThreads, rows.length);
+        List<Future<List<SatResult>>> rowFutures = ParallelVisibilityExecutor.submitVectorRows(executor, rows,
+                rowTasks, orbits, ephemerides, startDate, endDate, tolerance, constraints);
+        List<List<VisibilityWindow>> results = new ArrayList<>(units.size());
+        for (Future<List<VisibilityWindow>> future : futures) {
+            results.add(future.get());
+        }
+        List<List<SatResult>> rowResults = new ArrayList<>(rowTasks);
+        for (Future<List<SatResult>> future : rowFutures) {
+            rowResults.add(future.get());
+        }
+        executor.shutdown();
+        // 批量计算的行按卫星对展开为单元，与逐对检测器的单元以相同格式写入
+        for (int r = 0; r < rows.length; r++) {
+            SatResult row = rowResults.get(r % rowTasks).get(rows[r]);
+            for (int otherId = rows[r] + 1; otherId < orbits.size(); otherId++) {
+                units.add(new ShardPlan.Unit(false, rows[r], otherId));
+                results.add(row.getInterSatelliteResults().get(otherId));
+            }
+        }
+
+        // 2. 先写入临时文件再原子替换，合并步骤不会读到写了一半的分片
+        Path file = shardFile(directory, shardIndex, shardCount);
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Path tmp = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(), ".tmp");
+        try (ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeUTF(MAGIC);
+            out.writeLong(scenarioFingerprint(config));
+            out.writeInt(shardIndex);
+            out.writeInt(shardCount);
+            out.writeInt(units.size());
+            for (int u = 0; u < units.size(); u++) {
+                ShardPlan.Unit unit = units.get(u);
+                List<VisibilityWindow> windows = results.get(u);
+                out.writeBoolean(unit.ground());
+                out.writeInt(unit.satId());
+                out.writeInt(unit.target());
+                // 计算出错的单元记为缺失，与单进程计算时跳过该条目一致
+                out.writeBoolean(windows != null);
+                if (windows != null) {
+                    out.writeInt(windows.size());
+                    for (VisibilityWindow window : windows) {
+                        out.writeObject(window.getStartTime());
+                        out.writeObject(window.getEndTime());
+                        out.writeDouble(window.getDurationSeconds());
+                    }
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return file;
+    }
+
+    /**
+     * 合并全部分片结果文件，重建与单进程计算相同的结果列表。
+     * 场景配置须与各分片计算时一致，否则分片文件中的场景指纹校验失败。
+     *
+     * @param config     仿真场景配置
+     * @param shardCount 分片总数
+     * @param directory  分片结果文件所在目录
+     * @return 每颗卫星的可见性结果列表
+     */
+    public static List<SatResult> merge(SimulationConfig config,
+                                        int shardCount,
+                                        Path directory) throws IOException, ClassNotFoundException {
+        long fingerprint = scenarioFingerprint(config);
+        // 1. 读入全部分片，按单元索引
+        Map<ShardPlan.Unit, List<VisibilityWindow>> byUnit = new HashMap<>();
+        for (int k = 0; k < shardCount; k++) {
+            Path file = shardFile(directory, k, shardCount);
+            try (ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+                if (!MAGIC.equals(in.readUTF()) || in.readLong() != fingerprint
+                        || in.readInt() != k || in.readInt() != shardCount) {
+                    throw new IOException("分片文件与当前场景不匹配：" + file);
+                }
+                int unitCount = in.readInt();
+                for (int u = 0; u < unitCount; u++) {
+                    ShardPlan.Unit unit = new ShardPlan.Unit(in.readBoolean(), in.readInt(), in.readInt());
+                    if (!in.readBoolean()) {
+                        continue;
+                    }
+                    int windowCount = in.readInt();
+                    List<VisibilityWindow> windows = new ArrayList<>(windowCount);
+                    for (int w = 0; w < windowCount; w++) {
+                        AbsoluteDate start = (AbsoluteDate) in.readObject();
+                        AbsoluteDate end = (AbsoluteDate) in.readObject();
+                        windows.add(new VisibilityWindow(start, end, in.readDouble()));
+                    }
+                    byUnit.put(unit, windows);
+                }
+            }
+        }
+
+        // 2. 按单进程计算的顺序重建各卫星结果
+        return assemble(byUnit, config.getSatelliteOrbits().size(), config.getGroundStations());
+    }
+
+    /**
+     * 分片结果文件路径，例如 shard-2-of-8.bin。
+     */
+    public static Path shardFile(Path directory, int shardIndex, int shardCount) {
+        return directory.resolve("shard-" + shardIndex + "-of-" + shardCount + ".bin");
+    }
+
+    /**
+     * 按单进程计算的顺序插入各单元的窗口：先各地面站（列表顺序），再编号更大的卫星（升序）。
+     * 缺失（计算出错或由调用方另行计算）的单元不插入，与单进程计算时跳过该条目一致。
+     */
+    static List<SatResult> assemble(Map<ShardPlan.Unit, List<VisibilityWindow>> byUnit, int satelliteCount,
+                                    List<GroundStation> groundStations) {
+        List<SatResult> allResults = new ArrayList<>(satelliteCount);
+        for (int satId = 0; satId < satelliteCount; satId++) {
+            SatResult result = new SatResult(satId);
+            for (int g = 0; g < groundStations.size(); g++) {
+                List<VisibilityWindow> windows = byUnit.get(new ShardPlan.Unit(true, satId, g));
+                if (windows != null) {
+                    result.addGroundStationResult(groundStations.get(g).toString(), windows);
+                }
+            }
+            for (int otherId = satId + 1; otherId < satelliteCount; otherId++) {
+                List<VisibilityWindow> windows = byUnit.get(new ShardPlan.Unit(false, satId, otherId));
+                if (windows != null) {
+                    result.addInterSatelliteResult(otherId, windows);
+                }
+            }
+            allResults.add(result);
+        }
+        return allResults;
+    }
+
+    /**
+     * 计算一个单元在 [startDate, endDate] 内的窗口，出错时打印错误并返回 null。
+     */
+    static List<VisibilityWindow> computeUnit(ShardPlan.Unit unit,
+                                                      List<KeplerianElements> orbits,
+                                                      List<? extends PositionVelocityProvider> ephemerides,
+                                                      List<GroundStation> groundStations,
+                                                      AbsoluteDate startDate,
+                                                      AbsoluteDate endDate,
+                                                      ToleranceProfile tolerance,
+                                                      VisibilityConstraints constraints) {
+        int satId = unit.satId();
+        if (unit.ground()) {
+            GroundStation gs = groundStations.get(unit.target());
+            try {
+                GroundStationVisibilityAnalyzer gsAnalyzer = new GroundStationVisibilityAnalyzer(
+                        constraints.getMinElevationDeg(), constraints.getCoverageHalfAngleDeg(), tolerance);
+                return (ephemerides != null)
+                        ? gsAnalyzer.computeVisibility(ephemerides.get(satId), startDate, endDate, gs)
+                        : gsAnalyzer.computeVisibility(orbits.get(satId), startDate, endDate, gs);
+            } catch (Exception e) {
+                System.err.println("卫星#" + satId + " 与地面站 " + gs.toString() +
+                        " 的可见性计算出错: " + e.getMessage());
+                return null;
+            }
+        }
+        int otherId = unit.target();
+        try {
+            InterSatelliteVisibilityAnalyzer interSatAnalyzer = new InterSatelliteVisibilityAnalyzer(
+                    constraints.getMaxInterSatelliteDistance(), tolerance);
+            return (ephemerides != null)
+                    ? interSatAnalyzer.computeVisibility(ephemerides.get(satId), ephemerides.get(otherId),
+                            startDate, endDate)
+                    : interSatAnalyzer.computeVisibility(orbits.get(satId), orbits.get(otherId),
+                            startDate, endDate);
+        } catch (Exception e) {
+            System.err.println("卫星#" + satId + " 与卫星#" + otherId +
+                    " 的可见性计算出错: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 场景指纹：轨道参数、传播模型、星历文件与步长、地面站、时间段、引擎、容差与判定条件任一变化时指纹随之变化，
+     * 防止合并来自不同场景的分片。
+     */
+    static long scenarioFingerprint(SimulationConfig config) {
+        AbsoluteDate startDate = config.getStartDate();
+        AbsoluteDate endDate = config.getEndDate();
+        ToleranceProfile tolerance = config.getToleranceProfile();
+        VisibilityConstraints constraints = config.getVisibilityConstraints();
+        long hash = config.getPropagationModel().fingerprint(EphemerisWriter.fingerprint(config.getSatelliteOrbits()));
+        List<Double> values = new ArrayList<>();
+        String ephemerisFile = config.getEphemerisFile();
+        values.add((ephemerisFile != null) ? (double) ephemerisFile.hashCode() : 0.0);
+        values.add(config.getEphemerisStepSeconds());
+        for (GroundStation gs : config.getGroundStations()) {
+            values.add(gs.lat);
+            values.add(gs.lon);
+            values.add(gs.alt);
+            if (gs.mask != null) {
+                for (double[] point : gs.mask.getPoints()) {
+                    values.add(point[0]);
+                    values.add(point[1]);
+                }
+            }
+        }
+        values.add(startDate.durationFrom(AbsoluteDate.J2000_EPOCH));
+        values.add(endDate.durationFrom(AbsoluteDate.J2000_EPOCH));
+        values.add((double) config.getInterSatelliteEngine().ordinal());
+        values.add(tolerance.getGroundMaxCheck());
+        values.add(tolerance.getGroundThreshold());
+        values.add(tolerance.getInterMaxCheck());
+        values.add(tolerance.getInterThreshold());
+        values.add((double) tolerance.getMaxIter());
+        values.add(tolerance.getVectorStepSeconds());
+        values.add(constraints.getMinElevationDeg());
+        values.add(constraints.getCoverageHalfAngleDeg());
+        values.add(constraints.getMaxInterSatelliteDistance());
+        for (double value : values) {
+            hash ^= Double.doubleToLongBits(value);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+}
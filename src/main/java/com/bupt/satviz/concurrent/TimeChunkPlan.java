@@ -0,0 +1,144 @@
+package com.bupt.satviz.concurrent;
+
+import com.bupt.satviz.config.InterSatelliteEngineType;
+import com.bupt.satviz.config.ToleranceProfile;
+import com.bupt.satviz.model.VisibilityWindow;
+import lombok.Getter;
+import org.orekit.time.AbsoluteDate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 时间分块计划
+ * 把仿真时段 [startDate, endDate] 按固定长度切成若干连续的时间块，每块可独立传播、独立检测事件，
+ * 再把各块的窗口按时间顺序拼接为整个时段的窗口列表。
+ * 块长度向上取整为检测器检查间隔（或批量引擎采样步长）的整数倍，减少块边界带来的采样错位，但不能保证采样点与整段传播重合：
+ * Orekit 把每个传播步均分为 ceil(步长/检查间隔) 个子步，且每个事件之后重新开始采样。
+ * 因此短于约一个检查间隔的窗口（或窗口间的短间隙）可能只被分块与整段计算中的一方检测到，其余窗口的边界差异在收敛阈值量级。
+ * 分块只依赖时段、块长度与容差档位，与线程数无关，任意并发度下的结果完全相同。
+ */
+@Getter
+public class TimeChunkPlan {
+
+    private final AbsoluteDate startDate;
+    private final AbsoluteDate endDate;
+    // 对齐后的块长度（秒），最后一块可能更短
+    private final double chunkSeconds;
+    private final int chunkCount;
+
+    /**
+     * @param startDate      仿真开始时间
+     * @param endDate        仿真结束时间
+     * @param chunkSeconds   期望的块长度（秒）
+     * @param alignSeconds   块长度的对齐单位（秒），不大于 0 时不对齐
+     */
+    public TimeChunkPlan(AbsoluteDate startDate, AbsoluteDate endDate, double chunkSeconds, double alignSeconds) {
+        if (chunkSeconds <= 0.0) {
+            throw new IllegalArgumentException("时间块长度必须为正：" + chunkSeconds);
+        }
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.chunkSeconds = (alignSeconds > 0.0)
+                ? Math.max(1, Math.ceil(chunkSeconds / alignSeconds)) * alignSeconds
+                : chunkSeconds;
+        double duration = endDate.durationFrom(startDate);
+        this.chunkCount = Math.max(1, (int) Math.ceil(duration / this.chunkSeconds));
+    }
+
+    /**
+     * 块长度的对齐单位：参与计算的各检查间隔（批量引擎为采样步长）的最小公倍数，非整数秒时取其中最大者。
+     */
+    public static double alignment(ToleranceProfile tolerance, InterSatelliteEngineType engineType) {
+        double ground = tolerance.getGroundMaxCheck();
+        double inter = (engineType == InterSatelliteEngineType.DETECTOR)
+                ? tolerance.getInterMaxCheck()
+                : tolerance.getVectorStepSeconds();
+        if (ground != Math.rint(ground) || inter != Math.rint(inter) || ground <= 0 || inter <= 0) {
+            return Math.max(ground, inter);
+        }
+        long a = (long) ground;
+        long b = (long) inter;
+        long x = a;
+        long y = b;
+        while (y != 0) {
+            long r = x % y;
+            x = y;
+            y = r;
+        }
+        return (double) (a / x * b);
+    }
+
+    public AbsoluteDate chunkStart(int chunk) {
+        return startDate.shiftedBy(chunk * chunkSeconds);
+    }
+
+    public AbsoluteDate chunkEnd(int chunk) {
+        return (chunk == chunkCount - 1) ? endDate : startDate.shiftedBy((chunk + 1) * chunkSeconds);
+    }
+
+    /**
+     * 时刻所在的块编号（时段外的时刻归入首块或末块）。
+     */
+    public int chunkOf(AbsoluteDate date) {
+        int chunk = (int) Math.floor(date.durationFrom(startDate) / chunkSeconds);
+        return Math.max(0, Math.min(chunkCount - 1, chunk));
+    }
+
+    /**
+     * 按时间顺序拼接各块的窗口列表。
+     * 块末仍可见的窗口（endTime 为 null）与下一块在块起点即可见的窗口是同一个窗口，合并为一个；
+     * 只在最后一块末仍可见的窗口保留 endTime 为 null，持续时长按仿真结束时刻计算，与整段计算的约定相同。
+     *
+     * @param chunks 各块的窗口列表（按块顺序），任一块为 null（计算出错）时返回 null
+     * @return 整个时段的窗口列表
+     */
+    public List<VisibilityWindow> stitch(List<List<VisibilityWindow>> chunks) {
+        return stitch(chunks, 0);
+    }
+
+    /**
+     * 拼接从第 firstChunk 块开始的连续若干块的窗口列表。
+     * 首块起点即可见的窗口保留其起点（可能是更早开始的窗口的一部分）；末块不是最后一块时，
+     * 末块末仍可见的窗口 endTime 为 null，持续时长只计到仿真结束时刻，调用方应避免使用这样的窗口。
+     */
+    public List<VisibilityWindow> stitch(List<List<VisibilityWindow>> chunks, int firstChunk) {
+        List<VisibilityWindow> windows = new ArrayList<>();
+        for (int c = 0; c < chunks.size(); c++) {
+            List<VisibilityWindow> chunk = chunks.get(c);
+            if (chunk == null) {
+                return null;
+            }
+            AbsoluteDate boundary = chunkStart(firstChunk + c);
+            VisibilityWindow open = (!windows.isEmpty() && windows.get(windows.size() - 1).getEndTime() == null)
+                    ? windows.get(windows.size() - 1) : null;
+            for (int w = 0; w < chunk.size(); w++) {
+                VisibilityWindow window = chunk.get(w);
+                if (w == 0 && open != null && window.getStartTime().equals(boundary)) {
+                    // 跨越块边界的窗口：沿用上一块的起点
+                    windows.set(windows.size() - 1, new VisibilityWindow(open.getStartTime(), window.getEndTime(),
+                            durationOf(open.getStartTime(), window.getEndTime())));
+                    open = null;
+                    continue;
+                }
+                if (open != null) {
+                    // 上一块末可见、本块起点不可见（g 恰好在边界处过零）：窗口在边界处结束
+                    windows.set(windows.size() - 1, new VisibilityWindow(open.getStartTime(), boundary,
+                            boundary.durationFrom(open.getStartTime())));
+                    open = null;
+                }
+                windows.add(new VisibilityWindow(window.getStartTime(), window.getEndTime(),
+                        durationOf(window.getStartTime(), window.getEndTime())));
+            }
+            if (open != null && chunk.isEmpty()) {
+                windows.set(windows.size() - 1, new VisibilityWindow(open.getStartTime(), boundary,
+                        boundary.durationFrom(open.getStartTime())));
+            }
+        }
+        return windows;
+    }
+
+    private double durationOf(AbsoluteDate start, AbsoluteDate end) {
+        return (end != null) ? end.durationFrom(start) : endDate.durationFrom(start);
+    }
+}
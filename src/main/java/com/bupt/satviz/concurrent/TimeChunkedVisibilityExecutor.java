@@ -0,0 +1,137 @@
+package com.bupt.satviz.concurrent;
+
+import com.bupt.satviz.calculation.PositionVelocityProvider;
+import com.bupt.satviz.config.InterSatelliteEngineType;
+import com.bupt.satviz.config.ToleranceProfile;
+import com.bupt.satviz.config.VisibilityConstraints;
+import com.bupt.satviz.model.GroundStation;
+import com.bupt.satviz.model.KeplerianElements;
+import com.bupt.satviz.model.SatResult;
+import com.bupt.satviz.model.VisibilityWindow;
+import com.bupt.satviz.visibility.VectorInterSatelliteEngine;
+import org.orekit.time.AbsoluteDate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * 时间分块并行计算模块
+ * ParallelVisibilityExecutor 按卫星并行，每个任务串行传播整个仿真时段；时段很长而卫星很少时大部分核心空闲。
+ * 本模块再按 TimeChunkPlan 把时段切成时间块：每个（计算单元, 时间块）组合是一个独立任务，
+ * 各自从块起点开始传播并检查块起点是否已处于可见状态，全部完成后按块顺序拼接跨越块边界的窗口，
+ * 按单进程计算时的插入顺序重建 SatResult。任务数为单元数 × 块数，卫星很少时也能占满全部核心。
+ * 使用 VECTOR 引擎时，卫星间可见性按时间块分别批量计算后同样拼接。
+ * 块内采样点与整段传播不一定重合（见 TimeChunkPlan），短于约一个检查间隔的窗口或间隙可能只被其中一方检测到；
+ * 其余窗口一一对应，边界差异不超过检测器收敛阈值的量级。分块方式与线程数无关，结果可重复。
+ */
+public class TimeChunkedVisibilityExecutor {
+
+    /**
+     * 按时间分块并发计算所有卫星的可见性窗口。
+     *
+     * @param orbits         所有卫星轨道元素列表
+     * @param ephemerides    与 orbits 一一对应的星历数据源，为 null 时直接按轨道元素传播
+     * @param groundStations 地面站列表
+     * @param startDate      仿真开始时间
+     * @param endDate        仿真结束时间
+     * @param engineType     卫星间可见性计算引擎
+     * @param tolerance      检测器容差档位
+     * @param constraints    可见性判定条件
+     * @param chunkSeconds   期望的时间块长度（秒），实际长度按检查间隔对齐
+     * @return 每颗卫星的可见性结果列表
+     */
+    public static List<SatResult> computeAllVisibilities(List<KeplerianElements> orbits,
+                                                         List<? extends PositionVelocityProvider> ephemerides,
+                                                         List<GroundStation> groundStations,
+                                                         AbsoluteDate startDate,
+                                                         AbsoluteDate endDate,
+                                                         InterSatelliteEngineType engineType,
+                                                         ToleranceProfile tolerance,
+                                                         VisibilityConstraints constraints,
+                                                         double chunkSeconds) throws Exception {
+        boolean useDetector = engineType == InterSatelliteEngineType.DETECTOR;
+        TimeChunkPlan plan = new TimeChunkPlan(startDate, endDate, chunkSeconds,
+                TimeChunkPlan.alignment(tolerance, engineType));
+        int chunkCount = plan.getChunkCount();
+        // 全部计算单元（分片计划的 0/1 即为全部单元）
+        ShardPlan units = new ShardPlan(0, 1, orbits.size(), groundStations.size(), useDetector);
+        List<ShardPlan.Unit> allUnits = new ArrayList<>(units.groundUnits());
+        allUnits.addAll(units.interSatelliteUnits());
+
+        // 1. 每个（计算单元, 时间块）组合提交一个任务
+        int numThreads = Runtime.getRuntime().availableProcessors();
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        List<List<Future<List<VisibilityWindow>>>> futures = new ArrayList<>(allUnits.size());
+        for (ShardPlan.Unit unit : allUnits) {
+            List<Future<List<VisibilityWindow>>> chunks = new ArrayList<>(chunkCount);
+            for (int c = 0; c < chunkCount; c++) {
+                AbsoluteDate chunkStart = plan.chunkStart(c);
+                AbsoluteDate chunkEnd = plan.chunkEnd(c);
+                chunks.add(executor.submit(() -> ShardedVisibilityExecutor.computeUnit(unit, orbits, ephemerides,
+                        groundStations, chunkStart, chunkEnd, tolerance, constraints)));
+            }
+            futures.add(chunks);
+        }
+        // 1.1 VECTOR 引擎：每个时间块一次批量计算（引擎无内部状态，各块的星历读取互不影响）
+        List<Future<List<SatResult>>> vectorFutures = new ArrayList<>();
+        if (!useDetector) {
+            VectorInterSatelliteEngine engine = new VectorInterSatelliteEngine(
+                    constraints.getMaxInterSatelliteDistance(), tolerance.getVectorStepSeconds(),
+                    tolerance.getInterThreshold());
+            for (int c = 0; c < chunkCount; c++) {
+                AbsoluteDate chunkStart = plan.chunkStart(c);
+                AbsoluteDate chunkEnd = plan.chunkEnd(c);
+                vectorFutures.add(executor.submit(() -> (ephemerides != null)
+                        ? engine.computeVisibilityFromEphemerides(ephemerides, chunkStart, chunkEnd)
+                        : engine.computeVisibility(orbits, chunkStart, chunkEnd)));
+            }
+        }
+
+        // 2. 按块顺序拼接各单元的窗口
+        Map<ShardPlan.Unit, List<VisibilityWindow>> byUnit = new HashMap<>();
+        for (int u = 0; u < allUnits.size(); u++) {
+            List<List<VisibilityWindow>> chunks = new ArrayList<>(chunkCount);
+            for (Future<List<VisibilityWindow>> future : futures.get(u)) {
+                chunks.add(future.get());
+            }
+            List<VisibilityWindow> windows = plan.stitch(chunks);
+            if (windows != null) {
+                byUnit.put(allUnits.get(u), windows);
+            }
+        }
+        List<List<SatResult>> vectorChunks = new ArrayList<>(vectorFutures.size());
+        for (Future<List<SatResult>> future : vectorFutures) {
+            vectorChunks.add(future.get());
+        }
+        executor.shutdown();
+
+        // 3. 按单进程计算的顺序重建各卫星结果
+        List<SatResult> allResults = ShardedVisibilityExecutor.assemble(byUnit, orbits.size(), groundStations);
+        if (!useDetector) {
+            stitchVectorResults(allResults, vectorChunks, plan);
+        }
+        return allResults;
+    }
+
+    /**
+     * 拼接批量引擎各时间块的卫星间结果；与整段批量计算一致，每个卫星对都有条目。
+     */
+    private static void stitchVectorResults(List<SatResult> allResults, List<List<SatResult>> vectorChunks,
+                                            TimeChunkPlan plan) {
+        int n = allResults.size();
+        for (int i = 0; i < n; i++) {
+            for (int other = i + 1; other < n; other++) {
+                List<List<VisibilityWindow>> chunks = new ArrayList<>(vectorChunks.size());
+                for (List<SatResult> chunk : vectorChunks) {
+                    chunks.add(chunk.get(i).getInterSatelliteResults().get(other));
+                }
+                allResults.get(i).addInterSatelliteResult(other, plan.stitch(chunks));
+            }
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.bupt.satviz.concurrent;
+
+import com.bupt.satviz.model.VisibilityWindow;
+import org.orekit.time.AbsoluteDate;
+
+/**
+ * 渐进式计算结果的接收接口
+ * ProgressiveVisibilityExecutor 按时间顺序逐个完成时间片，每完成一个时间片就在调用线程中依次回调本接口：
+ * 先报告该时间片内结束的窗口（确定）与在时间片末仍未结束的窗口（暂定），最后报告时间片完成。
+ * 计算单元（ShardPlan.Unit）标识窗口所属的（卫星, 地面站）组合或卫星对，卫星对满足 satId &lt; target。
+ */
+public interface VisibilitySliceConsumer {
+
+    /**
+     * 窗口已确定，之后不再变化。endTime 为 null 表示窗口在仿真结束时仍未结束（持续时长计到仿真结束时刻）。
+     */
+    void windowFinalised(ShardPlan.Unit unit, VisibilityWindow window);
+
+    /**
+     * 窗口在时间片末仍未结束：endTime 为 null，持续时长只计到时间片末。
+     * 之后的时间片会以相同的开始时间再次报告（暂定或确定），接收方可按（计算单元, 开始时间）覆盖之前的报告。
+     */
+    default void windowProvisional(ShardPlan.Unit unit, VisibilityWindow window) {
+    }
+
+    /**
+     * 时间片完成：开始时间早于 sliceEnd 的窗口均已报告过（确定或暂定）。
+     */
+    default void sliceCompleted(int slice, AbsoluteDate sliceStart, AbsoluteDate sliceEnd) {
+    }
+}
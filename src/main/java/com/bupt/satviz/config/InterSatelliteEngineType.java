@@ -0,0 +1,21 @@
+package com.bupt.satviz.config;
+
+/**
+ * 卫星间可见性计算引擎类型
+ * DETECTOR：逐对使用 Orekit 事件检测器（InterSatelliteVisibilityAnalyzer），默认方式；
+ * VECTOR：按时间步对所有卫星对做 SIMD 批量计算（VectorInterSatelliteEngine），适合大规模星座。
+ */
+public enum InterSatelliteEngineType {
+    DETECTOR,
+    VECTOR;
+
+    /**
+     * 从配置文件中的名称解析引擎类型（不区分大小写），为空时返回默认的 DETECTOR。
+     */
+    public static InterSatelliteEngineType fromName(String name) {
+        if (name == null || name.isEmpty()) {
+            return DETECTOR;
+        }
+        return valueOf(name.trim().toUpperCase());
+    }
+}
@@ -11,10 +11,16 @@ import java.io.File;
  */
 public class OrekitConfig {
 
+    // 已加载过数据目录时不再重复注册（批量运行多个场景时只初始化一次）
+    private static boolean initialized;
+
     /**
-     * 初始化 Orekit 数据，加载 orekit-data 目录中的数据文件。
+     * 初始化 Orekit 数据，加载 orekit-data 目录中的数据文件。重复调用时直接返回。
      */
-    public static void initialize() {
+    public static synchronized void initialize() {
+        if (initialized) {
+            return;
+        }
         // 指定 orekit-data 数据目录的路径
         File orekitData = new File("orekit-data");
 
@@ -26,6 +32,7 @@ public class OrekitConfig {
         DataContext.getDefault()
                    .getDataProvidersManager()
                    .addProvider(new DirectoryCrawler(orekitData));
+        initialized = true;
 
 //        System.out.println("Orekit 已成功加载数据目录：" + orekitData.getAbsolutePath());
     }
@@ -0,0 +1,25 @@
+package com.bupt.satviz.config;
+
+/**
+ * 轨道传播模型类型
+ * KEPLERIAN：二体开普勒传播（FastKeplerPropagator），默认方式；
+ * ECKSTEIN_HECHLER：Eckstein-Hechler 解析传播（J2~J6 带谐项，适用于近圆轨道）；
+ * BROUWER_LYDDANE：Brouwer-Lyddane 解析传播（J2~J5 带谐项，适用于任意偏心率的非临界倾角轨道）；
+ * NUMERICAL：数值积分传播（eigen-6s 重力场 + 可选大气阻力）。
+ */
+public enum PropagationModelType {
+    KEPLERIAN,
+    ECKSTEIN_HECHLER,
+    BROUWER_LYDDANE,
+    NUMERICAL;
+
+    /**
+     * 从配置文件中的名称解析模型类型（不区分大小写，可用 "-" 代替 "_"），为空时返回默认的 KEPLERIAN。
+     */
+    public static PropagationModelType fromName(String name) {
+        if (name == null || name.isEmpty()) {
+            return KEPLERIAN;
+        }
+        return valueOf(name.trim().toUpperCase().replace('-', '_'));
+    }
+}
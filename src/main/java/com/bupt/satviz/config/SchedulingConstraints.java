@@ -0,0 +1,71 @@
+package com.bupt.satviz.config;
+
+import lombok.Getter;
+
+import java.util.Arrays;
+
+/**
+ * 地面站接触计划的调度约束
+ * 每个地面站的天线数、同一天线相邻两次接触之间的转动/准备间隔、接触的最短时长以及各卫星的优先级。
+ * 可在 YAML 的 scheduling 段中配置。
+ */
+@Getter
+public class SchedulingConstraints {
+
+    // 未单独指定的地面站的天线数
+    private final int defaultAntennas;
+    // 各地面站的天线数（按地面站顺序，可为 null 或短于地面站列表，缺少的取 defaultAntennas）
+    private final int[] stationAntennas;
+    // 同一天线相邻两次接触之间的最小间隔（秒）
+    private final double setupSeconds;
+    // 接触的最短时长（秒），短于该时长的可见窗口不参与调度
+    private final double minPassSeconds;
+    // 各卫星的优先级（按卫星编号，可为 null 或短于卫星列表，缺少的取 1）
+    private final double[] priorities;
+
+    public SchedulingConstraints(int defaultAntennas, int[] stationAntennas, double setupSeconds,
+                                 double minPassSeconds, double[] priorities) {
+        if (defaultAntennas < 0 || setupSeconds < 0 || minPassSeconds < 0) {
+            throw new IllegalArgumentException("调度约束不能为负：antennas=" + defaultAntennas
+                    + "，setupSeconds=" + setupSeconds + "，minPassSeconds=" + minPassSeconds);
+        }
+        if (stationAntennas != null) {
+            for (int antennas : stationAntennas) {
+                if (antennas < 0) {
+                    throw new IllegalArgumentException("调度约束不能为负：stationAntennas="
+                            + Arrays.toString(stationAntennas));
+                }
+            }
+        }
+        if (priorities != null) {
+            for (double priority : priorities) {
+                // 权重为优先级乘以时长，负值、NaN 或无穷大会使改进步骤的权重比较失效
+                if (!(priority >= 0) || Double.isInfinite(priority)) {
+                    throw new IllegalArgumentException("优先级必须为非负有限值：priorities="
+                            + Arrays.toString(priorities));
+                }
+            }
+        }
+        this.defaultAntennas = defaultAntennas;
+        this.stationAntennas = stationAntennas;
+        this.setupSeconds = setupSeconds;
+        this.minPassSeconds = minPassSeconds;
+        this.priorities = priorities;
+    }
+
+    /**
+     * 缺省约束：每站 1 副天线，无准备间隔，不限最短时长，所有卫星优先级相同。
+     */
+    public static SchedulingConstraints defaults() {
+        return new SchedulingConstraints(1, null, 0.0, 0.0, null);
+    }
+
+    public int antennasAt(int stationIndex) {
+        return (stationAntennas != null && stationIndex < stationAntennas.length)
+                ? stationAntennas[stationIndex] : defaultAntennas;
+    }
+
+    public double priorityOf(int satId) {
+        return (priorities != null && satId < priorities.length) ? priorities[satId] : 1.0;
+    }
+}
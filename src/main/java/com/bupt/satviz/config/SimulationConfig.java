@@ -1,5 +1,7 @@
 package com.bupt.satviz.config;
 
+import com.bupt.satviz.calculation.PropagationModel;
+import com.bupt.satviz.model.AzimuthElevationMask;
 import com.bupt.satviz.model.GroundStation;
 import com.bupt.satviz.model.KeplerianElements;
 import lombok.Getter;
@@ -10,6 +12,7 @@ import org.orekit.time.TimeScalesFactory;
 import org.yaml.snakeyaml.Yaml;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
@@ -23,21 +26,54 @@ public class SimulationConfig {
     private AbsoluteDate endDate;
     private List<KeplerianElements> satelliteOrbits;
     private List<GroundStation> groundStations;
+    private InterSatelliteEngineType interSatelliteEngine;
+    // 检测器容差档位与可见性判定条件
+    private ToleranceProfile toleranceProfile;
+    private VisibilityConstraints visibilityConstraints;
+    // 时间分块长度（秒，可选），大于 0 时把仿真时段切成时间块并行计算
+    private double timeChunkSeconds;
+    // 渐进式计算的时间片长度（秒，可选），大于 0 时按时间顺序逐片计算并发布结果
+    private double progressiveSliceSeconds;
+    // 预计算星历文件路径（可选，为 null 时不使用星历文件）与采样步长（秒）
+    private String ephemerisFile;
+    private double ephemerisStepSeconds;
+    // 轨道传播模型（默认二体开普勒）
+    private PropagationModel propagationModel;
+    // 全球覆盖统计（可选，coverageCells 为 0 时不计算）：格网数、时间步长、重访直方图区间宽度（秒）与覆盖图 CSV 路径
+    private int coverageCells;
+    private double coverageStepSeconds;
+    private double coverageHistogramBinSeconds;
+    private String coverageCsv;
+    // 大规模地面终端可见性（可选，terminalFile 为 null 时不计算）：终端 CSV 文件路径、索引格网数与过境窗口 CSV 路径
+    private String terminalFile;
+    private int terminalIndexCells;
+    private String terminalCsv;
+    // 地面站接触计划调度（可选，schedulingConstraints 为 null 时不调度）：调度约束、是否执行改进步骤与接触计划 CSV 路径
+    private SchedulingConstraints schedulingConstraints;
+    private boolean schedulingImprove;
+    private String schedulingCsv;
 
     /**
      * 从指定的 YAML 配置文件加载仿真参数
      *
-     * @param configFile YAML 文件在 resources 下的路径（例如 "simulation_scenario_1.yaml"）
+     * @param configFile YAML 文件路径：文件系统中存在该文件时直接读取，否则按 resources 下的路径
+     *                   （例如 "simulation_scenario_1.yaml"）从 classpath 读取
      */
     public SimulationConfig(String configFile) {
         try {
             // 1. 读取 YAML 文件
             Yaml yaml = new Yaml();
-            InputStream inputStream = getClass().getClassLoader().getResourceAsStream(configFile);
+            File file = new File(configFile);
+            InputStream inputStream = file.isFile()
+                    ? new FileInputStream(file)
+                    : getClass().getClassLoader().getResourceAsStream(configFile);
             if (inputStream == null) {
                 throw new RuntimeException("未找到配置文件：" + configFile);
             }
-            Map<String, Object> obj = yaml.load(inputStream);
+            Map<String, Object> obj;
+            try (InputStream in = inputStream) {
+                obj = yaml.load(in);
+            }
             Map<String, Object> simulation = (Map<String, Object>) obj.get("simulation");
 
             // 2. 解析开始时间和持续时长
@@ -66,18 +102,143 @@ public class SimulationConfig {
                 satelliteOrbits.add(element);
             }
 
-            // 4. 解析地面站配置列表
+            // 4. 解析地面站配置列表（mask 为可选的遮挡模板，加载时编译成查找表）
             List<Map<String, Object>> gsList = (List<Map<String, Object>>) simulation.get("groundStations");
             this.groundStations = new ArrayList<>();
             for (Map<String, Object> gsMap : gsList) {
                 double lat = ((Number) gsMap.get("lat")).doubleValue();
                 double lon = ((Number) gsMap.get("lon")).doubleValue();
                 double alt = ((Number) gsMap.get("alt")).doubleValue();
-                groundStations.add(new GroundStation(lat, lon, alt));
+                List<List<Number>> mask = (List<List<Number>>) gsMap.get("mask");
+                groundStations.add(new GroundStation(lat, lon, alt, (mask != null) ? parseMask(mask) : null));
+            }
+
+            // 5. 解析容差档位（可选，默认 precise）与卫星间可见性计算引擎（可选，未指定时采用档位中的引擎）
+            this.toleranceProfile = ToleranceProfile.named((String) simulation.get("toleranceProfile"));
+            String engineName = (String) simulation.get("interSatelliteEngine");
+            this.interSatelliteEngine = (engineName != null)
+                    ? InterSatelliteEngineType.fromName(engineName)
+                    : toleranceProfile.getInterSatelliteEngine();
+
+            // 5.1 解析可见性判定条件（可选，缺省为最小仰角 0°、覆盖半角 45°、最大通信距离 5000 km）
+            Map<String, Object> visibility = (Map<String, Object>) simulation.get("visibility");
+            VisibilityConstraints defaults = VisibilityConstraints.defaults();
+            this.visibilityConstraints = (visibility == null) ? defaults : new VisibilityConstraints(
+                    ((Number) visibility.getOrDefault("minElevation", defaults.getMinElevationDeg())).doubleValue(),
+                    ((Number) visibility.getOrDefault("coverageHalfAngle", defaults.getCoverageHalfAngleDeg())).doubleValue(),
+                    ((Number) visibility.getOrDefault("maxInterSatelliteDistance",
+                            defaults.getMaxInterSatelliteDistance())).doubleValue());
+
+            // 5.2 解析时间分块长度（可选，默认不分块）
+            this.timeChunkSeconds = ((Number) simulation.getOrDefault("timeChunkSeconds", 0)).doubleValue();
+
+            // 5.3 解析渐进式计算的时间片长度（可选，默认不启用）
+            this.progressiveSliceSeconds =
+                    ((Number) simulation.getOrDefault("progressiveSliceSeconds", 0)).doubleValue();
+
+            // 6. 解析预计算星历配置（可选）
+            Map<String, Object> ephemeris = (Map<String, Object>) simulation.get("ephemeris");
+            this.ephemerisStepSeconds = 30.0;
+            if (ephemeris != null) {
+                this.ephemerisFile = (String) ephemeris.get("file");
+                Number step = (Number) ephemeris.get("stepSeconds");
+                if (step != null) {
+                    this.ephemerisStepSeconds = step.doubleValue();
+                }
+            }
+
+            // 7. 解析轨道传播模型（可选，默认 keplerian）
+            Map<String, Object> propagation = (Map<String, Object>) simulation.get("propagation");
+            this.propagationModel = (propagation != null)
+                    ? parsePropagationModel(propagation)
+                    : PropagationModel.keplerian();
+
+            // 8. 解析全球覆盖统计配置（可选）
+            Map<String, Object> coverage = (Map<String, Object>) simulation.get("coverage");
+            this.coverageStepSeconds = 60.0;
+            this.coverageHistogramBinSeconds = 600.0;
+            if (coverage != null) {
+                this.coverageCells = ((Number) coverage.getOrDefault("cells", 100000)).intValue();
+                this.coverageStepSeconds = ((Number) coverage.getOrDefault("stepSeconds", 60.0)).doubleValue();
+                this.coverageHistogramBinSeconds =
+                        ((Number) coverage.getOrDefault("histogramBinSeconds", 600.0)).doubleValue();
+                this.coverageCsv = (String) coverage.get("csv");
+            }
+
+            // 9. 解析大规模地面终端配置（可选）
+            Map<String, Object> terminals = (Map<String, Object>) simulation.get("terminals");
+            if (terminals != null) {
+                this.terminalFile = (String) terminals.get("file");
+                this.terminalIndexCells = ((Number) terminals.getOrDefault("cells", 100000)).intValue();
+                this.terminalCsv = (String) terminals.get("csv");
+            }
+
+            // 10. 解析地面站接触计划调度配置（可选）
+            Map<String, Object> scheduling = (Map<String, Object>) simulation.get("scheduling");
+            if (scheduling != null) {
+                this.schedulingConstraints = parseSchedulingConstraints(scheduling);
+                this.schedulingImprove = (Boolean) scheduling.getOrDefault("improve", Boolean.TRUE);
+                this.schedulingCsv = (String) scheduling.get("csv");
             }
         } catch (Exception e) {
             throw new RuntimeException("加载 SimulationConfig 失败：" + e.getMessage(), e);
         }
     }
 
+    /**
+     * 遮挡模板写成 [[方位角, 仰角], ...]（度），方位角自正北顺时针计。
+     */
+    private static AzimuthElevationMask parseMask(List<List<Number>> mask) {
+        double[][] points = new double[mask.size()][];
+        for (int i = 0; i < mask.size(); i++) {
+            points[i] = new double[]{mask.get(i).get(0).doubleValue(), mask.get(i).get(1).doubleValue()};
+        }
+        return new AzimuthElevationMask(points);
+    }
+
+    /**
+     * antennas 可以是所有地面站共用的天线数，也可以是按地面站顺序排列的列表（未列出的地面站为 1 副）；
+     * priorities 为按卫星编号排列的优先级列表（未列出的卫星为 1）。
+     */
+    private static SchedulingConstraints parseSchedulingConstraints(Map<String, Object> scheduling) {
+        Object antennas = scheduling.getOrDefault("antennas", 1);
+        int defaultAntennas = 1;
+        int[] stationAntennas = null;
+        if (antennas instanceof List) {
+            List<Number> list = (List<Number>) antennas;
+            stationAntennas = new int[list.size()];
+            for (int i = 0; i < list.size(); i++) {
+                stationAntennas[i] = list.get(i).intValue();
+            }
+        } else {
+            defaultAntennas = ((Number) antennas).intValue();
+        }
+        List<Number> priorityList = (List<Number>) scheduling.get("priorities");
+        double[] priorities = null;
+        if (priorityList != null) {
+            priorities = new double[priorityList.size()];
+            for (int i = 0; i < priorityList.size(); i++) {
+                priorities[i] = priorityList.get(i).doubleValue();
+            }
+        }
+        return new SchedulingConstraints(defaultAntennas, stationAntennas,
+                ((Number) scheduling.getOrDefault("setupSeconds", 0)).doubleValue(),
+                ((Number) scheduling.getOrDefault("minPassSeconds", 0)).doubleValue(),
+                priorities);
+    }
+
+    private static PropagationModel parsePropagationModel(Map<String, Object> propagation) {
+        Map<String, Object> gravity = (Map<String, Object>) propagation.get("gravity");
+        Map<String, Object> drag = (Map<String, Object>) propagation.get("drag");
+        return new PropagationModel(
+                PropagationModelType.fromName((String) propagation.get("model")),
+                (gravity != null) ? ((Number) gravity.getOrDefault("degree", 8)).intValue() : 8,
+                (gravity != null) ? ((Number) gravity.getOrDefault("order", 8)).intValue() : 8,
+                drag != null,
+                (drag != null) ? (String) drag.getOrDefault("spaceWeather", "cssi") : "cssi",
+                (drag != null) ? ((Number) drag.getOrDefault("mass", 260.0)).doubleValue() : 260.0,
+                (drag != null) ? ((Number) drag.getOrDefault("area", 1.0)).doubleValue() : 1.0,
+                (drag != null) ? ((Number) drag.getOrDefault("cd", 2.2)).doubleValue() : 2.2,
+                ((Number) propagation.getOrDefault("positionTolerance", 1.0)).doubleValue());
+    }
 }
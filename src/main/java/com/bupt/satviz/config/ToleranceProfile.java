@@ -0,0 +1,81 @@
+package com.bupt.satviz.config;
+
+import lombok.Getter;
+
+/**
+ * 精度/速度容差档位
+ * 集中管理事件检测器的检查间隔（maxCheck）、收敛阈值（threshold）、最大迭代次数（maxIter）
+ * 以及卫星间可见性引擎的选择与采样步长。检查间隔决定可能漏检的最短窗口，阈值决定窗口边界的时间精度。
+ * 预置三个档位，可在 YAML 中通过 toleranceProfile 选择：
+ *   precise     —— 与此前硬编码的参数一致（边界精度 1 微秒，逐对检测器），作为精度参照，默认档位；
+ *   operational —— 边界精度 1 毫秒，卫星间使用 SIMD 批量引擎，满足日常任务规划；
+ *   survey      —— 边界精度 0.1 秒、检查间隔加倍，用于大规模星座的快速普查，可能漏检极短的擦边窗口。
+ */
+@Getter
+public class ToleranceProfile {
+
+    private final String name;
+    // 星地可见性检测器的检查间隔（秒）与收敛阈值（秒）
+    private final double groundMaxCheck;
+    private final double groundThreshold;
+    // 卫星间可见性检测器的检查间隔（秒）与收敛阈值（秒）
+    private final double interMaxCheck;
+    private final double interThreshold;
+    // 事件求根的最大迭代次数
+    private final int maxIter;
+    // 卫星间可见性计算引擎及 SIMD 引擎的采样步长（秒）
+    private final InterSatelliteEngineType interSatelliteEngine;
+    private final double vectorStepSeconds;
+
+    public ToleranceProfile(String name, double groundMaxCheck, double groundThreshold,
+                            double interMaxCheck, double interThreshold, int maxIter,
+                            InterSatelliteEngineType interSatelliteEngine, double vectorStepSeconds) {
+        this.name = name;
+        this.groundMaxCheck = groundMaxCheck;
+        this.groundThreshold = groundThreshold;
+        this.interMaxCheck = interMaxCheck;
+        this.interThreshold = interThreshold;
+        this.maxIter = maxIter;
+        this.interSatelliteEngine = interSatelliteEngine;
+        this.vectorStepSeconds = vectorStepSeconds;
+    }
+
+    public static ToleranceProfile precise() {
+        return new ToleranceProfile("precise", 60.0, 1e-6, 10.0, 1e-6, 100,
+                InterSatelliteEngineType.DETECTOR, 10.0);
+    }
+
+    public static ToleranceProfile operational() {
+        return new ToleranceProfile("operational", 60.0, 1e-3, 10.0, 1e-3, 100,
+                InterSatelliteEngineType.VECTOR, 10.0);
+    }
+
+    public static ToleranceProfile survey() {
+        return new ToleranceProfile("survey", 120.0, 0.1, 20.0, 0.1, 50,
+                InterSatelliteEngineType.VECTOR, 20.0);
+    }
+
+    /**
+     * 按名称获取预置档位（不区分大小写），为空时返回默认的 precise。
+     */
+    public static ToleranceProfile named(String name) {
+        if (name == null || name.isEmpty()) {
+            return precise();
+        }
+        switch (name.trim().toLowerCase()) {
+            case "precise":
+                return precise();
+            case "operational":
+                return operational();
+            case "survey":
+                return survey();
+            default:
+                throw new IllegalArgumentException("未知的容差档位：" + name + "（可选 survey、operational、precise）");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
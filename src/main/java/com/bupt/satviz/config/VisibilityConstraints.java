@@ -0,0 +1,32 @@
+package com.bupt.satviz.config;
+
+import lombok.Getter;
+
+/**
+ * 可见性判定条件
+ * 星地可见性的最小仰角与卫星覆盖半角，卫星间可见性的最大通信距离。
+ * 可在 YAML 的 visibility 段中配置，缺省值与此前硬编码的参数一致。
+ */
+@Getter
+public class VisibilityConstraints {
+
+    // 最小仰角（度）与卫星覆盖半角（度）
+    private final double minElevationDeg;
+    private final double coverageHalfAngleDeg;
+    // 卫星间最大通信距离（米）
+    private final double maxInterSatelliteDistance;
+
+    public VisibilityConstraints(double minElevationDeg, double coverageHalfAngleDeg,
+                                 double maxInterSatelliteDistance) {
+        this.minElevationDeg = minElevationDeg;
+        this.coverageHalfAngleDeg = coverageHalfAngleDeg;
+        this.maxInterSatelliteDistance = maxInterSatelliteDistance;
+    }
+
+    /**
+     * 缺省条件：最小仰角 0°，覆盖半角 45°，最大通信距离 5000 km。
+     */
+    public static VisibilityConstraints defaults() {
+        return new VisibilityConstraints(0.0, 45.0, 5_000_000.0);
+    }
+}
@@ -0,0 +1,350 @@
+package com.bupt.satviz.coverage;
+
+import com.bupt.satviz.calculation.FastKeplerPropagator;
+import com.bupt.satviz.calculation.PositionVelocityProvider;
+import com.bupt.satviz.config.VisibilityConstraints;
+import com.bupt.satviz.model.KeplerianElements;
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.orekit.frames.Frame;
+import org.orekit.frames.FramesFactory;
+import org.orekit.frames.StaticTransform;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.utils.Constants;
+import org.orekit.utils.IERSConventions;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * 全球覆盖网格计算引擎
+ * 按固定时间步长：
+ * 1. 计算每颗卫星的星下点与覆盖区（以星下点为中心的球冠，半径取最小仰角与卫星覆盖半角约束中较小者）；
+ * 2. 将球冠按纬度环栅格化为格网位集合中的连续区间，所有卫星的覆盖区按位或合并；
+ * 3. 与上一步的位集合做异或，只对覆盖状态翻转的格网增量更新其统计量（覆盖时长、重访间隔、响应时间）。
+ * 全程不生成任何逐格网的可见性窗口，计算量与卫星数、覆盖区内的纬度环数和状态翻转次数成正比。
+ * 网格按纬度环划分为若干条带并行处理，各条带拥有独立的位集合与统计区间，互不加锁。
+ * 覆盖区按球形地球（取星下点处的地心半径）计算，时间分辨率为一个步长。
+ */
+public class CoverageEngine {
+
+    // 每批预先计算星下点的时间步数
+    private static final int BLOCK_STEPS = 128;
+
+    private static final Frame inertialFrame = FramesFactory.getEME2000();
+    private static final Frame earthFrame = FramesFactory.getITRF(IERSConventions.IERS_2010, true);
+
+    private final EqualAreaGrid grid;
+    private final VisibilityConstraints constraints;
+    private final double stepSeconds;
+    private final double histogramBinSeconds;
+
+    /**
+     * @param grid                覆盖统计所用的等面积网格
+     * @param constraints         可见性判定条件（使用最小仰角与卫星覆盖半角）
+     * @param stepSeconds         时间步长（秒）
+     * @param histogramBinSeconds 重访间隔直方图的区间宽度（秒）
+     */
+    public CoverageEngine(EqualAreaGrid grid, VisibilityConstraints constraints,
+                          double stepSeconds, double histogramBinSeconds) {
+        if (stepSeconds <= 0.0 || histogramBinSeconds <= 0.0) {
+            throw new IllegalArgumentException("时间步长与直方图区间宽度必须为正");
+        }
+        this.grid = grid;
+        this.constraints = constraints;
+        this.stepSeconds = stepSeconds;
+        this.histogramBinSeconds = histogramBinSeconds;
+    }
+
+    /**
+     * 根据开普勒轨道元素计算覆盖统计。
+     */
+    public CoverageResult computeCoverage(List<KeplerianElements> orbits, AbsoluteDate start, AbsoluteDate end) {
+        List<FastKeplerPropagator> satellites = new ArrayList<>(orbits.size());
+        for (KeplerianElements orbit : orbits) {
+            satellites.add(new FastKeplerPropagator(orbit, Constants.WGS84_EARTH_MU));
+        }
+        return computeCoverageFromEphemerides(satellites, start, end);
+    }
+
+    /**
+     * 根据任意位置速度数据源（如预计算星历）计算覆盖统计。
+     * 每颗卫星的数据源只在一个线程中按时间顺序求值。
+     */
+    public CoverageResult computeCoverageFromEphemerides(List<? extends PositionVelocityProvider> satellites,
+                                                         AbsoluteDate start, AbsoluteDate end) {
+        int n = satellites.size();
+        double duration = end.durationFrom(start);
+        int steps = (int) Math.ceil(duration / stepSeconds);
+        int bins = Math.max(1, (int) Math.ceil(duration / histogramBinSeconds));
+
+        CoverageResult result = new CoverageResult(grid, duration,
+                new double[grid.getCellCount()], new int[grid.getCellCount()],
+                new double[grid.getCellCount()], new double[grid.getCellCount()],
+                new long[bins], histogramBinSeconds);
+        Arrays.fill(result.getMaxRevisitGap(), Double.NaN);
+        List<Band> bands = createBands(result);
+
+        // 星下点缓冲区：[步][卫星]，每批 BLOCK_STEPS 步
+        double[] sinLat = new double[BLOCK_STEPS * n];
+        double[] cosLat = new double[BLOCK_STEPS * n];
+        double[] lat = new double[BLOCK_STEPS * n];
+        double[] lon = new double[BLOCK_STEPS * n];
+        double[] cap = new double[BLOCK_STEPS * n];
+        double[] offsets = new double[BLOCK_STEPS];
+        StaticTransform[] transforms = new StaticTransform[BLOCK_STEPS];
+
+        for (int first = 0; first <= steps; first += BLOCK_STEPS) {
+            int count = Math.min(BLOCK_STEPS, steps + 1 - first);
+            // 1. 本批各步的时刻与惯性系到地固系的变换
+            for (int b = 0; b < count; b++) {
+                offsets[b] = Math.min((first + b) * stepSeconds, duration);
+                transforms[b] = inertialFrame.getStaticTransformTo(earthFrame, start.shiftedBy(offsets[b]));
+            }
+            // 2. 按卫星并行计算星下点与覆盖区半径（每颗卫星的数据源只被一个线程使用）
+            IntStream.range(0, n).parallel().forEach(s -> {
+                PositionVelocityProvider satellite = satellites.get(s);
+                double[] position = new double[3];
+                for (int b = 0; b < count; b++) {
+                    satellite.getPosition(start.shiftedBy(offsets[b]), position);
+                    Vector3D p = transforms[b].transformPosition(new Vector3D(position[0], position[1], position[2]));
+                    double r = p.getNorm();
+                    double phi = Math.asin(p.getZ() / r);
+                    int k = b * n + s;
+                    lat[k] = phi;
+                    sinLat[k] = Math.sin(phi);
+                    cosLat[k] = Math.cos(phi);
+                    lon[k] = Math.atan2(p.getY(), p.getX());
+                    cap[k] = capRadius(r, phi);
+                }
+            });
+            // 3. 各条带独立地按时间顺序栅格化并更新统计量
+            bands.parallelStream().forEach(band -> {
+                for (int b = 0; b < count; b++) {
+                    band.step(offsets[b], b * n, n, lat, sinLat, cosLat, lon, cap);
+                }
+            });
+        }
+
+        // 4. 在仿真结束时刻关闭仍在进行的覆盖与空档，合并各条带的直方图
+        for (Band band : bands) {
+            band.finish(duration);
+            for (int k = 0; k < bins; k++) {
+                result.getRevisitHistogram()[k] += band.histogram[k];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 覆盖区（球冠）的地心角半径（弧度）：仰角约束与卫星覆盖半角约束中较小者。
+     *
+     * @param r   卫星地心距（米）
+     * @param phi 星下点地心纬度（弧度）
+     */
+    private double capRadius(double r, double phi) {
+        double sinPhi = Math.sin(phi);
+        double earthRadius = Constants.WGS84_EARTH_EQUATORIAL_RADIUS
+                * (1 - Constants.WGS84_EARTH_FLATTENING * sinPhi * sinPhi);
+        if (r <= earthRadius) {
+            return 0.0;
+        }
+        double elevation = Math.toRadians(constraints.getMinElevationDeg());
+        // 仰角约束：λ = acos(R cos ε / r) - ε
+        double lambda = Math.acos(earthRadius * Math.cos(elevation) / r) - elevation;
+        double halfAngle = constraints.getCoverageHalfAngleDeg();
+        if (halfAngle < 90.0) {
+            // 覆盖半角约束：λ = asin(r sin η / R) - η，视线超出地球边缘时不起作用
+            double eta = Math.toRadians(halfAngle);
+            double s = r * Math.sin(eta) / earthRadius;
+            if (s < 1.0) {
+                lambda = Math.min(lambda, Math.asin(s) - eta);
+            }
+        }
+        return Math.max(0.0, lambda);
+    }
+
+    private List<Band> createBands(CoverageResult result) {
+        int bandCount = Math.min(grid.getRowCount(), Runtime.getRuntime().availableProcessors() * 4);
+        List<Band> bands = new ArrayList<>(bandCount);
+        for (int b = 0; b < bandCount; b++) {
+            int firstRow = (int) ((long) grid.getRowCount() * b / bandCount);
+            int lastRow = (int) ((long) grid.getRowCount() * (b + 1) / bandCount) - 1;
+            bands.add(new Band(firstRow, lastRow, result));
+        }
+        return bands;
+    }
+
+    /**
+     * 网格条带：连续的若干纬度环，持有本条带格网的位集合并负责更新其统计量。
+     */
+    private class Band {
+        private final int firstRow;
+        private final int lastRow;
+        private final int firstCell;
+        private final double southLat;
+        private final double northLat;
+        private long[] current;
+        private long[] previous;
+        private final long[] histogram;
+        private final CoverageResult result;
+        // 各格网当前覆盖的开始时刻，以及上一次覆盖的结束时刻（从未覆盖时为仿真开始时刻 0，且访问次数为 0）
+        private final double[] coverStart;
+        private final double[] lastCoverEnd;
+        // 各格网空档平方和的一半，用于计算平均响应时间
+        private final double[] halfSquaredGaps;
+
+        Band(int firstRow, int lastRow, CoverageResult result) {
+            this.firstRow = firstRow;
+            this.lastRow = lastRow;
+            this.firstCell = grid.rowStart(firstRow);
+            int cells = grid.rowStart(lastRow) + grid.rowCells(lastRow) - firstCell;
+            this.southLat = grid.rowLatitude(firstRow);
+            this.northLat = grid.rowLatitude(lastRow);
+            this.current = new long[(cells + 63) >>> 6];
+            this.previous = new long[(cells + 63) >>> 6];
+            this.histogram = new long[result.getRevisitHistogram().length];
+            this.result = result;
+            this.coverStart = new double[cells];
+            this.lastCoverEnd = new double[cells];
+            this.halfSquaredGaps = new double[cells];
+        }
+
+        void step(double t, int base, int n, double[] lat, double[] sinLat, double[] cosLat,
+                  double[] lon, double[] cap) {
+            Arrays.fill(current, 0L);
+            double rowHeight = grid.getRowHeight();
+            for (int s = 0; s < n; s++) {
+                int k = base + s;
+                double lambda = cap[k];
+                if (lambda <= 0.0 || lat[k] + lambda < southLat || lat[k] - lambda > northLat) {
+                    continue;
+                }
+                // 与球冠相交的纬度环范围
+                int rowMin = Math.max(firstRow,
+                        (int) Math.ceil((lat[k] - lambda + Math.PI / 2) / rowHeight - 0.5));
+                int rowMax = Math.min(lastRow,
+                        (int) Math.floor((lat[k] + lambda + Math.PI / 2) / rowHeight - 0.5));
+                double cosLambda = Math.cos(lambda);
+                for (int row = rowMin; row <= rowMax; row++) {
+                    rasterizeRow(row, cosLambda, sinLat[k], cosLat[k], lon[k]);
+                }
+            }
+            // 只处理覆盖状态翻转的格网
+            for (int w = 0; w < current.length; w++) {
+                long changed = current[w] ^ previous[w];
+                while (changed != 0) {
+                    int bit = Long.numberOfTrailingZeros(changed);
+                    changed &= changed - 1;
+                    int local = (w << 6) + bit;
+                    if ((current[w] & (1L << bit)) != 0) {
+                        rise(local, t);
+                    } else {
+                        fall(local, t);
+                    }
+                }
+            }
+            long[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+
+        /**
+         * 将球冠与一个纬度环的交集（中心落在球冠内的格网）写入位集合。
+         */
+        private void rasterizeRow(int row, double cosLambda, double sinLatSat, double cosLatSat, double lonSat) {
+            int cells = grid.rowCells(row);
+            int rowFirst = grid.rowStart(row) - firstCell;
+            double phi = grid.rowLatitude(row);
+            double cosPhi = Math.cos(phi);
+            double denominator = cosPhi * cosLatSat;
+            // 球面余弦公式：cos λ = sinφ sinφs + cosφ cosφs cosΔ，求该纬度上覆盖区的经度半宽 Δ
+            double c = (denominator > 0.0) ? (cosLambda - Math.sin(phi) * sinLatSat) / denominator : -2.0;
+            if (c > 1.0) {
+                return;
+            }
+            if (c <= -1.0) {
+                setRange(rowFirst, rowFirst + cells);
+                return;
+            }
+            double halfWidth = Math.acos(c);
+            double width = 2 * Math.PI / cells;
+            int kMin = (int) Math.ceil((lonSat - halfWidth + Math.PI) / width - 0.5);
+            int kMax = (int) Math.floor((lonSat + halfWidth + Math.PI) / width - 0.5);
+            if (kMax < kMin) {
+                return;
+            }
+            if (kMax - kMin + 1 >= cells) {
+                setRange(rowFirst, rowFirst + cells);
+                return;
+            }
+            // 跨越 ±180° 经线时拆成两段
+            int from = Math.floorMod(kMin, cells);
+            int to = from + (kMax - kMin + 1);
+            if (to <= cells) {
+                setRange(rowFirst + from, rowFirst + to);
+            } else {
+                setRange(rowFirst + from, rowFirst + cells);
+                setRange(rowFirst, rowFirst + to - cells);
+            }
+        }
+
+        /**
+         * 置位 [from, to) 区间内的全部位，整字一次写入。
+         */
+        private void setRange(int from, int to) {
+            if (from >= to) {
+                return;
+            }
+            int firstWord = from >>> 6;
+            int lastWord = (to - 1) >>> 6;
+            long firstMask = -1L << (from & 63);
+            long lastMask = -1L >>> (63 - ((to - 1) & 63));
+            if (firstWord == lastWord) {
+                current[firstWord] |= firstMask & lastMask;
+                return;
+            }
+            current[firstWord] |= firstMask;
+            for (int w = firstWord + 1; w < lastWord; w++) {
+                current[w] = -1L;
+            }
+            current[lastWord] |= lastMask;
+        }
+
+        // 格网进入覆盖：结束一个空档
+        private void rise(int local, double t) {
+            int cell = firstCell + local;
+            double gap = t - lastCoverEnd[local];
+            halfSquaredGaps[local] += 0.5 * gap * gap;
+            if (result.getAccessCount()[cell] > 0) {
+                double[] maxGap = result.getMaxRevisitGap();
+                if (!(gap <= maxGap[cell])) {
+                    maxGap[cell] = gap;
+                }
+                histogram[Math.min(histogram.length - 1, (int) (gap / histogramBinSeconds))]++;
+            }
+            result.getAccessCount()[cell]++;
+            coverStart[local] = t;
+        }
+
+        // 格网离开覆盖：结束一次覆盖
+        private void fall(int local, double t) {
+            result.getCoveredSeconds()[firstCell + local] += t - coverStart[local];
+            lastCoverEnd[local] = t;
+        }
+
+        void finish(double duration) {
+            for (int local = 0; local < coverStart.length; local++) {
+                int cell = firstCell + local;
+                if ((previous[local >>> 6] & (1L << local)) != 0) {
+                    result.getCoveredSeconds()[cell] += duration - coverStart[local];
+                } else {
+                    double gap = duration - lastCoverEnd[local];
+                    halfSquaredGaps[local] += 0.5 * gap * gap;
+                }
+                result.getMeanResponseTime()[cell] = duration > 0 ? halfSquaredGaps[local] / duration : 0.0;
+            }
+        }
+    }
+}
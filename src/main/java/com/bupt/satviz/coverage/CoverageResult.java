@@ -0,0 +1,119 @@
+package com.bupt.satviz.coverage;
+
+import lombok.Getter;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * 覆盖统计结果
+ * 每个格网的累计覆盖时长、访问次数、最大重访间隔与平均响应时间，以及全部重访间隔的直方图。
+ * 重访间隔指同一格网相邻两次覆盖之间的空档，不含仿真开始前和结束后的空档；
+ * 平均响应时间指在仿真时段内任意时刻提出观测需求、到该格网下一次被覆盖的平均等待时间，
+ * 即各空档长度平方之和的一半除以仿真时长（首尾空档计入，结束后的等待按仿真结束时刻截断）。
+ */
+@Getter
+public class CoverageResult {
+
+    private final EqualAreaGrid grid;
+    private final double durationSeconds;
+    // 各格网的累计覆盖时长（秒）与访问次数
+    private final double[] coveredSeconds;
+    private final int[] accessCount;
+    // 各格网的最大重访间隔（秒），访问次数少于 2 时为 NaN
+    private final double[] maxRevisitGap;
+    // 各格网的平均响应时间（秒）
+    private final double[] meanResponseTime;
+    // 重访间隔直方图：第 k 个区间为 [k * binSeconds, (k + 1) * binSeconds)
+    private final long[] revisitHistogram;
+    private final double histogramBinSeconds;
+
+    CoverageResult(EqualAreaGrid grid, double durationSeconds, double[] coveredSeconds, int[] accessCount,
+                   double[] maxRevisitGap, double[] meanResponseTime,
+                   long[] revisitHistogram, double histogramBinSeconds) {
+        this.grid = grid;
+        this.durationSeconds = durationSeconds;
+        this.coveredSeconds = coveredSeconds;
+        this.accessCount = accessCount;
+        this.maxRevisitGap = maxRevisitGap;
+        this.meanResponseTime = meanResponseTime;
+        this.revisitHistogram = revisitHistogram;
+        this.histogramBinSeconds = histogramBinSeconds;
+    }
+
+    /**
+     * 格网的时间覆盖率（0 ~ 1）。
+     */
+    public double coverageFraction(int cell) {
+        return durationSeconds > 0 ? coveredSeconds[cell] / durationSeconds : 0.0;
+    }
+
+    /**
+     * 全球按面积加权的平均时间覆盖率（0 ~ 1）。
+     */
+    public double globalCoverageFraction() {
+        double sum = 0.0;
+        for (int c = 0; c < grid.getCellCount(); c++) {
+            sum += grid.cellArea(c) * coverageFraction(c);
+        }
+        return sum / (4 * Math.PI);
+    }
+
+    /**
+     * 仿真时段内至少被覆盖一次的面积比例（0 ~ 1）。
+     */
+    public double accessedAreaFraction() {
+        double sum = 0.0;
+        for (int c = 0; c < grid.getCellCount(); c++) {
+            if (accessCount[c] > 0) {
+                sum += grid.cellArea(c);
+            }
+        }
+        return sum / (4 * Math.PI);
+    }
+
+    /**
+     * 全部格网中的最大重访间隔（秒），没有任何格网被访问两次以上时为 NaN。
+     */
+    public double worstRevisitGap() {
+        double worst = Double.NaN;
+        for (double gap : maxRevisitGap) {
+            if (!Double.isNaN(gap) && !(gap <= worst)) {
+                worst = gap;
+            }
+        }
+        return worst;
+    }
+
+    /**
+     * 全球按面积加权的平均响应时间（秒）。
+     */
+    public double globalMeanResponseTime() {
+        double sum = 0.0;
+        for (int c = 0; c < grid.getCellCount(); c++) {
+            sum += grid.cellArea(c) * meanResponseTime[c];
+        }
+        return sum / (4 * Math.PI);
+    }
+
+    /**
+     * 将覆盖图写入 CSV 文件，每个格网一行：纬度、经度、覆盖率、访问次数、最大重访间隔、平均响应时间。
+     */
+    public void writeCsv(Path file) throws IOException {
+        if (file.toAbsolutePath().getParent() != null) {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+        }
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+            out.println("lat,lon,coverage,accesses,maxRevisitGap,meanResponseTime");
+            for (int c = 0; c < grid.getCellCount(); c++) {
+                out.println(String.format("%.4f,%.4f,%.6f,%d,%s,%.1f",
+                        grid.latitudeDeg(c), grid.longitudeDeg(c), coverageFraction(c), accessCount[c],
+                        Double.isNaN(maxRevisitGap[c]) ? "" : String.format("%.1f", maxRevisitGap[c]),
+                        meanResponseTime[c]));
+            }
+        }
+    }
+}
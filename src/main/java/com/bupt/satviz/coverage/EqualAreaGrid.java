@@ -0,0 +1,110 @@
+package com.bupt.satviz.coverage;
+
+import lombok.Getter;
+
+/**
+ * 全球等面积网格
+ * 按等纬度高度划分为若干纬度环，每个环内的格网数与该纬度的周长成正比，使各格网面积近似相等；
+ * 每个格网的精确面积（球面度）单独记录，用于面积加权统计。
+ * 格网按纬度环自南向北、环内自西经 180° 向东连续编号，同一纬度环的格网编号连续，
+ * 便于把覆盖区按环转换为位集合中的连续区间。
+ */
+public class EqualAreaGrid {
+
+    @Getter
+    private final int cellCount;
+    @Getter
+    private final int rowCount;
+    // 纬度环高度（弧度）
+    @Getter
+    private final double rowHeight;
+    // 各纬度环第一个格网的编号（长度 rowCount + 1，最后一项为格网总数）
+    private final int[] rowStart;
+    // 各纬度环中单个格网的面积（球面度）
+    private final double[] rowCellArea;
+
+    /**
+     * @param targetCells 期望的格网数（实际格网数与之相差不超过百分之几）
+     */
+    public EqualAreaGrid(int targetCells) {
+        if (targetCells < 2) {
+            throw new IllegalArgumentException("格网数至少为 2：" + targetCells);
+        }
+        // 令格网近似为正方形：纬度环高度 ≈ sqrt(4π / N)，环数 = π / 高度
+        this.rowCount = Math.max(1, (int) Math.round(Math.sqrt(Math.PI * targetCells / 4.0)));
+        this.rowHeight = Math.PI / rowCount;
+        this.rowStart = new int[rowCount + 1];
+        this.rowCellArea = new double[rowCount];
+        int cells = 0;
+        for (int i = 0; i < rowCount; i++) {
+            double south = -Math.PI / 2 + i * rowHeight;
+            double north = south + rowHeight;
+            double center = south + rowHeight / 2;
+            int n = Math.max(1, (int) Math.round(2 * Math.PI * Math.cos(center) / rowHeight));
+            rowStart[i] = cells;
+            rowCellArea[i] = (Math.sin(north) - Math.sin(south)) * 2 * Math.PI / n;
+            cells += n;
+        }
+        rowStart[rowCount] = cells;
+        this.cellCount = cells;
+    }
+
+    /**
+     * 纬度环中心纬度（弧度）。
+     */
+    public double rowLatitude(int row) {
+        return -Math.PI / 2 + (row + 0.5) * rowHeight;
+    }
+
+    public int rowStart(int row) {
+        return rowStart[row];
+    }
+
+    public int rowCells(int row) {
+        return rowStart[row + 1] - rowStart[row];
+    }
+
+    /**
+     * 格网所在的纬度环编号。
+     */
+    public int rowOf(int cell) {
+        int lo = 0;
+        int hi = rowCount - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (rowStart[mid] <= cell) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * 格网中心纬度（度）。
+     */
+    public double latitudeDeg(int cell) {
+        return Math.toDegrees(rowLatitude(rowOf(cell)));
+    }
+
+    /**
+     * 格网中心经度（度，-180° ~ 180°）。
+     */
+    public double longitudeDeg(int cell) {
+        int row = rowOf(cell);
+        double width = 360.0 / rowCells(row);
+        return -180.0 + (cell - rowStart[row] + 0.5) * width;
+    }
+
+    /**
+     * 格网面积（球面度），全部格网面积之和为 4π。
+     */
+    public double cellArea(int cell) {
+        return rowCellArea[rowOf(cell)];
+    }
+
+    double rowCellArea(int row) {
+        return rowCellArea[row];
+    }
+}
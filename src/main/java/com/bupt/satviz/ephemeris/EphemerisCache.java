@@ -0,0 +1,186 @@
+package com.bupt.satviz.ephemeris;
+
+import com.bupt.satviz.calculation.PositionVelocityProvider;
+import com.bupt.satviz.calculation.PropagationModel;
+import com.bupt.satviz.config.PropagationModelType;
+import com.bupt.satviz.config.SimulationConfig;
+import com.bupt.satviz.model.KeplerianElements;
+import org.orekit.time.AbsoluteDate;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 跨场景共享的内存星历缓存
+ * 同一进程内依次或并发运行多个场景时，轨道参数、传播模型、起始时间与采样步长都相同的卫星只传播（积分）一次，
+ * 之后的场景直接复用其星历视图。采样时刻与单独运行该场景时相同，解析模型的采样值完全一致，
+ * 数值积分模型的差异在传播器位置容差以内。
+ * 已缓存的星历不覆盖新场景的结束时间时，按新场景重新采样并替换。
+ * 配置了星历文件的场景（文件已由操作系统页缓存共享）与开普勒模型的场景（不生成星历）按 EphemerisTable.forScenario 处理。
+ * 可在线程间共享；多个场景同时需要同一颗卫星时，只有一个场景采样，其余场景等待其完成。
+ * 批量运行前用 reserve 登记各场景需要的星历，每个场景结束后调用 release；
+ * 星历在最后一个需要它的场景结束后移除，缓存占用的内存不超过尚未结束的场景所需的星历。
+ */
+public class EphemerisCache {
+
+    private final Map<Key, Entry> entries = new HashMap<>();
+    // 各星历尚未结束的场景数（由 reserve 登记、release 递减），与 entries 使用同一把锁
+    private final Map<Key, Integer> demand = new HashMap<>();
+    private final AtomicInteger reused = new AtomicInteger();
+    private final AtomicInteger sampled = new AtomicInteger();
+
+    /**
+     * 卫星星历的标识：单颗卫星的轨道与传播模型指纹、起始时间（相对 J2000 的秒数）与采样步长。
+     */
+    private record Key(long fingerprint, double startOffset, double stepSeconds) {
+    }
+
+    /**
+     * 缓存项：星历覆盖到的结束时间，以及（可能仍在采样中的）星历视图。
+     */
+    private record Entry(AbsoluteDate endDate, CompletableFuture<PositionVelocityProvider> satellite) {
+    }
+
+    /**
+     * 与 EphemerisTable.forScenario 相同，但对高精度传播模型的内存星历按卫星复用已采样的结果。
+     *
+     * @param config 仿真场景配置
+     * @return 按卫星编号排列的星历数据源，或 null
+     */
+    public List<PositionVelocityProvider> forScenario(SimulationConfig config) throws IOException {
+        PropagationModel model = config.getPropagationModel();
+        if (config.getEphemerisFile() != null || model.getType() == PropagationModelType.KEPLERIAN) {
+            return EphemerisTable.forScenario(config);
+        }
+        List<KeplerianElements> orbits = config.getSatelliteOrbits();
+        AbsoluteDate start = config.getStartDate();
+        AbsoluteDate end = config.getEndDate();
+        double stepSeconds = config.getEphemerisStepSeconds();
+        List<Key> keys = keysOf(config);
+
+        // 1. 查找可复用的卫星，其余卫星登记为由本场景采样
+        List<CompletableFuture<PositionVelocityProvider>> satellites = new ArrayList<>(orbits.size());
+        List<KeplerianElements> missing = new ArrayList<>();
+        List<Key> missingKeys = new ArrayList<>();
+        List<CompletableFuture<PositionVelocityProvider>> pending = new ArrayList<>();
+        synchronized (entries) {
+            for (int s = 0; s < orbits.size(); s++) {
+                KeplerianElements orbit = orbits.get(s);
+                Key key = keys.get(s);
+                Entry entry = entries.get(key);
+                if (entry != null && !entry.endDate().isBefore(end)) {
+                    reused.incrementAndGet();
+                } else {
+                    entry = new Entry(end, new CompletableFuture<>());
+                    entries.put(key, entry);
+                    missing.add(orbit);
+                    missingKeys.add(key);
+                    pending.add(entry.satellite());
+                }
+                satellites.add(entry.satellite());
+            }
+        }
+
+        // 2. 一次性采样本场景负责的卫星
+        if (!missing.isEmpty()) {
+            try {
+                EphemerisTable table = EphemerisWriter.sample(missing, model, start, end, stepSeconds);
+                for (int k = 0; k < missing.size(); k++) {
+                    pending.get(k).complete(table.satellite(k));
+                }
+                sampled.addAndGet(missing.size());
+            } catch (Throwable e) {
+                // 采样失败（包括直接内存不足等 Error）的卫星从缓存中移除，等待它们的场景随之失败，之后的场景重新采样
+                synchronized (entries) {
+                    for (int k = 0; k < missingKeys.size(); k++) {
+                        Entry entry = entries.get(missingKeys.get(k));
+                        if (entry != null && entry.satellite() == pending.get(k)) {
+                            entries.remove(missingKeys.get(k));
+                        }
+                    }
+                }
+                pending.forEach(future -> future.completeExceptionally(e));
+                throw e;
+            }
+        }
+
+        // 3. 等待其他场景正在采样的卫星
+        List<PositionVelocityProvider> providers = new ArrayList<>(orbits.size());
+        for (CompletableFuture<PositionVelocityProvider> satellite : satellites) {
+            try {
+                providers.add(satellite.join());
+            } catch (CompletionException e) {
+                throw new IOException("共享星历生成失败：" + e.getCause().getMessage(), e.getCause());
+            }
+        }
+        return providers;
+    }
+
+    /**
+     * 登记一个将要运行的场景需要的星历，这些星历在该场景调用 release 之前不会被移除。
+     */
+    public void reserve(SimulationConfig config) {
+        List<Key> keys = keysOf(config);
+        synchronized (entries) {
+            for (Key key : keys) {
+                demand.merge(key, 1, Integer::sum);
+            }
+        }
+    }
+
+    /**
+     * 场景运行结束（无论成功与否）。不再被其他已登记且未结束的场景需要的星历从缓存中移除，
+     * 正在使用它们的场景结束后即可回收内存。
+     */
+    public void release(SimulationConfig config) {
+        List<Key> keys = keysOf(config);
+        synchronized (entries) {
+            for (Key key : keys) {
+                int left = demand.getOrDefault(key, 0) - 1;
+                if (left > 0) {
+                    demand.put(key, left);
+                } else {
+                    demand.remove(key);
+                    entries.remove(key);
+                }
+            }
+        }
+    }
+
+    /**
+     * 场景中各卫星的缓存标识（按卫星编号）；配置了星历文件或使用开普勒模型的场景不经过缓存，返回空列表。
+     */
+    private static List<Key> keysOf(SimulationConfig config) {
+        PropagationModel model = config.getPropagationModel();
+        if (config.getEphemerisFile() != null || model.getType() == PropagationModelType.KEPLERIAN) {
+            return List.of();
+        }
+        double startOffset = config.getStartDate().durationFrom(AbsoluteDate.J2000_EPOCH);
+        List<Key> keys = new ArrayList<>();
+        for (KeplerianElements orbit : config.getSatelliteOrbits()) {
+            keys.add(new Key(model.fingerprint(EphemerisWriter.fingerprint(List.of(orbit))), startOffset,
+                    config.getEphemerisStepSeconds()));
+        }
+        return keys;
+    }
+
+    /**
+     * 累计复用已缓存星历的卫星数（按场景计）。
+     */
+    public int getReusedCount() {
+        return reused.get();
+    }
+
+    /**
+     * 累计新采样的卫星数。
+     */
+    public int getSampledCount() {
+        return sampled.get();
+    }
+}
@@ -0,0 +1,94 @@
+package com.bupt.satviz.ephemeris;
+
+import org.orekit.time.AbsoluteDate;
+import org.orekit.time.DateComponents;
+import org.orekit.time.DateTimeComponents;
+import org.orekit.time.TimeComponents;
+import org.orekit.time.TimeScale;
+import org.orekit.time.TimeScalesFactory;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * 星历文件格式定义（小端序，定长记录）
+ * 文件头 64 字节：
+ *   0  魔数 "SATEPHM1"（8 字节）
+ *   8  格式版本 int
+ *   12 卫星数 int
+ *   16 每颗卫星的采样点数 int
+ *   20 起始时刻的年、月、日 int × 3（TAI 时标）
+ *   32 起始时刻在当日的秒数 double（TAI 时标）
+ *   40 采样步长 double（秒）
+ *   48 输入指纹 long（生成星历所用轨道参数的哈希，用于判断已有文件能否复用；未知时为 0）
+ *   56 保留 8 字节
+ * 数据区按卫星依次存放，每颗卫星连续存放全部采样点，
+ * 每个采样点为 EME2000 惯性系下的 x, y, z (m), vx, vy, vz (m/s) 共 6 个 double。
+ */
+final class EphemerisFormat {
+
+    static final byte[] MAGIC = "SATEPHM1".getBytes(StandardCharsets.US_ASCII);
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 64;
+    static final int RECORD_DOUBLES = 6;
+    static final int RECORD_BYTES = RECORD_DOUBLES * Double.BYTES;
+    static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    private EphemerisFormat() {
+    }
+
+    /**
+     * 文件头信息
+     */
+    record Header(int satelliteCount, int sampleCount, AbsoluteDate startDate, double stepSeconds,
+                  long fingerprint) {
+
+        long bytesPerSatellite() {
+            return (long) sampleCount * RECORD_BYTES;
+        }
+
+        long totalBytes() {
+            return HEADER_BYTES + satelliteCount * bytesPerSatellite();
+        }
+    }
+
+    static ByteBuffer encodeHeader(Header header) {
+        TimeScale tai = TimeScalesFactory.getTAI();
+        DateTimeComponents components = header.startDate().getComponents(tai);
+        DateComponents date = components.getDate();
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES).order(ORDER);
+        buffer.put(MAGIC);
+        buffer.putInt(VERSION);
+        buffer.putInt(header.satelliteCount());
+        buffer.putInt(header.sampleCount());
+        buffer.putInt(date.getYear());
+        buffer.putInt(date.getMonth());
+        buffer.putInt(date.getDay());
+        buffer.putDouble(components.getTime().getSecondsInLocalDay());
+        buffer.putDouble(header.stepSeconds());
+        buffer.putLong(header.fingerprint());
+        buffer.position(0);
+        return buffer;
+    }
+
+    static Header decodeHeader(ByteBuffer buffer) {
+        buffer = buffer.duplicate().order(ORDER);
+        byte[] magic = new byte[MAGIC.length];
+        buffer.get(0, magic);
+        if (!Arrays.equals(magic, MAGIC)) {
+            throw new IllegalArgumentException("不是有效的星历文件（魔数不匹配）");
+        }
+        int version = buffer.getInt(8);
+        if (version != VERSION) {
+            throw new IllegalArgumentException("不支持的星历文件版本：" + version);
+        }
+        int satelliteCount = buffer.getInt(12);
+        int sampleCount = buffer.getInt(16);
+        DateComponents date = new DateComponents(buffer.getInt(20), buffer.getInt(24), buffer.getInt(28));
+        TimeComponents time = new TimeComponents(buffer.getDouble(32));
+        AbsoluteDate startDate = new AbsoluteDate(date, time, TimeScalesFactory.getTAI());
+        return new Header(satelliteCount, sampleCount, startDate, buffer.getDouble(40), buffer.getLong(48));
+    }
+}
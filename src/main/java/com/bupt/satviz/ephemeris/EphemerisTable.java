@@ -0,0 +1,239 @@
+package com.bupt.satviz.ephemeris;
+
+import com.bupt.satviz.calculation.PositionVelocityProvider;
+import com.bupt.satviz.calculation.PropagationModel;
+import com.bupt.satviz.config.PropagationModelType;
+import com.bupt.satviz.config.SimulationConfig;
+import com.bupt.satviz.model.KeplerianElements;
+import lombok.Getter;
+import org.orekit.time.AbsoluteDate;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 星历表
+ * 以只读方式内存映射星历文件（或包装内存中的星历数据），按需读取采样点并做三次 Hermite 插值。
+ * 读取直接访问映射内存，不复制数据；同一文件可被任意多个线程、任意多个进程同时映射，
+ * 操作系统页缓存中只保留一份数据。各卫星视图无内部状态，可在线程间共享。
+ */
+public class EphemerisTable {
+
+    @Getter
+    private final int satelliteCount;
+    @Getter
+    private final int sampleCount;
+    @Getter
+    private final AbsoluteDate startDate;
+    @Getter
+    private final double stepSeconds;
+    @Getter
+    private final long fingerprint;
+    private final long bytesPerSatellite;
+    // 数据分段：单个 ByteBuffer 不能超过 2 GB，按整颗卫星切分映射区域
+    private final List<ByteBuffer> segments;
+    private final int satellitesPerSegment;
+
+    EphemerisTable(EphemerisFormat.Header header, List<ByteBuffer> segments, int satellitesPerSegment) {
+        this.satelliteCount = header.satelliteCount();
+        this.sampleCount = header.sampleCount();
+        this.startDate = header.startDate();
+        this.stepSeconds = header.stepSeconds();
+        this.fingerprint = header.fingerprint();
+        this.bytesPerSatellite = header.bytesPerSatellite();
+        this.segments = segments;
+        this.satellitesPerSegment = satellitesPerSegment;
+    }
+
+    /**
+     * 以只读方式映射星历文件。
+     *
+     * @param file 星历文件路径
+     * @return 星历表
+     */
+    public static EphemerisTable map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer headerBuffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, EphemerisFormat.HEADER_BYTES);
+            EphemerisFormat.Header header = EphemerisFormat.decodeHeader(headerBuffer);
+            if (channel.size() < header.totalBytes()) {
+                throw new IOException("星历文件不完整：" + file + "，期望 " + header.totalBytes()
+                        + " 字节，实际 " + channel.size() + " 字节");
+            }
+            long bytesPerSatellite = header.bytesPerSatellite();
+            int perSegment = (int) Math.max(1, Integer.MAX_VALUE / bytesPerSatellite);
+            List<ByteBuffer> segments = new ArrayList<>();
+            for (int first = 0; first < header.satelliteCount(); first += perSegment) {
+                int count = Math.min(perSegment, header.satelliteCount() - first);
+                long offset = EphemerisFormat.HEADER_BYTES + first * bytesPerSatellite;
+                segments.add(channel.map(FileChannel.MapMode.READ_ONLY, offset, count * bytesPerSatellite)
+                        .order(EphemerisFormat.ORDER));
+            }
+            // 映射建立后即可关闭通道，映射区域在缓冲区被回收前一直有效
+            return new EphemerisTable(header, segments, perSegment);
+        }
+    }
+
+    /**
+     * 打开已有的星历文件；若文件不存在，或与给定轨道参数、时间段、步长不匹配，则重新生成后再映射。
+     * 多个进程同时运行时，先完成生成的进程会原子替换文件，其余进程随后映射到同一份数据。
+     *
+     * @param file        星历文件路径
+     * @param orbits      卫星轨道元素列表
+     * @param start       需要覆盖的起始时间
+     * @param end         需要覆盖的结束时间
+     * @param stepSeconds 采样步长（秒）
+     */
+    public static EphemerisTable openOrCreate(Path file, List<KeplerianElements> orbits,
+                                              AbsoluteDate start, AbsoluteDate end,
+                                              double stepSeconds) throws IOException {
+        return openOrCreate(file, orbits, PropagationModel.keplerian(), start, end, stepSeconds);
+    }
+
+    /**
+     * 与上面相同，但按指定传播模型生成星历；模型或其参数变化时已有文件不再复用。
+     *
+     * @param model 轨道传播模型
+     */
+    public static EphemerisTable openOrCreate(Path file, List<KeplerianElements> orbits, PropagationModel model,
+                                              AbsoluteDate start, AbsoluteDate end,
+                                              double stepSeconds) throws IOException {
+        if (Files.exists(file)) {
+            try {
+                EphemerisTable table = map(file);
+                if (table.getSatelliteCount() == orbits.size()
+                        && table.getStepSeconds() == stepSeconds
+                        && table.getFingerprint() == model.fingerprint(EphemerisWriter.fingerprint(orbits))
+                        && table.covers(start, end.shiftedBy(EphemerisWriter.END_MARGIN))) {
+                    return table;
+                }
+            } catch (IOException | IllegalArgumentException e) {
+                System.err.println("星历文件 " + file + " 无法复用，将重新生成：" + e.getMessage());
+            }
+        }
+        EphemerisWriter.write(file, orbits, model, start, end, stepSeconds);
+        return map(file);
+    }
+
+    /**
+     * 按场景配置准备所有卫星共享的星历：配置了星历文件时复用（或生成）并内存映射该文件；
+     * 未配置文件但使用高精度传播模型时，每颗卫星传播一次生成内存星历；
+     * 两者都没有时返回 null，各模块直接使用闭式开普勒传播。
+     *
+     * @param config 仿真场景配置
+     * @return 按卫星编号排列的星历数据源，或 null
+     */
+    public static List<PositionVelocityProvider> forScenario(SimulationConfig config) throws IOException {
+        PropagationModel model = config.getPropagationModel();
+        if (config.getEphemerisFile() != null) {
+            return openOrCreate(Paths.get(config.getEphemerisFile()), config.getSatelliteOrbits(), model,
+                    config.getStartDate(), config.getEndDate(), config.getEphemerisStepSeconds()).satellites();
+        }
+        if (model.getType() != PropagationModelType.KEPLERIAN) {
+            return EphemerisWriter.sample(config.getSatelliteOrbits(), model,
+                    config.getStartDate(), config.getEndDate(), config.getEphemerisStepSeconds()).satellites();
+        }
+        return null;
+    }
+
+    public AbsoluteDate getEndDate() {
+        return startDate.shiftedBy((sampleCount - 1) * stepSeconds);
+    }
+
+    /**
+     * 判断星历是否覆盖指定时间段。
+     */
+    public boolean covers(AbsoluteDate start, AbsoluteDate end) {
+        return start.compareTo(startDate) >= 0 && end.compareTo(getEndDate()) <= 0;
+    }
+
+    /**
+     * 获取指定卫星的位置速度数据源视图。
+     *
+     * @param satIndex 卫星编号（与生成星历时的卫星列表顺序一致）
+     */
+    public PositionVelocityProvider satellite(int satIndex) {
+        if (satIndex < 0 || satIndex >= satelliteCount) {
+            throw new IndexOutOfBoundsException("卫星编号越界：" + satIndex + "，星历共 " + satelliteCount + " 颗卫星");
+        }
+        ByteBuffer segment = segments.get(satIndex / satellitesPerSegment);
+        int base = (int) ((satIndex % satellitesPerSegment) * bytesPerSatellite);
+        return new SatelliteView(segment, base);
+    }
+
+    /**
+     * 获取全部卫星的视图列表，顺序与卫星编号一致。
+     */
+    public List<PositionVelocityProvider> satellites() {
+        List<PositionVelocityProvider> views = new ArrayList<>(satelliteCount);
+        for (int s = 0; s < satelliteCount; s++) {
+            views.add(satellite(s));
+        }
+        return views;
+    }
+
+    /**
+     * 单颗卫星的星历视图：在相邻两个采样点之间用位置和速度做三次 Hermite 插值。
+     */
+    private class SatelliteView implements PositionVelocityProvider {
+        private final ByteBuffer data;
+        private final int base;
+
+        SatelliteView(ByteBuffer data, int base) {
+            this.data = data;
+            this.base = base;
+        }
+
+        @Override
+        public void getPosition(AbsoluteDate date, double[] position) {
+            interpolate(date, position, false);
+        }
+
+        @Override
+        public void getPositionVelocity(AbsoluteDate date, double[] pv) {
+            interpolate(date, pv, true);
+        }
+
+        private void interpolate(AbsoluteDate date, double[] out, boolean withVelocity) {
+            double t = date.durationFrom(startDate) / stepSeconds;
+            // 允许在首尾采样点处因舍入产生的微小越界
+            if (t < -1e-9 || t > sampleCount - 1 + 1e-9) {
+                throw new IllegalArgumentException("时间 " + date + " 超出星历范围 ["
+                        + startDate + ", " + getEndDate() + "]");
+            }
+            int k = Math.max(0, Math.min((int) Math.floor(t), sampleCount - 2));
+            double tau = t - k;
+            double tau2 = tau * tau;
+            double tau3 = tau2 * tau;
+            // Hermite 基函数
+            double h00 = 2 * tau3 - 3 * tau2 + 1;
+            double h10 = tau3 - 2 * tau2 + tau;
+            double h01 = -2 * tau3 + 3 * tau2;
+            double h11 = tau3 - tau2;
+            int i0 = base + k * EphemerisFormat.RECORD_BYTES;
+            int i1 = i0 + EphemerisFormat.RECORD_BYTES;
+            for (int c = 0; c < 3; c++) {
+                double p0 = data.getDouble(i0 + c * Double.BYTES);
+                double v0 = data.getDouble(i0 + (c + 3) * Double.BYTES);
+                double p1 = data.getDouble(i1 + c * Double.BYTES);
+                double v1 = data.getDouble(i1 + (c + 3) * Double.BYTES);
+                out[c] = h00 * p0 + h10 * stepSeconds * v0 + h01 * p1 + h11 * stepSeconds * v1;
+                if (withVelocity) {
+                    // 基函数对 tau 求导后除以步长
+                    double d00 = 6 * tau2 - 6 * tau;
+                    double d10 = 3 * tau2 - 4 * tau + 1;
+                    double d01 = -6 * tau2 + 6 * tau;
+                    double d11 = 3 * tau2 - 2 * tau;
+                    out[c + 3] = (d00 * p0 + d01 * p1) / stepSeconds + d10 * v0 + d11 * v1;
+                }
+            }
+        }
+    }
+}
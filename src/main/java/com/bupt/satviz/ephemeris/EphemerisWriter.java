@@ -0,0 +1,190 @@
+package com.bupt.satviz.ephemeris;
+
+import com.bupt.satviz.calculation.PositionVelocityProvider;
+import com.bupt.satviz.calculation.PropagationModel;
+import com.bupt.satviz.model.KeplerianElements;
+import org.orekit.time.AbsoluteDate;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+
+/**
+ * 星历生成模块
+ * 按固定步长对每颗卫星采样位置速度，写入星历文件（格式见 EphemerisFormat）。
+ * 卫星之间并行采样；高精度传播模型下每颗卫星只传播（积分）一次，之后所有检测器共享插值后的星历。
+ * 文件先写入同目录下的临时文件再原子替换，其他进程不会读到写了一半的文件。
+ */
+public class EphemerisWriter {
+
+    // 星历覆盖到结束时间之后的余量（秒），供结束时刻的数值差分使用
+    static final double END_MARGIN = 1.0;
+
+    /**
+     * 根据开普勒轨道元素生成星历文件。
+     *
+     * @param file        输出文件路径
+     * @param orbits      卫星轨道元素列表
+     * @param start       星历起始时间
+     * @param end         星历结束时间（最后一个采样点晚于该时间，以便在结束时刻做数值差分）
+     * @param stepSeconds 采样步长（秒）
+     */
+    public static void write(Path file, List<KeplerianElements> orbits,
+                             AbsoluteDate start, AbsoluteDate end, double stepSeconds) throws IOException {
+        write(file, orbits, PropagationModel.keplerian(), start, end, stepSeconds);
+    }
+
+    /**
+     * 按指定传播模型生成星历文件，每颗卫星只传播（积分）一次。
+     *
+     * @param model 轨道传播模型
+     */
+    public static void write(Path file, List<KeplerianElements> orbits, PropagationModel model,
+                             AbsoluteDate start, AbsoluteDate end, double stepSeconds) throws IOException {
+        EphemerisFormat.Header header = new EphemerisFormat.Header(orbits.size(),
+                sampleCount(start, end, stepSeconds), start, stepSeconds,
+                model.fingerprint(fingerprint(orbits)));
+        AbsoluteDate last = lastSample(header);
+        writeFile(file, header, s -> model.createProvider(orbits.get(s), start, last));
+    }
+
+    /**
+     * 对任意位置速度数据源采样并生成星历文件。
+     *
+     * @param fingerprint 数据源的输入指纹，写入文件头供复用判断，未知时传 0
+     */
+    public static void writeProviders(Path file, List<? extends PositionVelocityProvider> providers,
+                                      AbsoluteDate start, AbsoluteDate end, double stepSeconds,
+                                      long fingerprint) throws IOException {
+        EphemerisFormat.Header header = new EphemerisFormat.Header(
+                providers.size(), sampleCount(start, end, stepSeconds), start, stepSeconds, fingerprint);
+        writeFile(file, header, providers::get);
+    }
+
+    /**
+     * 对任意位置速度数据源采样，生成仅驻留内存的星历表（不落盘）。
+     */
+    public static EphemerisTable sample(List<? extends PositionVelocityProvider> providers,
+                                        AbsoluteDate start, AbsoluteDate end, double stepSeconds) {
+        EphemerisFormat.Header header = new EphemerisFormat.Header(
+                providers.size(), sampleCount(start, end, stepSeconds), start, stepSeconds, 0L);
+        return sampleInMemory(header, providers::get);
+    }
+
+    /**
+     * 按指定传播模型生成仅驻留内存的星历表（不落盘），每颗卫星只传播（积分）一次。
+     */
+    public static EphemerisTable sample(List<KeplerianElements> orbits, PropagationModel model,
+                                        AbsoluteDate start, AbsoluteDate end, double stepSeconds) {
+        EphemerisFormat.Header header = new EphemerisFormat.Header(orbits.size(),
+                sampleCount(start, end, stepSeconds), start, stepSeconds,
+                model.fingerprint(fingerprint(orbits)));
+        AbsoluteDate last = lastSample(header);
+        return sampleInMemory(header, s -> model.createProvider(orbits.get(s), start, last));
+    }
+
+    private static EphemerisTable sampleInMemory(EphemerisFormat.Header header,
+                                                 IntFunction<? extends PositionVelocityProvider> providers) {
+        long bytes = header.satelliteCount() * header.bytesPerSatellite();
+        if (bytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("内存星历超过 2 GB，请改用星历文件：" + bytes + " 字节");
+        }
+        ByteBuffer data = ByteBuffer.allocateDirect((int) bytes).order(EphemerisFormat.ORDER);
+        fill(header, providers, List.of(data), header.satelliteCount());
+        return new EphemerisTable(header, List.of(data), header.satelliteCount());
+    }
+
+    /**
+     * 生成星历文件：数据区映射到同目录下的临时文件并行写入，完成后原子替换目标文件。
+     */
+    private static void writeFile(Path file, EphemerisFormat.Header header,
+                                  IntFunction<? extends PositionVelocityProvider> providers) throws IOException {
+        Path dir = file.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        Path tmp = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(EphemerisFormat.encodeHeader(header), 0);
+            long bytesPerSatellite = header.bytesPerSatellite();
+            int perSegment = (int) Math.max(1, Integer.MAX_VALUE / bytesPerSatellite);
+            List<ByteBuffer> segments = new ArrayList<>();
+            List<MappedByteBuffer> mapped = new ArrayList<>();
+            for (int first = 0; first < header.satelliteCount(); first += perSegment) {
+                int count = Math.min(perSegment, header.satelliteCount() - first);
+                long offset = EphemerisFormat.HEADER_BYTES + first * bytesPerSatellite;
+                MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_WRITE, offset, count * bytesPerSatellite);
+                mapped.add(segment);
+                segments.add(segment.order(EphemerisFormat.ORDER));
+            }
+            fill(header, providers, segments, perSegment);
+            for (MappedByteBuffer segment : mapped) {
+                segment.force();
+            }
+            channel.force(true);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * 按卫星并行采样：每颗卫星的数据源只在一个线程中按时间顺序求值，写入各自互不重叠的数据区。
+     */
+    private static void fill(EphemerisFormat.Header header, IntFunction<? extends PositionVelocityProvider> providers,
+                             List<ByteBuffer> segments, int satellitesPerSegment) {
+        IntStream.range(0, header.satelliteCount()).parallel().forEach(s -> {
+            PositionVelocityProvider provider = providers.apply(s);
+            ByteBuffer segment = segments.get(s / satellitesPerSegment);
+            int position = (int) ((s % satellitesPerSegment) * header.bytesPerSatellite());
+            double[] pv = new double[EphemerisFormat.RECORD_DOUBLES];
+            for (int k = 0; k < header.sampleCount(); k++) {
+                provider.getPositionVelocity(header.startDate().shiftedBy(k * header.stepSeconds()), pv);
+                for (double value : pv) {
+                    segment.putDouble(position, value);
+                    position += Double.BYTES;
+                }
+            }
+        });
+    }
+
+    private static AbsoluteDate lastSample(EphemerisFormat.Header header) {
+        return header.startDate().shiftedBy((header.sampleCount() - 1) * header.stepSeconds());
+    }
+
+    /**
+     * 计算轨道参数列表的指纹（FNV-1a 哈希），轨道参数或顺序变化时指纹随之变化。
+     */
+    public static long fingerprint(List<KeplerianElements> orbits) {
+        long hash = 0xcbf29ce484222325L;
+        for (KeplerianElements orbit : orbits) {
+            double[] values = {
+                    orbit.getSemiMajorAxis(), orbit.getEccentricity(), orbit.getInclination(),
+                    orbit.getRaan(), orbit.getArgPerigee(), orbit.getTrueAnomaly(),
+                    orbit.getEpoch().durationFrom(AbsoluteDate.J2000_EPOCH)
+            };
+            for (double value : values) {
+                hash ^= Double.doubleToLongBits(value);
+                hash *= 0x100000001b3L;
+            }
+        }
+        return hash;
+    }
+
+    static int sampleCount(AbsoluteDate start, AbsoluteDate end, double stepSeconds) {
+        if (stepSeconds <= 0.0) {
+            throw new IllegalArgumentException("采样步长必须为正：" + stepSeconds);
+        }
+        // 采样覆盖到结束时间之后 END_MARGIN 秒，且 Hermite 插值至少需要两个采样点
+        return Math.max(2, (int) Math.ceil((end.durationFrom(start) + END_MARGIN) / stepSeconds) + 1);
+    }
+}
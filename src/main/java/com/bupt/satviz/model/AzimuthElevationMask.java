@@ -0,0 +1,97 @@
+package com.bupt.satviz.model;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * 地面站的方位角–仰角遮挡模板（地形、建筑物遮挡）
+ * 由若干（方位角, 最小仰角）点定义，方位角自正北顺时针计，点之间按方位角线性插值并首尾相接。
+ * 构造时编译成均匀间隔的查找表（0.1° 一格），查询时按方位角直接算出所在格并线性插值，无查找、无分支，
+ * 方位角落在格点上的模板点插值结果与原模板完全一致。编译后只读，可在线程间共享。
+ */
+public final class AzimuthElevationMask {
+
+    // 查找表的格数（360° / 0.1°）
+    private static final int SIZE = 3600;
+    private static final double SCALE = SIZE / (2 * Math.PI);
+
+    // 模板点（方位角、仰角，度），按方位角升序
+    private final double[][] points;
+    // 方位角 -π、-π + 2π/SIZE、……、π 处的最小仰角（弧度），末尾多补一格，方位角恰为 π 时无需判断边界
+    private final double[] table = new double[SIZE + 2];
+
+    /**
+     * @param points 模板点，每个点为 {方位角（度，[0, 360)）, 最小仰角（度，[-90, 90]）}，至少一个，方位角不得重复
+     */
+    public AzimuthElevationMask(double[][] points) {
+        if (points == null || points.length == 0) {
+            throw new IllegalArgumentException("遮挡模板至少需要一个点");
+        }
+        double[][] sorted = new double[points.length][];
+        for (int i = 0; i < points.length; i++) {
+            double azimuth = points[i][0];
+            double elevation = points[i][1];
+            if (azimuth < 0.0 || azimuth >= 360.0 || elevation < -90.0 || elevation > 90.0) {
+                throw new IllegalArgumentException("遮挡模板点超出范围：方位角 " + azimuth + "°，仰角 " + elevation + "°");
+            }
+            sorted[i] = new double[]{azimuth, elevation};
+        }
+        Arrays.sort(sorted, Comparator.comparingDouble(p -> p[0]));
+        for (int i = 1; i < sorted.length; i++) {
+            if (sorted[i][0] == sorted[i - 1][0]) {
+                throw new IllegalArgumentException("遮挡模板方位角重复：" + sorted[i][0] + "°");
+            }
+        }
+        this.points = sorted;
+
+        for (int k = 0; k < table.length; k++) {
+            table[k] = Math.toRadians(interpolate(Math.floorMod(k - SIZE / 2, SIZE) * (360.0 / SIZE)));
+        }
+    }
+
+    /**
+     * 方位角处的最小仰角（弧度）。
+     *
+     * @param azimuth 方位角（弧度，[-π, π]，自正北顺时针计，即 atan2(东向分量, 北向分量)）
+     */
+    public double elevation(double azimuth) {
+        double x = (azimuth + Math.PI) * SCALE;
+        int i = (int) x;
+        return table[i] + (x - i) * (table[i + 1] - table[i]);
+    }
+
+    /**
+     * 模板点的副本（方位角、仰角，度），按方位角升序。
+     */
+    public double[][] getPoints() {
+        double[][] copy = new double[points.length][];
+        for (int i = 0; i < points.length; i++) {
+            copy[i] = points[i].clone();
+        }
+        return copy;
+    }
+
+    /**
+     * 在模板点之间按方位角线性插值（度），最后一个点与第一个点跨越正北相接。
+     */
+    private double interpolate(double azimuth) {
+        int n = points.length;
+        int next = 0;
+        while (next < n && points[next][0] <= azimuth) {
+            next++;
+        }
+        double[] before = points[(next + n - 1) % n];
+        double[] after = points[next % n];
+        double span = (after[0] - before[0] + 360.0) % 360.0;
+        if (span == 0.0) {
+            return before[1];
+        }
+        double offset = (azimuth - before[0] + 360.0) % 360.0;
+        return before[1] + offset / span * (after[1] - before[1]);
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.deepToString(points);
+    }
+}
@@ -4,10 +4,15 @@ public class GroundStation {
     public double lat;  // 纬度（度）
     public double lon;  // 经度（度）
     public double alt;  // 高度（米）
+    public AzimuthElevationMask mask;  // 方位角–仰角遮挡模板（可为 null，即只受统一的最小仰角约束）
     public GroundStation(double lat, double lon, double alt) {
+        this(lat, lon, alt, null);
+    }
+    public GroundStation(double lat, double lon, double alt, AzimuthElevationMask mask) {
         this.lat = lat;
         this.lon = lon;
         this.alt = alt;
+        this.mask = mask;
     }
     @Override
     public String toString() {
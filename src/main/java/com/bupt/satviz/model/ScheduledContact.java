@@ -0,0 +1,22 @@
+package com.bupt.satviz.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.orekit.time.AbsoluteDate;
+
+/**
+ * 接触计划中的一次接触
+ * 卫星在可见窗口内占用地面站的某副天线；窗口在仿真结束时仍未结束时，接触计到仿真结束时刻。
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ScheduledContact {
+    private int satId;
+    private int stationIndex;
+    private int antenna;
+    private AbsoluteDate startTime;
+    private AbsoluteDate endTime;
+    private double durationSeconds;
+}
@@ -0,0 +1,22 @@
+package com.bupt.satviz.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.orekit.time.AbsoluteDate;
+
+/**
+ * 终端过境窗口
+ * 一颗卫星对一个地面终端的可见性窗口，约定与 VisibilityWindow 相同：
+ * 窗口在仿真结束时仍未结束时 endTime 为 null，durationSeconds 为从开始到仿真结束的时长。
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TerminalPass {
+    private int terminalId;
+    private int satId;
+    private AbsoluteDate startTime;
+    private AbsoluteDate endTime;
+    private double durationSeconds;
+}
@@ -3,6 +3,7 @@ package com.bupt.satviz.output;
 import com.bupt.satviz.model.SatResult;
 import com.bupt.satviz.model.VisibilityWindow;
 
+import java.io.PrintStream;
 import java.util.List;
 import java.util.Map;
 
@@ -11,6 +12,13 @@ public class ConsoleResultPrinter {
      * 打印所有卫星的可见性结果。
      */
     public static void printResults(List<SatResult> allResults) {
+        printResults(allResults, System.out);
+    }
+
+    /**
+     * 将所有卫星的可见性结果打印到指定输出流（例如用于比较不同计算方式的输出是否一致）。
+     */
+    public static void printResults(List<SatResult> allResults, PrintStream out) {
         // 按卫星编号升序遍历结果列表
         for (SatResult res : allResults) {
             int satId = res.getSatId();
@@ -18,7 +26,7 @@ public class ConsoleResultPrinter {
             if (res.getGroundStationResults().isEmpty() && res.getInterSatelliteResults().isEmpty()) {
                 continue;
             }
-            System.out.println("==== 卫星 #" + satId + " 可见性结果 ====");
+            out.println("==== 卫星 #" + satId + " 可见性结果 ====");
             // 1. 打印该卫星与各地面站的可见性窗口
             //    按地面站编号或标识排序，只打印有窗口的地面站条目
             for (Map.Entry<String, List<VisibilityWindow>> entry
@@ -26,9 +34,9 @@ public class ConsoleResultPrinter {
                 String stationId = entry.getKey();
                 List<VisibilityWindow> windows = entry.getValue();
                 if (windows.isEmpty()) continue;  // 跳过无窗口的地面站
-                System.out.println("  地面站 " + stationId + " 窗口数: " + windows.size());
+                out.println("  地面站 " + stationId + " 窗口数: " + windows.size());
                 for (VisibilityWindow win : windows) {
-                    System.out.println(String.format(
+                    out.println(String.format(
                         "    开始: %s, 结束: %s, 持续: %.0f 秒",
                         win.getStartTime(),
                         (win.getEndTime() != null ? win.getEndTime() : "仍可见"),
@@ -43,9 +51,9 @@ public class ConsoleResultPrinter {
                 int otherSatId = entry.getKey();
                 List<VisibilityWindow> windows = entry.getValue();
                 if (windows.isEmpty()) continue;  // 跳过无窗口的卫星对
-                System.out.println("  与卫星 #" + otherSatId + " 窗口数: " + windows.size());
+                out.println("  与卫星 #" + otherSatId + " 窗口数: " + windows.size());
                 for (VisibilityWindow win : windows) {
-                    System.out.println(String.format(
+                    out.println(String.format(
                         "    开始: %s, 结束: %s, 持续: %.0f 秒",
                         win.getStartTime(),
                         (win.getEndTime() != null ? win.getEndTime() : "仍可见"),
@@ -53,7 +61,7 @@ public class ConsoleResultPrinter {
                     ));
                 }
             }
-            System.out.println();  // 空行分隔不同卫星的结果
+            out.println();  // 空行分隔不同卫星的结果
         }
     }
 }
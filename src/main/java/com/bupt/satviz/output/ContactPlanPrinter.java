@@ -0,0 +1,36 @@
+package com.bupt.satviz.output;
+
+import com.bupt.satviz.model.GroundStation;
+import com.bupt.satviz.model.ScheduledContact;
+import com.bupt.satviz.scheduling.ContactScheduler;
+
+import java.io.PrintStream;
+import java.util.List;
+
+public class ContactPlanPrinter {
+
+    /**
+     * 打印接触计划摘要：总体统计与各地面站的接触次数、占用时长（需要明细时输出 CSV）。
+     */
+    public static void printReport(ContactScheduler scheduler, List<GroundStation> groundStations) {
+        printReport(scheduler, groundStations, System.out);
+    }
+
+    public static void printReport(ContactScheduler scheduler, List<GroundStation> groundStations, PrintStream out) {
+        int stationCount = groundStations.size();
+        int[] contactCount = new int[stationCount];
+        double[] contactSeconds = new double[stationCount];
+        for (ScheduledContact contact : scheduler.getContacts()) {
+            contactCount[contact.getStationIndex()]++;
+            contactSeconds[contact.getStationIndex()] += contact.getDurationSeconds();
+        }
+        out.println("==== 接触计划（" + stationCount + " 个地面站）====");
+        out.println("  候选接触数: " + scheduler.getCandidateCount() + "，已安排: " + scheduler.getScheduledCount());
+        out.println(String.format("  已安排接触总时长: %.1f 秒，优先级加权总时长: %.1f",
+                scheduler.getScheduledSeconds(), scheduler.getObjective()));
+        for (int g = 0; g < stationCount; g++) {
+            out.println(String.format("  %s: %d 次接触，%.1f 秒", groundStations.get(g), contactCount[g],
+                    contactSeconds[g]));
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.bupt.satviz.output;
+
+import com.bupt.satviz.coverage.CoverageResult;
+
+import java.io.PrintStream;
+
+public class CoverageReportPrinter {
+    // 直方图条形的最大宽度（字符数）
+    private static final int BAR_WIDTH = 40;
+
+    /**
+     * 打印全球覆盖统计摘要与重访间隔直方图。
+     */
+    public static void printReport(CoverageResult result) {
+        printReport(result, System.out);
+    }
+
+    public static void printReport(CoverageResult result, PrintStream out) {
+        out.println("==== 全球覆盖统计（" + result.getGrid().getCellCount() + " 个等面积格网）====");
+        out.println(String.format("  平均时间覆盖率: %.2f%%", result.globalCoverageFraction() * 100));
+        out.println(String.format("  至少覆盖一次的面积比例: %.2f%%", result.accessedAreaFraction() * 100));
+        out.println(String.format("  平均响应时间: %.0f 秒", result.globalMeanResponseTime()));
+        double worst = result.worstRevisitGap();
+        out.println("  最大重访间隔: " + (Double.isNaN(worst) ? "无（没有格网被访问两次以上）"
+                : String.format("%.0f 秒", worst)));
+
+        // 重访间隔直方图：省略首尾的空区间
+        long[] histogram = result.getRevisitHistogram();
+        int first = 0;
+        int last = histogram.length - 1;
+        while (first <= last && histogram[first] == 0) first++;
+        while (last >= first && histogram[last] == 0) last--;
+        if (first > last) {
+            return;
+        }
+        long peak = 0;
+        for (int k = first; k <= last; k++) {
+            peak = Math.max(peak, histogram[k]);
+        }
+        double bin = result.getHistogramBinSeconds();
+        out.println("  重访间隔分布:");
+        for (int k = first; k <= last; k++) {
+            int bar = (int) Math.round((double) histogram[k] * BAR_WIDTH / peak);
+            String upper = (k == histogram.length - 1) ? "以上" : String.format("%.0f", (k + 1) * bin);
+            out.println(String.format("    %8.0f ~ %-8s 秒 %10d %s",
+                    k * bin, upper, histogram[k], "#".repeat(bar)));
+        }
+    }
+}
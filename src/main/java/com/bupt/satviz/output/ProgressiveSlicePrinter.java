@@ -0,0 +1,81 @@
+package com.bupt.satviz.output;
+
+import com.bupt.satviz.concurrent.ShardPlan;
+import com.bupt.satviz.concurrent.VisibilitySliceConsumer;
+import com.bupt.satviz.model.GroundStation;
+import com.bupt.satviz.model.VisibilityWindow;
+import org.orekit.time.AbsoluteDate;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 渐进式计算的逐片输出
+ * 每完成一个时间片打印一行进度，随后按开始时间列出该片内确定的窗口与片末仍未结束的暂定窗口，
+ * 操作人员无需等待全部时间片完成即可看到最近时段的接触。暂定窗口在其结束的时间片中以相同的开始时间再次列出。
+ */
+public class ProgressiveSlicePrinter implements VisibilitySliceConsumer {
+
+    private static final Comparator<Entry> START_ORDER = Comparator.comparing(e -> e.window.getStartTime());
+
+    private final List<GroundStation> groundStations;
+    private final PrintStream out;
+    private final long startNanos = System.nanoTime();
+    // 本时间片内发布的确定窗口与暂定窗口
+    private final List<Entry> finalised = new ArrayList<>();
+    private final List<Entry> provisional = new ArrayList<>();
+
+    public ProgressiveSlicePrinter(List<GroundStation> groundStations) {
+        this(groundStations, System.out);
+    }
+
+    public ProgressiveSlicePrinter(List<GroundStation> groundStations, PrintStream out) {
+        this.groundStations = groundStations;
+        this.out = out;
+    }
+
+    @Override
+    public void windowFinalised(ShardPlan.Unit unit, VisibilityWindow window) {
+        finalised.add(new Entry(unit, window));
+    }
+
+    @Override
+    public void windowProvisional(ShardPlan.Unit unit, VisibilityWindow window) {
+        provisional.add(new Entry(unit, window));
+    }
+
+    /**
+     * 每完成一个时间片打印一行进度（本片确定与暂定的窗口数及自开始计算以来的耗时），再逐个打印这些窗口。
+     */
+    @Override
+    public void sliceCompleted(int slice, AbsoluteDate sliceStart, AbsoluteDate sliceEnd) {
+        out.println(String.format("时间片 #%d（%s ~ %s）完成：确定窗口 %d 个，暂定窗口 %d 个，已用时 %.0f 毫秒",
+                slice, sliceStart, sliceEnd, finalised.size(), provisional.size(),
+                (System.nanoTime() - startNanos) / 1e6));
+        finalised.sort(START_ORDER);
+        for (Entry entry : finalised) {
+            out.println(String.format("    %s 开始: %s, 结束: %s, 持续: %.0f 秒",
+                    describe(entry.unit), entry.window.getStartTime(),
+                    (entry.window.getEndTime() != null ? entry.window.getEndTime() : "仍可见"),
+                    entry.window.getDurationSeconds()));
+        }
+        provisional.sort(START_ORDER);
+        for (Entry entry : provisional) {
+            out.println(String.format("    %s 开始: %s, 暂定（片末仍可见）, 已持续: %.0f 秒",
+                    describe(entry.unit), entry.window.getStartTime(), entry.window.getDurationSeconds()));
+        }
+        finalised.clear();
+        provisional.clear();
+    }
+
+    private String describe(ShardPlan.Unit unit) {
+        return unit.ground()
+                ? "卫星 #" + unit.satId() + " – 地面站 " + groundStations.get(unit.target())
+                : "卫星 #" + unit.satId() + " – 卫星 #" + unit.target();
+    }
+
+    private record Entry(ShardPlan.Unit unit, VisibilityWindow window) {
+    }
+}
@@ -0,0 +1,35 @@
+package com.bupt.satviz.output;
+
+import com.bupt.satviz.model.TerminalPass;
+import com.bupt.satviz.terminal.TerminalVisibilityResult;
+
+import java.io.PrintStream;
+
+public class TerminalReportPrinter {
+
+    /**
+     * 打印地面终端过境统计摘要（终端数量大，不逐个打印窗口，需要明细时输出 CSV）。
+     */
+    public static void printReport(TerminalVisibilityResult result) {
+        printReport(result, System.out);
+    }
+
+    public static void printReport(TerminalVisibilityResult result, PrintStream out) {
+        int passCount = result.getPasses().size();
+        double totalDuration = 0.0;
+        for (TerminalPass pass : result.getPasses()) {
+            totalDuration += pass.getDurationSeconds();
+        }
+        out.println("==== 地面终端可见性统计（" + result.getTerminalCount() + " 个终端）====");
+        out.println("  至少过境一次的终端数: " + result.accessedTerminalCount());
+        out.println("  过境窗口总数: " + passCount);
+        if (result.getTerminalCount() > 0) {
+            out.println(String.format("  平均每个终端过境次数: %.2f", (double) passCount / result.getTerminalCount()));
+        }
+        if (passCount > 0) {
+            out.println(String.format("  平均过境时长: %.1f 秒", totalDuration / passCount));
+        }
+        out.println("  精确判定的（卫星, 终端）组合数: " + result.getCandidateTests()
+                + "，窗口边界求根次数: " + result.getRefinements());
+    }
+}
@@ -0,0 +1,245 @@
+package com.bupt.satviz.query;
+
+import com.bupt.satviz.calculation.PositionVelocityProvider;
+import com.bupt.satviz.concurrent.ShardPlan;
+import com.bupt.satviz.concurrent.TimeChunkPlan;
+import com.bupt.satviz.config.InterSatelliteEngineType;
+import com.bupt.satviz.config.ToleranceProfile;
+import com.bupt.satviz.config.VisibilityConstraints;
+import com.bupt.satviz.model.GroundStation;
+import com.bupt.satviz.model.KeplerianElements;
+import com.bupt.satviz.model.VisibilityWindow;
+import com.bupt.satviz.visibility.GroundStationVisibilityAnalyzer;
+import com.bupt.satviz.visibility.InterSatelliteVisibilityAnalyzer;
+import org.orekit.time.AbsoluteDate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 按需可见性查询服务
+ * 回答“卫星 X 在时刻 t 之后的下一次过境”“卫星对 (i, j) 在时刻 t 是否建链”之类的查询，
+ * 不预先计算全部组合的整段窗口：仿真时段按固定长度切成段（TimeChunkPlan），
+ * 每个（卫星, 地面站）组合或卫星对只在被查询时从 t 所在的段开始逐段运行对应的检测器，找到第一个匹配的窗口即停止。
+ * 已计算的段按组合缓存，之后与其重叠的查询直接复用；不同组合的查询可并发执行，同一组合的查询串行。
+ * 段边界处的窗口拼接方式与 TimeChunkedVisibilityExecutor 相同。
+ */
+public class VisibilityQueryService {
+
+    // 缺省段长度（秒），按检测器检查间隔对齐
+    private static final double DEFAULT_SEGMENT_SECONDS = 1800.0;
+
+    private final List<KeplerianElements> orbits;
+    private final List<? extends PositionVelocityProvider> ephemerides;
+    private final List<GroundStation> groundStations;
+    private final TimeChunkPlan plan;
+    private final GroundStationVisibilityAnalyzer groundAnalyzer;
+    private final InterSatelliteVisibilityAnalyzer interAnalyzer;
+    // 各组合已计算的段，按需创建
+    private final ConcurrentHashMap<ShardPlan.Unit, Timeline> timelines = new ConcurrentHashMap<>();
+    private final AtomicInteger computedSegments = new AtomicInteger();
+
+    public VisibilityQueryService(List<KeplerianElements> orbits,
+                                  List<? extends PositionVelocityProvider> ephemerides,
+                                  List<GroundStation> groundStations,
+                                  AbsoluteDate startDate,
+                                  AbsoluteDate endDate,
+                                  ToleranceProfile tolerance,
+                                  VisibilityConstraints constraints) {
+        this(orbits, ephemerides, groundStations, startDate, endDate, tolerance, constraints,
+                DEFAULT_SEGMENT_SECONDS);
+    }
+
+    /**
+     * @param orbits         所有卫星轨道元素列表
+     * @param ephemerides    与 orbits 一一对应的星历数据源（须可在线程间共享），为 null 时直接按轨道元素传播
+     * @param groundStations 地面站列表
+     * @param startDate      可查询时段的开始时间
+     * @param endDate        可查询时段的结束时间
+     * @param tolerance      检测器容差档位
+     * @param constraints    可见性判定条件
+     * @param segmentSeconds 缓存段长度（秒）：越短首次查询越快，越长连续查询的重复开销越小
+     */
+    public VisibilityQueryService(List<KeplerianElements> orbits,
+                                  List<? extends PositionVelocityProvider> ephemerides,
+                                  List<GroundStation> groundStations,
+                                  AbsoluteDate startDate,
+                                  AbsoluteDate endDate,
+                                  ToleranceProfile tolerance,
+                                  VisibilityConstraints constraints,
+                                  double segmentSeconds) {
+        this.orbits = orbits;
+        this.ephemerides = ephemerides;
+        this.groundStations = groundStations;
+        this.plan = new TimeChunkPlan(startDate, endDate, segmentSeconds,
+                TimeChunkPlan.alignment(tolerance, InterSatelliteEngineType.DETECTOR));
+        this.groundAnalyzer = new GroundStationVisibilityAnalyzer(
+                constraints.getMinElevationDeg(), constraints.getCoverageHalfAngleDeg(), tolerance);
+        this.interAnalyzer = new InterSatelliteVisibilityAnalyzer(constraints.getMaxInterSatelliteDistance(), tolerance);
+    }
+
+    /**
+     * 卫星在时刻 t 之后对地面站的下一次过境：结束时间晚于 t 的第一个窗口（t 时刻正在过境时即为当前窗口）。
+     *
+     * @return 过境窗口；查询时段内不再过境时返回 null。窗口在时段结束时仍未结束时 endTime 为 null
+     */
+    public VisibilityWindow nextPass(int satId, int stationIndex, AbsoluteDate t) {
+        return timeline(new ShardPlan.Unit(true, satId, stationIndex)).next(t);
+    }
+
+    /**
+     * 卫星对在时刻 t 之后的下一次建链窗口，约定同 {@link #nextPass}。
+     */
+    public VisibilityWindow nextLink(int satA, int satB, AbsoluteDate t) {
+        return timeline(interUnit(satA, satB)).next(t);
+    }
+
+    /**
+     * 卫星在时刻 t 是否对地面站可见。
+     */
+    public boolean isVisible(int satId, int stationIndex, AbsoluteDate t) {
+        return timeline(new ShardPlan.Unit(true, satId, stationIndex)).contains(t);
+    }
+
+    /**
+     * 卫星对在时刻 t 是否建链。
+     */
+    public boolean isLinked(int satA, int satB, AbsoluteDate t) {
+        return timeline(interUnit(satA, satB)).contains(t);
+    }
+
+    /**
+     * 累计运行过检测器的段数（用于观察缓存命中情况）。
+     */
+    public int getComputedSegmentCount() {
+        return computedSegments.get();
+    }
+
+    private static ShardPlan.Unit interUnit(int satA, int satB) {
+        if (satA == satB) {
+            throw new IllegalArgumentException("卫星对的两颗卫星不能相同：" + satA);
+        }
+        return new ShardPlan.Unit(false, Math.min(satA, satB), Math.max(satA, satB));
+    }
+
+    private Timeline timeline(ShardPlan.Unit unit) {
+        int satCount = orbits.size();
+        if (unit.satId() < 0 || unit.satId() >= satCount
+                || unit.target() < 0 || unit.target() >= (unit.ground() ? groundStations.size() : satCount)) {
+            throw new IllegalArgumentException("非法的查询对象：" + unit);
+        }
+        return timelines.computeIfAbsent(unit, Timeline::new);
+    }
+
+    private void checkDate(AbsoluteDate t) {
+        if (t.isBefore(plan.getStartDate()) || t.isAfter(plan.getEndDate())) {
+            throw new IllegalArgumentException("查询时刻超出仿真时段：" + t);
+        }
+    }
+
+    /**
+     * 单个组合的按段缓存的窗口
+     */
+    private class Timeline {
+        private final ShardPlan.Unit unit;
+        // 各段内的窗口，未计算的段为 null
+        private final List<List<VisibilityWindow>> segments;
+
+        Timeline(ShardPlan.Unit unit) {
+            this.unit = unit;
+            this.segments = new ArrayList<>(plan.getChunkCount());
+            for (int c = 0; c < plan.getChunkCount(); c++) {
+                segments.add(null);
+            }
+        }
+
+        synchronized VisibilityWindow next(AbsoluteDate t) {
+            checkDate(t);
+            // 1. 从 t 所在的段向后逐段计算，直到找到结束时间晚于 t（或在段末仍未结束）的窗口
+            int last = plan.getChunkCount() - 1;
+            int found = -1;
+            VisibilityWindow window = null;
+            for (int c = plan.chunkOf(t); c <= last && window == null; c++) {
+                for (VisibilityWindow w : segment(c)) {
+                    if (w.getEndTime() == null || w.getEndTime().isAfter(t)) {
+                        window = w;
+                        found = c;
+                        break;
+                    }
+                }
+            }
+            if (window == null) {
+                return null;
+            }
+            // 2. 窗口在段起点即可见时，向前找到真正的起点所在的段
+            int first = found;
+            VisibilityWindow head = window;
+            while (first > 0 && head.getStartTime().equals(plan.chunkStart(first))) {
+                List<VisibilityWindow> previous = segment(first - 1);
+                if (previous.isEmpty() || previous.get(previous.size() - 1).getEndTime() != null) {
+                    break;
+                }
+                first--;
+                head = previous.get(previous.size() - 1);
+            }
+            // 3. 窗口在段末仍未结束时，向后找到真正的终点所在的段
+            int end = found;
+            VisibilityWindow tail = window;
+            while (end < last && tail.getEndTime() == null) {
+                List<VisibilityWindow> following = segment(end + 1);
+                if (following.isEmpty() || !following.get(0).getStartTime().equals(plan.chunkStart(end + 1))) {
+                    break;
+                }
+                end++;
+                tail = following.get(0);
+            }
+            // 4. 拼接涉及的段，返回结束时间晚于 t 的第一个窗口
+            List<VisibilityWindow> stitched = plan.stitch(segments.subList(first, end + 1), first);
+            for (VisibilityWindow w : stitched) {
+                if (w.getEndTime() == null || w.getEndTime().isAfter(t)) {
+                    return w;
+                }
+            }
+            return null;
+        }
+
+        synchronized boolean contains(AbsoluteDate t) {
+            checkDate(t);
+            int c = plan.chunkOf(t);
+            for (VisibilityWindow w : segment(c)) {
+                AbsoluteDate end = (w.getEndTime() != null) ? w.getEndTime() : plan.chunkEnd(c);
+                if (!t.isBefore(w.getStartTime()) && (t.isBefore(end)
+                        || (w.getEndTime() == null && !t.isAfter(end)))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private List<VisibilityWindow> segment(int c) {
+            List<VisibilityWindow> windows = segments.get(c);
+            if (windows == null) {
+                windows = compute(plan.chunkStart(c), plan.chunkEnd(c));
+                segments.set(c, windows);
+                computedSegments.incrementAndGet();
+            }
+            return windows;
+        }
+
+        private List<VisibilityWindow> compute(AbsoluteDate start, AbsoluteDate end) {
+            int satId = unit.satId();
+            if (unit.ground()) {
+                GroundStation gs = groundStations.get(unit.target());
+                return (ephemerides != null)
+                        ? groundAnalyzer.computeVisibility(ephemerides.get(satId), start, end, gs)
+                        : groundAnalyzer.computeVisibility(orbits.get(satId), start, end, gs);
+            }
+            int otherId = unit.target();
+            return (ephemerides != null)
+                    ? interAnalyzer.computeVisibility(ephemerides.get(satId), ephemerides.get(otherId), start, end)
+                    : interAnalyzer.computeVisibility(orbits.get(satId), orbits.get(otherId), start, end);
+        }
+    }
+}
@@ -0,0 +1,510 @@
+package com.bupt.satviz.scheduling;
+
+import com.bupt.satviz.config.SchedulingConstraints;
+import com.bupt.satviz.model.GroundStation;
+import com.bupt.satviz.model.SatResult;
+import com.bupt.satviz.model.ScheduledContact;
+import com.bupt.satviz.model.VisibilityWindow;
+import lombok.Getter;
+import org.orekit.time.AbsoluteDate;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * 地面站接触计划调度器
+ * 以星地可见窗口为候选接触，为每个地面站的有限天线分配卫星过境：
+ * 同一天线相邻两次接触之间至少间隔准备时间，同一卫星同一时刻只与一个地面站接触，短于最短时长的窗口不参与调度。
+ * 调度目标为优先级加权的接触总时长。
+ * 1. schedule：按优先级从高到低、同优先级内按结束时间从早到晚扫描候选接触（扫描线贪心），
+ *    放入能容纳它的天线中空闲间隙最小的一副（最佳适配），同一优先级内最大化接触次数；
+ * 2. improve：对未排入的候选接触，先尝试把挡住它的接触挪到同站的其他天线，
+ *    再尝试用它替换权重之和更小的冲突接触，目标值严格增加；
+ * 3. updateWindows：某个（卫星, 地面站）组合的窗口变化时，只撤销该组合的接触并重新安排受影响的候选接触；
+ *    放不下的受影响接触按 improve 的规则挪动或替换与其冲突、权重更小的接触，与它们不冲突的接触保持不变。
+ * 各天线与各卫星的已排接触按开始时间存放在有序表中，冲突检查只看相邻的接触。非线程安全。
+ */
+public class ContactScheduler {
+
+    // 挪动挡住候选接触的已排接触时，单副天线上最多挪动的接触数
+    private static final int MAX_RELOCATE = 2;
+
+    // 贪心扫描顺序：优先级从高到低，同优先级按结束时间、开始时间、卫星、地面站
+    private static final Comparator<Candidate> SWEEP_ORDER = Comparator
+            .comparingDouble((Candidate c) -> -c.priority)
+            .thenComparingDouble(c -> c.end)
+            .thenComparingDouble(c -> c.start)
+            .thenComparingInt(c -> c.satId)
+            .thenComparingInt(c -> c.station);
+
+    private final SchedulingConstraints constraints;
+    private final AbsoluteDate startDate;
+    private final AbsoluteDate endDate;
+    @Getter
+    private final int stationCount;
+    // [地面站][天线] 与 [卫星] 的已排接触
+    private final Bookings[][] antennaBookings;
+    private final Bookings[] satelliteBookings;
+    // 候选接触按地面站、按卫星、按（卫星, 地面站）组合索引
+    private final List<List<Candidate>> byStation = new ArrayList<>();
+    private final List<List<Candidate>> bySatellite = new ArrayList<>();
+    private final Map<Integer, List<Candidate>> byPair = new HashMap<>();
+
+    @Getter
+    private int candidateCount;
+    @Getter
+    private int scheduledCount;
+    // 已排接触的总时长（秒）与优先级加权总时长
+    @Getter
+    private double scheduledSeconds;
+    @Getter
+    private double objective;
+
+    /**
+     * @param results        各卫星的可见性结果（地面站窗口按地面站标识存放）
+     * @param groundStations 地面站列表，顺序即地面站编号
+     * @param startDate      仿真开始时间
+     * @param endDate        仿真结束时间，仍未结束的窗口计到该时刻
+     * @param constraints    调度约束
+     */
+    public ContactScheduler(List<SatResult> results, List<GroundStation> groundStations,
+                            AbsoluteDate startDate, AbsoluteDate endDate, SchedulingConstraints constraints) {
+        this.constraints = constraints;
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.stationCount = groundStations.size();
+        this.antennaBookings = new Bookings[stationCount][];
+        for (int g = 0; g < stationCount; g++) {
+            antennaBookings[g] = new Bookings[constraints.antennasAt(g)];
+            for (int a = 0; a < antennaBookings[g].length; a++) {
+                antennaBookings[g][a] = new Bookings();
+            }
+            byStation.add(new ArrayList<>());
+        }
+        this.satelliteBookings = new Bookings[results.size()];
+        for (int s = 0; s < results.size(); s++) {
+            satelliteBookings[s] = new Bookings();
+            bySatellite.add(new ArrayList<>());
+        }
+        for (SatResult result : results) {
+            for (int g = 0; g < stationCount; g++) {
+                List<VisibilityWindow> windows = result.getGroundStationResults()
+                        .get(groundStations.get(g).toString());
+                if (windows != null) {
+                    addCandidates(result.getSatId(), g, windows);
+                }
+            }
+        }
+    }
+
+    /**
+     * 扫描线贪心：按优先级、结束时间顺序依次放入未排入的候选接触。
+     *
+     * @return 本次新排入的接触数
+     */
+    public int schedule() {
+        List<Candidate> order = new ArrayList<>(candidateCount);
+        for (List<Candidate> candidates : byStation) {
+            for (Candidate c : candidates) {
+                if (c.antenna < 0) {
+                    order.add(c);
+                }
+            }
+        }
+        order.sort(SWEEP_ORDER);
+        int added = 0;
+        for (Candidate c : order) {
+            if (tryInsert(c)) {
+                added++;
+            }
+        }
+        return added;
+    }
+
+    /**
+     * 改进：按权重从大到小处理未排入的候选接触，依次尝试直接放入、挪动同站其他天线上的冲突接触、
+     * 替换权重之和更小的冲突接触（被替换的接触重新排队）。
+     *
+     * @return 改变计划的次数
+     */
+    public int improve() {
+        List<Candidate> unscheduled = new ArrayList<>();
+        for (List<Candidate> candidates : byStation) {
+            for (Candidate c : candidates) {
+                if (c.antenna < 0) {
+                    unscheduled.add(c);
+                }
+            }
+        }
+        return improve(unscheduled);
+    }
+
+    /**
+     * 对给定的未排入候选接触执行改进步骤，被替换的接触重新排队。
+     */
+    private int improve(List<Candidate> unscheduled) {
+        unscheduled.sort(Comparator.comparingDouble((Candidate c) -> -c.weight()).thenComparing(SWEEP_ORDER));
+        Deque<Candidate> queue = new ArrayDeque<>(unscheduled);
+        int changes = 0;
+        while (!queue.isEmpty()) {
+            Candidate u = queue.poll();
+            if (u.removed || u.antenna >= 0) {
+                continue;
+            }
+            if (tryInsert(u)) {
+                changes++;
+                continue;
+            }
+            List<Candidate> satelliteBlockers = satelliteBookings[u.satId].conflicts(u.start, u.end, 0.0);
+            if (satelliteBlockers.isEmpty() && tryRelocate(u)) {
+                changes++;
+                continue;
+            }
+            // 替换：选择冲突接触权重之和最小的天线，权重之和不小于候选接触时提前放弃
+            double satelliteWeight = 0.0;
+            for (Candidate b : satelliteBlockers) {
+                satelliteWeight += b.weight();
+            }
+            double limit = u.weight() - 1e-9 - satelliteWeight;
+            int bestAntenna = -1;
+            for (int a = 0; a < antennaBookings[u.station].length && limit > 0.0; a++) {
+                double weight = antennaBookings[u.station][a].conflictWeight(u.start, u.end,
+                        constraints.getSetupSeconds(), limit, satelliteBlockers);
+                if (weight < limit) {
+                    limit = weight;
+                    bestAntenna = a;
+                }
+            }
+            if (bestAntenna >= 0) {
+                Set<Candidate> blockers = new LinkedHashSet<>(satelliteBlockers);
+                blockers.addAll(antennaBookings[u.station][bestAntenna].conflicts(u.start, u.end,
+                        constraints.getSetupSeconds()));
+                for (Candidate b : blockers) {
+                    unbook(b);
+                }
+                book(u, bestAntenna);
+                changes++;
+                for (Candidate b : blockers) {
+                    if (!tryInsert(b)) {
+                        queue.add(b);
+                    }
+                }
+            }
+        }
+        return changes;
+    }
+
+    /**
+     * 增量重排：替换（卫星, 地面站）组合的全部可见窗口。
+     * 撤销该组合原有的接触，放入新窗口中能容纳的接触，并让腾出的天线与卫星时间段重新参与调度；
+     * 仍放不下的受影响接触再按 improve 的规则挪动或替换冲突接触，因此优先级更高的新窗口可以抢占已排的接触。
+     * 只有与受影响接触冲突的接触可能被挪动或替换，其余接触保持不变。
+     *
+     * @return 计划中被撤销或新增的接触数与改进步骤改变计划的次数之和
+     */
+    public int updateWindows(int satId, int stationIndex, List<VisibilityWindow> windows) {
+        double gap = constraints.getSetupSeconds();
+        int changes = 0;
+        // 1. 撤销旧候选接触，记录腾出的时间段
+        List<Candidate> freed = new ArrayList<>();
+        List<Candidate> old = byPair.remove(pairKey(satId, stationIndex));
+        if (old != null) {
+            for (Candidate c : old) {
+                c.removed = true;
+                candidateCount--;
+                if (c.antenna >= 0) {
+                    unbook(c);
+                    freed.add(c);
+                    changes++;
+                }
+            }
+            byStation.get(stationIndex).removeIf(c -> c.removed);
+            bySatellite.get(satId).removeIf(c -> c.removed);
+        }
+        // 2. 受影响的候选接触：新窗口，以及与腾出时间段冲突的同站或同卫星的未排入接触
+        Set<Candidate> affected = new LinkedHashSet<>(addCandidates(satId, stationIndex, windows));
+        for (Candidate f : freed) {
+            for (Candidate c : byStation.get(stationIndex)) {
+                if (c.antenna < 0 && c.start < f.end + gap && f.start < c.end + gap) {
+                    affected.add(c);
+                }
+            }
+            for (Candidate c : bySatellite.get(satId)) {
+                if (c.antenna < 0 && c.start < f.end && f.start < c.end) {
+                    affected.add(c);
+                }
+            }
+        }
+        List<Candidate> order = new ArrayList<>(affected);
+        order.sort(SWEEP_ORDER);
+        List<Candidate> rejected = new ArrayList<>();
+        for (Candidate c : order) {
+            if (tryInsert(c)) {
+                changes++;
+            } else {
+                rejected.add(c);
+            }
+        }
+        // 3. 放不下的受影响接触执行改进步骤：挪动或替换权重之和更小的冲突接触
+        return changes + improve(rejected);
+    }
+
+    /**
+     * 当前计划中的全部接触，按地面站、天线、开始时间排序。
+     */
+    public List<ScheduledContact> getContacts() {
+        List<ScheduledContact> contacts = new ArrayList<>(scheduledCount);
+        for (int g = 0; g < stationCount; g++) {
+            for (int a = 0; a < antennaBookings[g].length; a++) {
+                for (Candidate c : antennaBookings[g][a].byStart.values()) {
+                    contacts.add(new ScheduledContact(c.satId, g, a, startDate.shiftedBy(c.start),
+                            startDate.shiftedBy(c.end), c.end - c.start));
+                }
+            }
+        }
+        return contacts;
+    }
+
+    /**
+     * 将当前计划写入 CSV 文件，每个接触一行：地面站编号、天线编号、卫星编号、开始时间、结束时间、持续时长。
+     */
+    public void writeCsv(Path file) throws IOException {
+        if (file.toAbsolutePath().getParent() != null) {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+        }
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+            out.println("station,antenna,satellite,start,end,duration");
+            for (ScheduledContact contact : getContacts()) {
+                out.println(contact.getStationIndex() + "," + contact.getAntenna() + "," + contact.getSatId() + ","
+                        + contact.getStartTime() + "," + contact.getEndTime() + ","
+                        + String.format("%.3f", contact.getDurationSeconds()));
+            }
+        }
+    }
+
+    private List<Candidate> addCandidates(int satId, int stationIndex, List<VisibilityWindow> windows) {
+        double horizon = endDate.durationFrom(startDate);
+        double priority = constraints.priorityOf(satId);
+        List<Candidate> added = new ArrayList<>();
+        for (VisibilityWindow w : windows) {
+            double start = Math.max(0.0, w.getStartTime().durationFrom(startDate));
+            double end = (w.getEndTime() != null) ? Math.min(horizon, w.getEndTime().durationFrom(startDate)) : horizon;
+            if (end - start <= 0.0 || end - start < constraints.getMinPassSeconds()) {
+                continue;
+            }
+            added.add(new Candidate(satId, stationIndex, start, end, priority));
+        }
+        byStation.get(stationIndex).addAll(added);
+        bySatellite.get(satId).addAll(added);
+        byPair.computeIfAbsent(pairKey(satId, stationIndex), k -> new ArrayList<>()).addAll(added);
+        candidateCount += added.size();
+        return added;
+    }
+
+    private int pairKey(int satId, int stationIndex) {
+        return satId * stationCount + stationIndex;
+    }
+
+    /**
+     * 卫星空闲时放入能容纳它的天线中前一个接触结束最晚的一副（空闲间隙最小）。
+     */
+    private boolean tryInsert(Candidate c) {
+        if (!satelliteBookings[c.satId].fits(c.start, c.end, 0.0)) {
+            return false;
+        }
+        double gap = constraints.getSetupSeconds();
+        int best = -1;
+        double bestPrevious = Double.NEGATIVE_INFINITY;
+        Bookings[] antennas = antennaBookings[c.station];
+        for (int a = 0; a < antennas.length; a++) {
+            if (antennas[a].fits(c.start, c.end, gap)) {
+                double previous = antennas[a].previousEnd(c.start);
+                if (best < 0 || previous > bestPrevious) {
+                    best = a;
+                    bestPrevious = previous;
+                }
+            }
+        }
+        if (best < 0) {
+            return false;
+        }
+        book(c, best);
+        return true;
+    }
+
+    /**
+     * 把某副天线上挡住候选接触的已排接触挪到同站的其他天线；全部挪走时放入候选接触，否则恢复原状。
+     */
+    private boolean tryRelocate(Candidate u) {
+        double gap = constraints.getSetupSeconds();
+        Bookings[] antennas = antennaBookings[u.station];
+        for (int a = 0; a < antennas.length; a++) {
+            List<Candidate> blockers = antennas[a].conflicts(u.start, u.end, gap);
+            if (blockers.isEmpty() || blockers.size() > MAX_RELOCATE || !movable(blockers, a)) {
+                continue;
+            }
+            for (Candidate b : blockers) {
+                unbook(b);
+            }
+            book(u, a);
+            List<Candidate> moved = new ArrayList<>();
+            boolean ok = true;
+            for (Candidate b : blockers) {
+                if (tryInsert(b)) {
+                    moved.add(b);
+                } else {
+                    ok = false;
+                    break;
+                }
+            }
+            if (ok) {
+                return true;
+            }
+            for (Candidate b : moved) {
+                unbook(b);
+            }
+            unbook(u);
+            for (Candidate b : blockers) {
+                book(b, a);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 每个冲突接触在同站的其他天线上都有空闲间隙（不考虑彼此之间的冲突），否则不必尝试挪动。
+     */
+    private boolean movable(List<Candidate> blockers, int antenna) {
+        Bookings[] antennas = antennaBookings[blockers.get(0).station];
+        for (Candidate b : blockers) {
+            boolean fits = false;
+            for (int a = 0; a < antennas.length && !fits; a++) {
+                fits = a != antenna && antennas[a].fits(b.start, b.end, constraints.getSetupSeconds());
+            }
+            if (!fits) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void book(Candidate c, int antenna) {
+        c.antenna = antenna;
+        antennaBookings[c.station][antenna].byStart.put(c.start, c);
+        satelliteBookings[c.satId].byStart.put(c.start, c);
+        scheduledCount++;
+        scheduledSeconds += c.end - c.start;
+        objective += c.weight();
+    }
+
+    private void unbook(Candidate c) {
+        antennaBookings[c.station][c.antenna].byStart.remove(c.start);
+        satelliteBookings[c.satId].byStart.remove(c.start);
+        c.antenna = -1;
+        scheduledCount--;
+        scheduledSeconds -= c.end - c.start;
+        objective -= c.weight();
+    }
+
+    /**
+     * 候选接触（时间为相对仿真开始时间的秒数）
+     */
+    private static class Candidate {
+        private final int satId;
+        private final int station;
+        private final double start;
+        private final double end;
+        private final double priority;
+        // 所在天线，未排入时为 -1
+        private int antenna = -1;
+        // 已被 updateWindows 替换
+        private boolean removed;
+
+        Candidate(int satId, int station, double start, double end, double priority) {
+            this.satId = satId;
+            this.station = station;
+            this.start = start;
+            this.end = end;
+            this.priority = priority;
+        }
+
+        double weight() {
+            return priority * (end - start);
+        }
+    }
+
+    /**
+     * 一副天线（或一颗卫星）上按开始时间排列、互不重叠的已排接触。
+     */
+    private static class Bookings {
+        private final TreeMap<Double, Candidate> byStart = new TreeMap<>();
+
+        /**
+         * [start, end) 与所有已排接触之间至少间隔 gap 时返回 true；接触互不重叠，只需检查前后相邻的两个。
+         */
+        boolean fits(double start, double end, double gap) {
+            Map.Entry<Double, Candidate> before = byStart.floorEntry(start);
+            if (before != null && start < before.getValue().end + gap) {
+                return false;
+            }
+            Map.Entry<Double, Candidate> after = byStart.higherEntry(start);
+            return after == null || end + gap <= after.getKey();
+        }
+
+        double previousEnd(double start) {
+            Map.Entry<Double, Candidate> before = byStart.floorEntry(start);
+            return (before != null) ? before.getValue().end : Double.NEGATIVE_INFINITY;
+        }
+
+        /**
+         * 与 [start, end) 的间隔小于 gap、且不在 exclude 中的已排接触的权重之和；达到 limit 时提前返回。
+         */
+        double conflictWeight(double start, double end, double gap, double limit, List<Candidate> exclude) {
+            double weight = 0.0;
+            Map.Entry<Double, Candidate> before = byStart.floorEntry(start);
+            if (before != null && start < before.getValue().end + gap && !exclude.contains(before.getValue())) {
+                weight += before.getValue().weight();
+            }
+            for (Candidate c : byStart.tailMap(start, false).values()) {
+                if (weight >= limit || c.start >= end + gap) {
+                    break;
+                }
+                if (!exclude.contains(c)) {
+                    weight += c.weight();
+                }
+            }
+            return weight;
+        }
+
+        /**
+         * 与 [start, end) 的间隔小于 gap 的已排接触。
+         */
+        List<Candidate> conflicts(double start, double end, double gap) {
+            List<Candidate> result = new ArrayList<>();
+            Map.Entry<Double, Candidate> before = byStart.floorEntry(start);
+            if (before != null && start < before.getValue().end + gap) {
+                result.add(before.getValue());
+            }
+            for (Candidate c : byStart.tailMap(start, false).values()) {
+                if (c.start >= end + gap) {
+                    break;
+                }
+                result.add(c);
+            }
+            return result;
+        }
+    }
+}
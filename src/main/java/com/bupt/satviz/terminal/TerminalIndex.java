@@ -0,0 +1,150 @@
+package com.bupt.satviz.terminal;
+
+import com.bupt.satviz.coverage.EqualAreaGrid;
+import com.bupt.satviz.model.AzimuthElevationMask;
+import com.bupt.satviz.model.GroundStation;
+import lombok.Getter;
+import org.orekit.utils.Constants;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 地面终端空间索引
+ * 按终端的地心方向把终端分配到等面积网格（纬度环 → 格网 → 终端）中，终端按格网编号连续存放（压缩行存储），
+ * 查询覆盖区内的终端时只需按纬度环取出与覆盖区相交的格网区间，再顺序读取这些格网中的终端。
+ * 同时预先计算每个终端的地固系坐标与椭球法向（当地天顶方向），精确判定时不再做坐标转换；终端带遮挡模板时一并按格网排列。
+ * 索引建立后只读，可在线程间共享。
+ */
+public class TerminalIndex {
+
+    private static final double A = Constants.WGS84_EARTH_EQUATORIAL_RADIUS;
+    private static final double E2 = Constants.WGS84_EARTH_FLATTENING * (2 - Constants.WGS84_EARTH_FLATTENING);
+
+    @Getter
+    private final EqualAreaGrid grid;
+    @Getter
+    private final int terminalCount;
+    // 所有终端中最小的地心距（米），用于保守地估计覆盖区半径
+    @Getter
+    private final double minRadius;
+    // 各格网在 terminals 中的起始位置（长度 cellCount + 1）
+    final int[] cellOffsets;
+    // 按格网排列的终端编号
+    final int[] terminals;
+    // 按格网排列的终端地固系坐标与椭球法向，与 terminals 一一对应
+    final double[] x;
+    final double[] y;
+    final double[] z;
+    final double[] nx;
+    final double[] ny;
+    final double[] nz;
+    // 按格网排列的终端遮挡模板（无遮挡的终端为 null；所有终端都没有遮挡模板时整个数组为 null）
+    final AzimuthElevationMask[] masks;
+
+    /**
+     * @param stations 地面终端列表（纬度、经度为度，高度为米），列表下标即终端编号
+     * @param grid     索引所用的等面积网格
+     */
+    public TerminalIndex(List<GroundStation> stations, EqualAreaGrid grid) {
+        this.grid = grid;
+        this.terminalCount = stations.size();
+        int n = stations.size();
+        double[] ex = new double[n], ey = new double[n], ez = new double[n];
+        int[] cellOf = new int[n];
+        double radius = Double.POSITIVE_INFINITY;
+        this.cellOffsets = new int[grid.getCellCount() + 1];
+
+        // 1. 大地坐标转地固系坐标，并按地心方向求所在格网
+        for (int t = 0; t < n; t++) {
+            GroundStation gs = stations.get(t);
+            double lat = Math.toRadians(gs.lat);
+            double lon = Math.toRadians(gs.lon);
+            double sinLat = Math.sin(lat);
+            double primeVertical = A / Math.sqrt(1 - E2 * sinLat * sinLat);
+            ex[t] = (primeVertical + gs.alt) * Math.cos(lat) * Math.cos(lon);
+            ey[t] = (primeVertical + gs.alt) * Math.cos(lat) * Math.sin(lon);
+            ez[t] = (primeVertical * (1 - E2) + gs.alt) * sinLat;
+            double r = Math.sqrt(ex[t] * ex[t] + ey[t] * ey[t] + ez[t] * ez[t]);
+            radius = Math.min(radius, r);
+            cellOf[t] = cellOf(Math.asin(ez[t] / r), Math.atan2(ey[t], ex[t]));
+            cellOffsets[cellOf[t] + 1]++;
+        }
+        this.minRadius = (n > 0) ? radius : A;
+
+        // 2. 按格网编号做计数排序（同一格网内保持终端编号升序）
+        for (int c = 0; c < grid.getCellCount(); c++) {
+            cellOffsets[c + 1] += cellOffsets[c];
+        }
+        int[] fill = cellOffsets.clone();
+        this.terminals = new int[n];
+        this.x = new double[n];
+        this.y = new double[n];
+        this.z = new double[n];
+        this.nx = new double[n];
+        this.ny = new double[n];
+        this.nz = new double[n];
+        boolean masked = false;
+        for (GroundStation gs : stations) {
+            masked |= gs.mask != null;
+        }
+        this.masks = masked ? new AzimuthElevationMask[n] : null;
+        for (int t = 0; t < n; t++) {
+            int slot = fill[cellOf[t]]++;
+            GroundStation gs = stations.get(t);
+            double lat = Math.toRadians(gs.lat);
+            double lon = Math.toRadians(gs.lon);
+            terminals[slot] = t;
+            x[slot] = ex[t];
+            y[slot] = ey[t];
+            z[slot] = ez[t];
+            nx[slot] = Math.cos(lat) * Math.cos(lon);
+            ny[slot] = Math.cos(lat) * Math.sin(lon);
+            nz[slot] = Math.sin(lat);
+            if (masks != null) {
+                masks[slot] = gs.mask;
+            }
+        }
+    }
+
+    /**
+     * 从 CSV 文件读取终端列表：每行“纬度,经度,高度”（度、度、米），高度可省略；以 # 开头的行与无法解析的表头行被忽略。
+     */
+    public static List<GroundStation> readCsv(Path file) throws IOException {
+        List<GroundStation> stations = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] parts = line.split(",");
+                try {
+                    double lat = Double.parseDouble(parts[0].trim());
+                    double lon = Double.parseDouble(parts[1].trim());
+                    double alt = (parts.length > 2) ? Double.parseDouble(parts[2].trim()) : 0.0;
+                    stations.add(new GroundStation(lat, lon, alt));
+                } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                    if (!stations.isEmpty()) {
+                        throw new IOException("终端文件格式错误：" + file + "：" + line, e);
+                    }
+                }
+            }
+        }
+        return stations;
+    }
+
+    private int cellOf(double lat, double lon) {
+        int row = (int) Math.floor((lat + Math.PI / 2) / grid.getRowHeight());
+        row = Math.max(0, Math.min(grid.getRowCount() - 1, row));
+        int cells = grid.rowCells(row);
+        int k = (int) Math.floor((lon + Math.PI) / (2 * Math.PI / cells));
+        return grid.rowStart(row) + Math.max(0, Math.min(cells - 1, k));
+    }
+}
@@ -0,0 +1,379 @@
+package com.bupt.satviz.terminal;
+
+import com.bupt.satviz.calculation.FastKeplerPropagator;
+import com.bupt.satviz.calculation.PositionVelocityProvider;
+import com.bupt.satviz.config.ToleranceProfile;
+import com.bupt.satviz.config.VisibilityConstraints;
+import com.bupt.satviz.coverage.EqualAreaGrid;
+import com.bupt.satviz.model.AzimuthElevationMask;
+import com.bupt.satviz.model.KeplerianElements;
+import com.bupt.satviz.model.TerminalPass;
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.orekit.frames.Frame;
+import org.orekit.frames.FramesFactory;
+import org.orekit.frames.StaticTransform;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.utils.Constants;
+import org.orekit.utils.IERSConventions;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 大规模地面终端可见性计算引擎
+ * 判定条件与 GroundStationVisibilityAnalyzer 相同（仰角不低于最小仰角及终端遮挡模板在该方位角的仰角，且终端位于卫星对地视场半角之内），
+ * 但不再为每个终端构造 TopocentricFrame 与检测器，而是按固定时间步长：
+ * 1. 计算每颗卫星在地固系中的位置与天底方向，以及保守放大的覆盖区（球冠）；
+ * 2. 从 TerminalIndex 中只取出与覆盖区相交的格网中的终端，逐个精确判定仰角与视场；
+ * 3. 与上一步的可见终端集合（有序数组）归并比较，只对状态翻转的终端在相邻两步之间二分求根精化过境起止时刻。
+ * 计算量与各步被覆盖的终端数成正比，与终端总数无关。按卫星并行，每颗卫星的数据源只在一个线程中使用。
+ * 时间步长的作用与检测器的 maxCheck 相同：短于一个步长的过境可能被漏检。
+ * 卫星视场的轴线取大地天底方向（与 NadirPointing 一致）。
+ */
+public class TerminalVisibilityEngine {
+
+    // 每批预先计算坐标变换的时间步数
+    private static final int BLOCK_STEPS = 128;
+    // 覆盖区半径的保守余量：椭球法向与地心方向之差（不超过约 0.19°）、大地与地心天底方向之差
+    private static final double CAP_MARGIN = Math.toRadians(1.0);
+
+    private static final double A = Constants.WGS84_EARTH_EQUATORIAL_RADIUS;
+    private static final double F = Constants.WGS84_EARTH_FLATTENING;
+    private static final double B = A * (1 - F);
+    private static final double E2 = F * (2 - F);
+    private static final double EP2 = E2 / (1 - E2);
+
+    private static final Frame inertialFrame = FramesFactory.getEME2000();
+    private static final Frame earthFrame = FramesFactory.getITRF(IERSConventions.IERS_2010, true);
+
+    private final TerminalIndex index;
+    private final double minElevation;
+    private final double sinMinElevation;
+    private final double halfAngle;
+    private final double cosHalfAngle;
+    private final boolean useCoverageConstraint;
+    private final double stepSeconds;
+    private final double threshold;
+
+    /**
+     * 按容差档位的星地检查间隔与收敛阈值设置时间步长与求根精度。
+     */
+    public TerminalVisibilityEngine(TerminalIndex index, VisibilityConstraints constraints,
+                                    ToleranceProfile tolerance) {
+        this(index, constraints, tolerance.getGroundMaxCheck(), tolerance.getGroundThreshold());
+    }
+
+    /**
+     * @param index       地面终端空间索引
+     * @param constraints 可见性判定条件（使用最小仰角与卫星覆盖半角）
+     * @param stepSeconds 时间步长（秒）
+     * @param threshold   过境起止时刻的时间精度（秒）
+     */
+    public TerminalVisibilityEngine(TerminalIndex index, VisibilityConstraints constraints,
+                                    double stepSeconds, double threshold) {
+        this.index = index;
+        this.minElevation = Math.toRadians(constraints.getMinElevationDeg());
+        this.sinMinElevation = Math.sin(minElevation);
+        this.halfAngle = Math.toRadians(constraints.getCoverageHalfAngleDeg());
+        this.cosHalfAngle = Math.cos(halfAngle);
+        // 与 GroundStationVisibilityAnalyzer 一致：覆盖半角小于 90° 时才使用视场约束
+        this.useCoverageConstraint = constraints.getCoverageHalfAngleDeg() < 90.0;
+        this.stepSeconds = stepSeconds;
+        this.threshold = threshold;
+    }
+
+    /**
+     * 根据开普勒轨道元素计算全部终端的过境窗口。
+     */
+    public TerminalVisibilityResult computeVisibility(List<KeplerianElements> orbits,
+                                                      AbsoluteDate start, AbsoluteDate end) {
+        List<FastKeplerPropagator> satellites = new ArrayList<>(orbits.size());
+        for (KeplerianElements orbit : orbits) {
+            satellites.add(new FastKeplerPropagator(orbit, Constants.WGS84_EARTH_MU));
+        }
+        return computeVisibilityFromEphemerides(satellites, start, end);
+    }
+
+    /**
+     * 根据任意位置速度数据源（如预计算星历）计算全部终端的过境窗口，数据源的顺序即卫星编号。
+     */
+    public TerminalVisibilityResult computeVisibilityFromEphemerides(
+            List<? extends PositionVelocityProvider> satellites, AbsoluteDate start, AbsoluteDate end) {
+        double duration = end.durationFrom(start);
+        int steps = (int) Math.ceil(duration / stepSeconds);
+        List<Track> tracks = new ArrayList<>(satellites.size());
+        for (int s = 0; s < satellites.size(); s++) {
+            tracks.add(new Track(s, satellites.get(s), start));
+        }
+
+        double[] offsets = new double[BLOCK_STEPS];
+        StaticTransform[] transforms = new StaticTransform[BLOCK_STEPS];
+        for (int first = 0; first <= steps; first += BLOCK_STEPS) {
+            int count = Math.min(BLOCK_STEPS, steps + 1 - first);
+            // 1. 本批各步的时刻与惯性系到地固系的变换（各卫星共用）
+            for (int b = 0; b < count; b++) {
+                offsets[b] = Math.min((first + b) * stepSeconds, duration);
+                transforms[b] = inertialFrame.getStaticTransformTo(earthFrame, start.shiftedBy(offsets[b]));
+            }
+            // 2. 按卫星并行推进
+            int firstStep = first;
+            tracks.parallelStream().forEach(track -> {
+                for (int b = 0; b < count; b++) {
+                    track.step(firstStep + b == 0, offsets[b], transforms[b]);
+                }
+            });
+        }
+
+        // 3. 关闭仿真结束时仍在进行的过境，合并并排序全部窗口
+        List<TerminalPass> passes = new ArrayList<>();
+        long tests = 0;
+        long refinements = 0;
+        for (Track track : tracks) {
+            track.finish(end);
+            passes.addAll(track.passes);
+            tests += track.tests;
+            refinements += track.refinements;
+        }
+        passes.sort(Comparator.comparingInt(TerminalPass::getTerminalId)
+                .thenComparing(TerminalPass::getStartTime)
+                .thenComparingInt(TerminalPass::getSatId));
+        int[] passOffsets = new int[index.getTerminalCount() + 1];
+        for (TerminalPass pass : passes) {
+            passOffsets[pass.getTerminalId() + 1]++;
+        }
+        for (int t = 0; t < index.getTerminalCount(); t++) {
+            passOffsets[t + 1] += passOffsets[t];
+        }
+        return new TerminalVisibilityResult(index.getTerminalCount(), passes, passOffsets, tests, refinements);
+    }
+
+    /**
+     * 保守的覆盖区地心角半径（弧度）：按最低的终端地心距计算仰角与视场约束，再加上余量。
+     * 遮挡模板只会抬高最小仰角，按统一的最小仰角计算仍是保守的。
+     */
+    private double capRadius(double r) {
+        double earthRadius = index.getMinRadius();
+        if (r <= earthRadius) {
+            return 0.0;
+        }
+        double lambda = Math.acos(Math.min(1.0, earthRadius * Math.cos(minElevation) / r)) - minElevation;
+        if (useCoverageConstraint) {
+            double s = r * Math.sin(halfAngle) / earthRadius;
+            if (s < 1.0) {
+                lambda = Math.min(lambda, Math.asin(s) - halfAngle);
+            }
+        }
+        return Math.max(0.0, lambda) + CAP_MARGIN;
+    }
+
+    /**
+     * 单颗卫星的推进状态：上一步的可见终端（按索引位置升序）及其过境开始时刻。
+     */
+    private class Track {
+        private final int satId;
+        private final PositionVelocityProvider satellite;
+        private final AbsoluteDate start;
+        private final double[] position = new double[3];
+        // 卫星地固系坐标与大地天底方向
+        private double sx, sy, sz;
+        private double dx, dy, dz;
+        private int[] visible = new int[64];
+        private AbsoluteDate[] visibleSince = new AbsoluteDate[64];
+        private int visibleCount;
+        private int[] current = new int[64];
+        private AbsoluteDate[] currentSince = new AbsoluteDate[64];
+        private int currentCount;
+        private double previousOffset;
+        private final List<TerminalPass> passes = new ArrayList<>();
+        private long tests;
+        private long refinements;
+
+        Track(int satId, PositionVelocityProvider satellite, AbsoluteDate start) {
+            this.satId = satId;
+            this.satellite = satellite;
+            this.start = start;
+        }
+
+        void step(boolean first, double offset, StaticTransform transform) {
+            locate(start.shiftedBy(offset), transform);
+            // 1. 收集覆盖区内的可见终端（按索引位置升序）
+            currentCount = 0;
+            collect();
+            // 2. 与上一步归并比较，只处理状态翻转的终端
+            int i = 0;
+            int j = 0;
+            while (i < visibleCount || j < currentCount) {
+                int before = (i < visibleCount) ? visible[i] : Integer.MAX_VALUE;
+                int now = (j < currentCount) ? current[j] : Integer.MAX_VALUE;
+                if (before == now) {
+                    currentSince[j++] = visibleSince[i++];
+                } else if (now < before) {
+                    // 进入可见：第一步时以开始时刻为起点，否则在两步之间求根
+                    currentSince[j++] = first ? start : refine(now, offset, true);
+                } else {
+                    AbsoluteDate rise = visibleSince[i];
+                    AbsoluteDate set = refine(before, offset, false);
+                    passes.add(new TerminalPass(index.terminals[before], satId, rise, set, set.durationFrom(rise)));
+                    i++;
+                }
+            }
+            int[] swap = visible;
+            visible = current;
+            current = swap;
+            AbsoluteDate[] swapSince = visibleSince;
+            visibleSince = currentSince;
+            currentSince = swapSince;
+            visibleCount = currentCount;
+            previousOffset = offset;
+        }
+
+        void finish(AbsoluteDate end) {
+            for (int i = 0; i < visibleCount; i++) {
+                AbsoluteDate rise = visibleSince[i];
+                passes.add(new TerminalPass(index.terminals[visible[i]], satId, rise, null, end.durationFrom(rise)));
+            }
+        }
+
+        /**
+         * 求卫星在地固系中的位置与大地天底方向（Bowring 公式求大地纬度）。
+         */
+        private void locate(AbsoluteDate date, StaticTransform transform) {
+            satellite.getPosition(date, position);
+            Vector3D p = transform.transformPosition(new Vector3D(position[0], position[1], position[2]));
+            sx = p.getX();
+            sy = p.getY();
+            sz = p.getZ();
+            double horizontal = Math.sqrt(sx * sx + sy * sy);
+            double theta = Math.atan2(sz * A, horizontal * B);
+            double sinTheta = Math.sin(theta);
+            double cosTheta = Math.cos(theta);
+            double lat = Math.atan2(sz + EP2 * B * sinTheta * sinTheta * sinTheta,
+                    horizontal - E2 * A * cosTheta * cosTheta * cosTheta);
+            double lon = Math.atan2(sy, sx);
+            dx = -Math.cos(lat) * Math.cos(lon);
+            dy = -Math.cos(lat) * Math.sin(lon);
+            dz = -Math.sin(lat);
+        }
+
+        private boolean isVisible(int slot) {
+            double ux = sx - index.x[slot];
+            double uy = sy - index.y[slot];
+            double uz = sz - index.z[slot];
+            double distance = Math.sqrt(ux * ux + uy * uy + uz * uz);
+            // 仰角：视线与终端当地天顶方向（椭球法向）的夹角余角
+            double nx = index.nx[slot], ny = index.ny[slot], nz = index.nz[slot];
+            double up = ux * nx + uy * ny + uz * nz;
+            if (up < distance * sinMinElevation) {
+                return false;
+            }
+            // 遮挡模板：按方位角查表（东向、北向分量同乘以纬度余弦，不影响方位角）
+            AzimuthElevationMask mask = (index.masks != null) ? index.masks[slot] : null;
+            if (mask != null) {
+                double east = uy * nx - ux * ny;
+                double north = (nx * nx + ny * ny) * uz - nz * (ux * nx + uy * ny);
+                if (Math.asin(up / distance) < mask.elevation(Math.atan2(east, north))) {
+                    return false;
+                }
+            }
+            // 视场：终端方向与卫星天底方向的夹角不超过覆盖半角
+            return !useCoverageConstraint || -(ux * dx + uy * dy + uz * dz) >= distance * cosHalfAngle;
+        }
+
+        /**
+         * 取出覆盖区内各格网的终端并精确判定；按纬度环、环内经度区间升序遍历，结果即按索引位置升序。
+         */
+        private void collect() {
+            EqualAreaGrid grid = index.getGrid();
+            double r = Math.sqrt(sx * sx + sy * sy + sz * sz);
+            double lambda = capRadius(r);
+            if (lambda <= CAP_MARGIN && r <= index.getMinRadius()) {
+                return;
+            }
+            double latSat = Math.asin(sz / r);
+            double lonSat = Math.atan2(sy, sx);
+            double sinLatSat = Math.sin(latSat);
+            double cosLatSat = Math.cos(latSat);
+            double rowHeight = grid.getRowHeight();
+            // 环内任一点到环中心纬度的距离不超过半个环高，放大半径后按环中心纬度求经度范围即可覆盖整个环
+            double reach = lambda + rowHeight / 2;
+            double cosReach = Math.cos(Math.min(Math.PI, reach));
+            int rowMin = Math.max(0, (int) Math.ceil((latSat - reach + Math.PI / 2) / rowHeight - 0.5));
+            int rowMax = Math.min(grid.getRowCount() - 1,
+                    (int) Math.floor((latSat + reach + Math.PI / 2) / rowHeight - 0.5));
+            for (int row = rowMin; row <= rowMax; row++) {
+                int cells = grid.rowCells(row);
+                int rowFirst = grid.rowStart(row);
+                double phi = grid.rowLatitude(row);
+                double denominator = Math.cos(phi) * cosLatSat;
+                double c = (denominator > 0.0) ? (cosReach - Math.sin(phi) * sinLatSat) / denominator : -2.0;
+                if (c > 1.0) {
+                    continue;
+                }
+                if (c <= -1.0) {
+                    scan(rowFirst, rowFirst + cells);
+                    continue;
+                }
+                double halfWidth = Math.acos(c);
+                double width = 2 * Math.PI / cells;
+                int kMin = (int) Math.floor((lonSat - halfWidth + Math.PI) / width);
+                int kMax = (int) Math.floor((lonSat + halfWidth + Math.PI) / width);
+                if (kMax - kMin + 1 >= cells) {
+                    scan(rowFirst, rowFirst + cells);
+                    continue;
+                }
+                int from = Math.floorMod(kMin, cells);
+                int to = from + (kMax - kMin + 1);
+                if (to <= cells) {
+                    scan(rowFirst + from, rowFirst + to);
+                } else {
+                    // 跨越 ±180° 经线：先取环首的一段，保持升序
+                    scan(rowFirst, rowFirst + to - cells);
+                    scan(rowFirst + from, rowFirst + cells);
+                }
+            }
+        }
+
+        private void scan(int fromCell, int toCell) {
+            int end = index.cellOffsets[toCell];
+            for (int slot = index.cellOffsets[fromCell]; slot < end; slot++) {
+                tests++;
+                if (isVisible(slot)) {
+                    if (currentCount == current.length) {
+                        current = Arrays.copyOf(current, currentCount * 2);
+                        currentSince = Arrays.copyOf(currentSince, currentCount * 2);
+                    }
+                    current[currentCount++] = slot;
+                }
+            }
+        }
+
+        /**
+         * 在上一步与本步之间二分求可见状态翻转的时刻。
+         */
+        private AbsoluteDate refine(int slot, double offset, boolean rising) {
+            refinements++;
+            double saveX = sx, saveY = sy, saveZ = sz, saveDx = dx, saveDy = dy, saveDz = dz;
+            double lo = previousOffset;
+            double hi = offset;
+            while (hi - lo > threshold) {
+                double mid = 0.5 * (lo + hi);
+                AbsoluteDate date = start.shiftedBy(mid);
+                locate(date, inertialFrame.getStaticTransformTo(earthFrame, date));
+                if (isVisible(slot) == rising) {
+                    hi = mid;
+                } else {
+                    lo = mid;
+                }
+            }
+            sx = saveX;
+            sy = saveY;
+            sz = saveZ;
+            dx = saveDx;
+            dy = saveDy;
+            dz = saveDz;
+            return start.shiftedBy(0.5 * (lo + hi));
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.bupt.satviz.terminal;
+
+import com.bupt.satviz.model.TerminalPass;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * 地面终端可见性结果
+ * 全部过境窗口按终端编号、开始时间、卫星编号排序存放，另记录各终端窗口的起始位置，按终端取窗口无需查找。
+ */
+@Getter
+public class TerminalVisibilityResult {
+
+    private final int terminalCount;
+    private final List<TerminalPass> passes;
+    // 各终端在 passes 中的起始位置（长度 terminalCount + 1）
+    @Getter(AccessLevel.NONE)
+    private final int[] offsets;
+    // 精确判定的（卫星, 终端）组合数与窗口边界求根次数，用于观察计算量与被覆盖终端数的关系
+    private final long candidateTests;
+    private final long refinements;
+
+    TerminalVisibilityResult(int terminalCount, List<TerminalPass> passes, int[] offsets,
+                             long candidateTests, long refinements) {
+        this.terminalCount = terminalCount;
+        this.passes = passes;
+        this.offsets = offsets;
+        this.candidateTests = candidateTests;
+        this.refinements = refinements;
+    }
+
+    /**
+     * 终端的全部过境窗口（按开始时间排序）。
+     */
+    public List<TerminalPass> passesOf(int terminalId) {
+        return passes.subList(offsets[terminalId], offsets[terminalId + 1]);
+    }
+
+    /**
+     * 仿真时段内至少有一次过境的终端数。
+     */
+    public int accessedTerminalCount() {
+        int count = 0;
+        for (int t = 0; t < terminalCount; t++) {
+            if (offsets[t + 1] > offsets[t]) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 将全部过境窗口写入 CSV 文件，每个窗口一行：终端编号、卫星编号、开始时间、结束时间、持续时长。
+     */
+    public void writeCsv(Path file) throws IOException {
+        if (file.toAbsolutePath().getParent() != null) {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+        }
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+            out.println("terminal,satellite,start,end,duration");
+            for (TerminalPass pass : passes) {
+                out.println(pass.getTerminalId() + "," + pass.getSatId() + "," + pass.getStartTime() + ","
+                        + (pass.getEndTime() != null ? pass.getEndTime() : "") + ","
+                        + String.format("%.3f", pass.getDurationSeconds()));
+            }
+        }
+    }
+}
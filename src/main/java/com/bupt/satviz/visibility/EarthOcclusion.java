@@ -0,0 +1,63 @@
+package com.bupt.satviz.visibility;
+
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.orekit.frames.Frame;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.utils.Constants;
+
+/**
+ * 地球遮挡判断
+ * 以纯 double 运算判断两点连线是否与 WGS84 椭球相交，不构造 Line 等中间对象。
+ * 椭球绕自转轴对称，因此只需地球自转轴在惯性系中的方向即可在惯性系下完成判断，无需逐点坐标变换。
+ * 判断语义与 OneAxisEllipsoid.getIntersectionPoint(Line, ...) 一致：按无限长直线求交。
+ */
+final class EarthOcclusion {
+
+    static final double EQUATORIAL_RADIUS = Constants.WGS84_EARTH_EQUATORIAL_RADIUS;
+    // 沿自转轴方向的缩放系数 a/b，将椭球变换为半径为 a 的球
+    static final double POLAR_SCALE = 1.0 / (1.0 - Constants.WGS84_EARTH_FLATTENING);
+
+    private EarthOcclusion() {
+    }
+
+    /**
+     * 地球自转轴（地固系 +Z）在惯性系中的单位向量。
+     */
+    static Vector3D poleAxis(Frame earthFrame, Frame inertialFrame, AbsoluteDate date) {
+        return earthFrame.getStaticTransformTo(inertialFrame, date).transformVector(Vector3D.PLUS_K);
+    }
+
+    /**
+     * 判断两点连线是否被地球遮挡（坐标均在惯性系下，单位米）。
+     *
+     * @param k 地球自转轴单位向量，见 {@link #poleAxis}
+     * @return true 表示连线与地球椭球相交
+     */
+    static boolean isOccluded(double x1, double y1, double z1,
+                              double x2, double y2, double z2,
+                              Vector3D k) {
+        return isOccluded(x1, y1, z1, x2, y2, z2, k.getX(), k.getY(), k.getZ());
+    }
+
+    static boolean isOccluded(double x1, double y1, double z1,
+                              double x2, double y2, double z2,
+                              double kx, double ky, double kz) {
+        // 沿自转轴方向拉伸 a/b 倍，椭球变为球
+        double s = POLAR_SCALE - 1.0;
+        double p1 = s * (x1 * kx + y1 * ky + z1 * kz);
+        double sx1 = x1 + p1 * kx, sy1 = y1 + p1 * ky, sz1 = z1 + p1 * kz;
+        double p2 = s * (x2 * kx + y2 * ky + z2 * kz);
+        double dx = x2 + p2 * kx - sx1, dy = y2 + p2 * ky - sy1, dz = z2 + p2 * kz - sz1;
+        return isOccludedScaled(sx1, sy1, sz1, dx, dy, dz);
+    }
+
+    /**
+     * 已缩放坐标下的判别式检验：直线 p + t·d 与半径 a 的球相交当且仅当判别式非负。
+     */
+    static boolean isOccludedScaled(double px, double py, double pz, double dx, double dy, double dz) {
+        double pd = px * dx + py * dy + pz * dz;
+        double dd = dx * dx + dy * dy + dz * dz;
+        double pp = px * px + py * py + pz * pz;
+        return pd * pd - dd * (pp - EQUATORIAL_RADIUS * EQUATORIAL_RADIUS) >= 0.0;
+    }
+}
@@ -1,6 +1,12 @@
 package com.bupt.satviz.visibility;
 
 
+import com.bupt.satviz.calculation.FastKeplerPropagator;
+import com.bupt.satviz.calculation.PositionVelocityProvider;
+import com.bupt.satviz.calculation.ProviderPropagator;
+import com.bupt.satviz.config.ToleranceProfile;
+import com.bupt.satviz.model.AzimuthElevationMask;
+import com.bupt.satviz.model.GroundStation;
 import com.bupt.satviz.model.KeplerianElements;
 import com.bupt.satviz.model.VisibilityWindow;
 import org.hipparchus.geometry.euclidean.threed.Vector3D;
@@ -14,13 +20,15 @@ import org.orekit.frames.TopocentricFrame;
 import org.orekit.geometry.fov.CircularFieldOfView;
 import org.orekit.geometry.fov.FieldOfView;
 import org.orekit.models.earth.ReferenceEllipsoid;
-import org.orekit.orbits.KeplerianOrbit;
 import org.orekit.propagation.Propagator;
-import org.orekit.propagation.analytical.KeplerianPropagator;
+import org.orekit.propagation.SpacecraftState;
+import org.orekit.propagation.events.AbstractDetector;
+import org.orekit.propagation.events.AdaptableInterval;
 import org.orekit.propagation.events.BooleanDetector;
 import org.orekit.propagation.events.ElevationDetector;
 import org.orekit.propagation.events.EventDetector;
 import org.orekit.propagation.events.FieldOfViewDetector;
+import org.orekit.propagation.events.handlers.EventHandler;
 import org.orekit.propagation.events.handlers.RecordAndContinue;
 import org.orekit.time.AbsoluteDate;
 import org.orekit.utils.Constants;
@@ -40,6 +48,8 @@ public class GroundStationVisibilityAnalyzer {
     private double minElevationDeg;
     private double coverageHalfAngleDeg;
     private boolean useCoverageConstraint;
+    // 检测器容差（检查间隔、收敛阈值、最大迭代次数）
+    private ToleranceProfile tolerance;
 
     // 公共参考系与地球模型（统一使用 WGS84 椭球和 ITRF 地固系）
     private static final Frame inertialFrame = FramesFactory.getEME2000();
@@ -47,7 +57,13 @@ public class GroundStationVisibilityAnalyzer {
     private static final OneAxisEllipsoid earth = ReferenceEllipsoid.getWgs84(earthFrame);
 
     public GroundStationVisibilityAnalyzer(double minElevationDeg, double coverageHalfAngleDeg) {
+        this(minElevationDeg, coverageHalfAngleDeg, ToleranceProfile.precise());
+    }
+
+    public GroundStationVisibilityAnalyzer(double minElevationDeg, double coverageHalfAngleDeg,
+                                           ToleranceProfile tolerance) {
         this.minElevationDeg = minElevationDeg;
+        this.tolerance = tolerance;
         this.coverageHalfAngleDeg = coverageHalfAngleDeg;
         // 当覆盖半角小于 90° 时使用覆盖约束
         this.useCoverageConstraint = coverageHalfAngleDeg < 90.0;
@@ -69,11 +85,82 @@ public class GroundStationVisibilityAnalyzer {
                                                     AbsoluteDate start, AbsoluteDate end,
                                                     double stationLatDeg, double stationLonDeg, double stationAlt)
             throws OrekitException {
-        // 1. 构造卫星轨道和传播器
-        KeplerianOrbit orbit = orbitElem.toOrbit(inertialFrame, Constants.WGS84_EARTH_MU);
-        Propagator propagator = new KeplerianPropagator(orbit);
+        // 1. 构造卫星传播器（闭式解开普勒传播器包装为 Orekit 传播器）
+        Propagator propagator = keplerPropagator(orbitElem, start);
+        return computeVisibility(propagator, start, end, stationLatDeg, stationLonDeg, stationAlt, null);
+    }
+
+    /**
+     * 计算卫星与地面站在指定时间段内的可见性窗口，地面站配置了遮挡模板时按方位角取最小仰角
+     *
+     * @param orbitElem 卫星轨道参数（KeplerianElements）
+     * @param start     开始时间
+     * @param end       结束时间
+     * @param station   地面站（坐标与可选的遮挡模板）
+     * @return 可见性窗口列表
+     * @throws OrekitException
+     */
+    public List<VisibilityWindow> computeVisibility(KeplerianElements orbitElem,
+                                                    AbsoluteDate start, AbsoluteDate end, GroundStation station)
+            throws OrekitException {
+        Propagator propagator = keplerPropagator(orbitElem, start);
+        return computeVisibility(propagator, start, end, station.lat, station.lon, station.alt, station.mask);
+    }
+
+    /**
+     * 计算卫星与地面站在指定时间段内的可见性窗口，卫星位置来自预计算星历等数据源
+     *
+     * @param satellite     卫星位置速度数据源（EME2000）
+     * @param start         开始时间
+     * @param end           结束时间
+     * @param stationLatDeg 地面站纬度（度）
+     * @param stationLonDeg 地面站经度（度）
+     * @param stationAlt    地面站海拔（米）
+     * @return 可见性窗口列表
+     * @throws OrekitException
+     */
+    public List<VisibilityWindow> computeVisibility(PositionVelocityProvider satellite,
+                                                    AbsoluteDate start, AbsoluteDate end,
+                                                    double stationLatDeg, double stationLonDeg, double stationAlt)
+            throws OrekitException {
+        Propagator propagator = new ProviderPropagator(satellite, start, inertialFrame, Constants.WGS84_EARTH_MU);
+        return computeVisibility(propagator, start, end, stationLatDeg, stationLonDeg, stationAlt, null);
+    }
+
+    /**
+     * 计算卫星与地面站在指定时间段内的可见性窗口，卫星位置来自预计算星历等数据源，地面站可带遮挡模板
+     *
+     * @param satellite 卫星位置速度数据源（EME2000）
+     * @param start     开始时间
+     * @param end       结束时间
+     * @param station   地面站（坐标与可选的遮挡模板）
+     * @return 可见性窗口列表
+     * @throws OrekitException
+     */
+    public List<VisibilityWindow> computeVisibility(PositionVelocityProvider satellite,
+                                                    AbsoluteDate start, AbsoluteDate end, GroundStation station)
+            throws OrekitException {
+        Propagator propagator = new ProviderPropagator(satellite, start, inertialFrame, Constants.WGS84_EARTH_MU);
+        return computeVisibility(propagator, start, end, station.lat, station.lon, station.alt, station.mask);
+    }
+
+    /**
+     * 闭式解开普勒传播器包装为 Orekit 传播器，每次求值不再经过 KeplerianOrbit 的根数换算。
+     */
+    private static Propagator keplerPropagator(KeplerianElements orbitElem, AbsoluteDate start) {
+        return new ProviderPropagator(new FastKeplerPropagator(orbitElem, Constants.WGS84_EARTH_MU),
+                start, inertialFrame, Constants.WGS84_EARTH_MU);
+    }
+
+    private List<VisibilityWindow> computeVisibility(Propagator propagator,
+                                                     AbsoluteDate start, AbsoluteDate end,
+                                                     double stationLatDeg, double stationLonDeg, double stationAlt,
+                                                     AzimuthElevationMask mask) {
         // 设置卫星姿态为对地定向即卫星始终以机体坐标系的+Z轴指向地球中心
-        propagator.setAttitudeProvider(new NadirPointing(inertialFrame, earth));
+        // 姿态仅供视场检测器使用，不启用覆盖约束时保留默认姿态，省去每步的对地定向计算
+        if (useCoverageConstraint) {
+            propagator.setAttitudeProvider(new NadirPointing(inertialFrame, earth));
+        }
 
         // 2. 构造地面站 TopocentricFrame，以地面站为原点，本地水平面为参考，用于仰角和视线计算
         GeodeticPoint stationGeo = new GeodeticPoint(Math.toRadians(stationLatDeg),
@@ -84,8 +171,10 @@ public class GroundStationVisibilityAnalyzer {
         // 3. 定义 ElevationDetector，要求仰角大于 minElevationDeg
         // 这里的仰角是指卫星与地面站之间的视线与地平面的夹角
         // 设置所需的最小仰角角度（例如0度表示刚过地平线即算可见，ElevationDetector 的 g 函数在卫星过地平线时由负变正触发事件。）
-        ElevationDetector elevDet = new ElevationDetector(stationFrame)
-                .withConstantElevation(Math.toRadians(minElevationDeg));
+        // 配置了遮挡模板时最小仰角随方位角变化（且不低于 minElevationDeg），改用查表的仰角检测器
+        AbstractDetector<?> elevDet = (mask == null)
+                ? new ElevationDetector(stationFrame).withConstantElevation(Math.toRadians(minElevationDeg))
+                : new MaskedElevationDetector(stationFrame, Math.toRadians(minElevationDeg), mask);
 
         // 4. 定义 FieldOfViewDetector（覆盖半角）
         // 例如：半角45°表示只有当卫星与地面站的视线在卫星本地垂直方向45°以内时才算在可覆盖范围内。
@@ -101,22 +190,29 @@ public class GroundStationVisibilityAnalyzer {
         EventDetector visibilityDetector;
         if (useCoverageConstraint) {
             visibilityDetector = BooleanDetector.andCombine(elevDet, BooleanDetector.notCombine(fovDet))
-                    .withMaxCheck(60.0).withThreshold(1e-6)
+                    .withMaxCheck(tolerance.getGroundMaxCheck()).withThreshold(tolerance.getGroundThreshold())
+                    .withMaxIter(tolerance.getMaxIter())
                     .withHandler(new RecordAndContinue());
         } else {
-            visibilityDetector = elevDet.withMaxCheck(60.0).withThreshold(1e-6)
+            visibilityDetector = elevDet.withMaxCheck(tolerance.getGroundMaxCheck())
+                    .withThreshold(tolerance.getGroundThreshold())
+                    .withMaxIter(tolerance.getMaxIter())
                     .withHandler(new RecordAndContinue());
         }
 
-        // 6. 将检测器添加到传播器，并传播卫星运动
+        // 6. 检查开始时刻是否已处于可见状态：开始时刻可见的窗口没有上升事件，需以 start 作为窗口起点
+        //    在挂载检测器之前求出 start 时刻的状态（传播器的初始状态位于轨道历元，不一定是 start）
+        SpacecraftState initState = propagator.propagate(start);
+        AbsoluteDate windowStart = (visibilityDetector.g(initState) > 0) ? start : null;
+
+        // 7. 将检测器添加到传播器，并传播卫星运动
         propagator.addEventDetector(visibilityDetector);
         propagator.propagate(start, end);
 
-        // 7. 从事件处理器中获取事件记录，生成可见性窗口列表
+        // 8. 从事件处理器中获取事件记录，生成可见性窗口列表
         RecordAndContinue handler = (RecordAndContinue) visibilityDetector.getHandler();
         List<RecordAndContinue.Event> events = handler.getEvents();
         List<VisibilityWindow> windows = new ArrayList<>();
-        AbsoluteDate windowStart = null;
         for (RecordAndContinue.Event ev : events) {
             if (ev.isIncreasing()) {
                 windowStart = ev.getState().getDate();
@@ -137,4 +233,43 @@ public class GroundStationVisibilityAnalyzer {
         return windows;
     }
 
-}
\ No newline at end of file
+    /**
+     * 带遮挡模板的仰角检测器：g = 仰角 − max(最小仰角, 模板在卫星方位角处的仰角)。
+     * 每次求值只做一次到站心坐标系的变换，模板按方位角直接查表插值。
+     */
+    private static class MaskedElevationDetector extends AbstractDetector<MaskedElevationDetector> {
+        private final TopocentricFrame stationFrame;
+        private final double minElevation;
+        private final AzimuthElevationMask mask;
+
+        MaskedElevationDetector(TopocentricFrame stationFrame, double minElevation, AzimuthElevationMask mask,
+                                AdaptableInterval maxCheck, double threshold, int maxIter, EventHandler handler) {
+            super(maxCheck, threshold, maxIter, handler);
+            this.stationFrame = stationFrame;
+            this.minElevation = minElevation;
+            this.mask = mask;
+        }
+
+        MaskedElevationDetector(TopocentricFrame stationFrame, double minElevation, AzimuthElevationMask mask) {
+            this(stationFrame, minElevation, mask, state -> AbstractDetector.DEFAULT_MAXCHECK,
+                    AbstractDetector.DEFAULT_THRESHOLD, AbstractDetector.DEFAULT_MAX_ITER, new RecordAndContinue());
+        }
+
+        @Override
+        public double g(SpacecraftState state) {
+            // 站心坐标系：x 指向东、y 指向北、z 指向天顶
+            Vector3D p = state.getFrame().getStaticTransformTo(stationFrame, state.getDate())
+                    .transformPosition(state.getPosition());
+            double elevation = Math.asin(p.getZ() / p.getNorm());
+            double azimuth = Math.atan2(p.getX(), p.getY());
+            return elevation - Math.max(minElevation, mask.elevation(azimuth));
+        }
+
+        @Override
+        protected MaskedElevationDetector create(AdaptableInterval newMaxCheck, double newThreshold,
+                                                 int newMaxIter, EventHandler newHandler) {
+            return new MaskedElevationDetector(stationFrame, minElevation, mask, newMaxCheck, newThreshold,
+                    newMaxIter, newHandler);
+        }
+    }
+}
@@ -1,18 +1,18 @@
 package com.bupt.satviz.visibility;
 
 
+import com.bupt.satviz.calculation.FastKeplerPropagator;
+import com.bupt.satviz.calculation.PositionVelocityProvider;
+import com.bupt.satviz.calculation.ProviderPropagator;
+import com.bupt.satviz.config.ToleranceProfile;
 import com.bupt.satviz.model.KeplerianElements;
 import com.bupt.satviz.model.VisibilityWindow;
-import org.hipparchus.geometry.euclidean.threed.Line;
 import org.hipparchus.geometry.euclidean.threed.Vector3D;
-import org.orekit.bodies.OneAxisEllipsoid;
 import org.orekit.errors.OrekitException;
 import org.orekit.frames.Frame;
 import org.orekit.frames.FramesFactory;
-import org.orekit.orbits.KeplerianOrbit;
 import org.orekit.propagation.Propagator;
 import org.orekit.propagation.SpacecraftState;
-import org.orekit.propagation.analytical.KeplerianPropagator;
 import org.orekit.propagation.events.AbstractDetector;
 import org.orekit.propagation.events.AdaptableInterval;
 import org.orekit.propagation.events.BooleanDetector;
@@ -36,17 +36,20 @@ public class InterSatelliteVisibilityAnalyzer {
 
     // 最大允许距离（单位：米）
     private double maxDistance;
+    // 检测器容差（检查间隔、收敛阈值、最大迭代次数）
+    private ToleranceProfile tolerance;
 
-    // 公共参考系和地球模型
+    // 公共参考系（地球椭球模型见 EarthOcclusion）
     private static final Frame inertialFrame = FramesFactory.getEME2000();
     private static final Frame earthFrame = FramesFactory.getITRF(IERSConventions.IERS_2010, true);
-    private static final OneAxisEllipsoid earth = new OneAxisEllipsoid(
-            Constants.WGS84_EARTH_EQUATORIAL_RADIUS,
-            Constants.WGS84_EARTH_FLATTENING,
-            earthFrame);
 
     public InterSatelliteVisibilityAnalyzer(double maxDistance) {
+        this(maxDistance, ToleranceProfile.precise());
+    }
+
+    public InterSatelliteVisibilityAnalyzer(double maxDistance, ToleranceProfile tolerance) {
         this.maxDistance = maxDistance;
+        this.tolerance = tolerance;
     }
 
     /**
@@ -63,32 +66,58 @@ public class InterSatelliteVisibilityAnalyzer {
                                                     KeplerianElements orbitElem2,
                                                     AbsoluteDate start, AbsoluteDate end)
             throws OrekitException {
-        // 1. 构造两颗卫星的轨道和传播器
-        KeplerianOrbit orbit1 = orbitElem1.toOrbit(inertialFrame, Constants.WGS84_EARTH_MU);
-        KeplerianOrbit orbit2 = orbitElem2.toOrbit(inertialFrame, Constants.WGS84_EARTH_MU);
-        Propagator propagator1 = new KeplerianPropagator(orbit1);
-        Propagator propagator2 = new KeplerianPropagator(orbit2);
+        // 1. 构造两颗卫星的传播器，均使用闭式解传播器
+        // 卫星1包装为 Orekit 传播器驱动事件检测；卫星2只在检测器 g 函数中被求值，不构造 SpacecraftState
+        Propagator propagator1 = new ProviderPropagator(new FastKeplerPropagator(orbitElem1, Constants.WGS84_EARTH_MU),
+                start, inertialFrame, Constants.WGS84_EARTH_MU);
+        FastKeplerPropagator propagator2 = new FastKeplerPropagator(orbitElem2, Constants.WGS84_EARTH_MU);
+        return computeVisibility(propagator1, propagator2, start, end);
+    }
 
+    /**
+     * 计算两颗卫星在指定时间段内的可见性窗口，卫星位置来自预计算星历等数据源
+     *
+     * @param satellite1 卫星1位置速度数据源（EME2000）
+     * @param satellite2 卫星2位置速度数据源（EME2000）
+     * @param start      开始时间
+     * @param end        结束时间
+     * @return 可见性窗口列表
+     * @throws OrekitException
+     */
+    public List<VisibilityWindow> computeVisibility(PositionVelocityProvider satellite1,
+                                                    PositionVelocityProvider satellite2,
+                                                    AbsoluteDate start, AbsoluteDate end)
+            throws OrekitException {
+        Propagator propagator1 = new ProviderPropagator(satellite1, start, inertialFrame, Constants.WGS84_EARTH_MU);
+        return computeVisibility(propagator1, satellite2, start, end);
+    }
+
+    private List<VisibilityWindow> computeVisibility(Propagator propagator1, PositionVelocityProvider propagator2,
+                                                     AbsoluteDate start, AbsoluteDate end) {
         // 2. 定义自定义事件检测器：
         // 2.1 视线无遮挡检测器
-        LineOfSightDetector losDetector = new LineOfSightDetector(propagator2, earth)
-                .withMaxCheck(10.0).withThreshold(1e-6);
+        // 组合检测器取子检测器中最小的检查间隔与阈值，因此容差设置在子检测器上
+        LineOfSightDetector losDetector = new LineOfSightDetector(propagator2)
+                .withMaxCheck(tolerance.getInterMaxCheck()).withThreshold(tolerance.getInterThreshold())
+                .withMaxIter(tolerance.getMaxIter());
         // 2.2 最大距离检测器
         MaxRangeDetector rangeDetector = new MaxRangeDetector(propagator2, maxDistance)
-                .withMaxCheck(10.0).withThreshold(1e-6);
+                .withMaxCheck(tolerance.getInterMaxCheck()).withThreshold(tolerance.getInterThreshold())
+                .withMaxIter(tolerance.getMaxIter());
 
         // 3. 组合两个检测器（逻辑与）
         EventDetector combinedDetector = BooleanDetector.andCombine(losDetector, rangeDetector)
                 .withHandler(new RecordAndContinue());
 
+        // 检查开始时刻是否已经满足可见条件
+        // 在挂载检测器之前求出 start 时刻的状态：传播器的初始状态位于轨道历元，不一定是 start
+        SpacecraftState initState = propagator1.propagate(start);
+        // 如果开始时刻满足条件，则以 start 作为窗口起点
+        AbsoluteDate windowStart = (combinedDetector.g(initState) > 0) ? start : null;
+
         // 4. 将组合检测器添加到卫星1的传播器中
         propagator1.addEventDetector(combinedDetector);
 
-        // 检查初始状态是否已经满足可见条件
-        SpacecraftState initState = propagator1.getInitialState();
-        // 如果初始状态满足条件，则记录窗口起点
-        AbsoluteDate windowStart = (combinedDetector.g(initState) > 0) ? initState.getDate() : null;
-
         // 5. 传播卫星状态（事件会被记录）
         propagator1.propagate(start, end);
 
@@ -122,64 +151,71 @@ public class InterSatelliteVisibilityAnalyzer {
 
     // 遮挡检测器
     private static class LineOfSightDetector extends AbstractDetector<LineOfSightDetector> {
-        private final Propagator otherSatProp;
-        private final OneAxisEllipsoid earth;
+        private final PositionVelocityProvider otherSatProp;
+        // g 函数求值缓冲区，检测器仅在所属传播器的线程内被调用
+        private final double[] otherPos = new double[3];
 
         // 新构造器：传入所有参数
-        public LineOfSightDetector(Propagator otherSatProp, OneAxisEllipsoid earth,
+        public LineOfSightDetector(PositionVelocityProvider otherSatProp,
                                    AdaptableInterval maxCheck, double threshold, int maxIter, EventHandler handler) {
             super(maxCheck, threshold, maxIter, handler);
             this.otherSatProp = otherSatProp;
-            this.earth = earth;
         }
 
         // 原有构造器调用默认参数
-        public LineOfSightDetector(Propagator otherSatProp, OneAxisEllipsoid earth) {
-            this(otherSatProp, earth, state -> AbstractDetector.DEFAULT_MAXCHECK, 1e-3, 100, new RecordAndContinue());
+        public LineOfSightDetector(PositionVelocityProvider otherSatProp) {
+            this(otherSatProp, state -> AbstractDetector.DEFAULT_MAXCHECK, 1e-3, 100, new RecordAndContinue());
         }
 
         @Override
         public double g(SpacecraftState state) {
             AbsoluteDate t = state.getDate();
-            Vector3D pos1 = state.getPVCoordinates(earthFrame).getPosition();
-            Vector3D pos2 = otherSatProp.propagate(t).getPVCoordinates(earthFrame).getPosition();
-            if (pos1.distance(pos2) < 1e-6) {
+            Vector3D pos1 = state.getPosition();
+            otherSatProp.getPosition(t, otherPos);
+            double dx = otherPos[0] - pos1.getX();
+            double dy = otherPos[1] - pos1.getY();
+            double dz = otherPos[2] - pos1.getZ();
+            if (dx * dx + dy * dy + dz * dz < 1e-12) {
                 // 两卫星几乎重合时，直接返回1.0避免归一化错误
                 return 1.0;
             }
-            Line line = new Line(pos1, pos2, 1e-3);
             // 若地球与连线无交点，则视线无遮挡
-            return earth.getIntersectionPoint(line, pos1, earthFrame, t) == null ? 1.0 : -1.0;
+            Vector3D pole = EarthOcclusion.poleAxis(earthFrame, inertialFrame, t);
+            return EarthOcclusion.isOccluded(pos1.getX(), pos1.getY(), pos1.getZ(),
+                    otherPos[0], otherPos[1], otherPos[2], pole) ? -1.0 : 1.0;
         }
 
         @Override
         protected LineOfSightDetector create(AdaptableInterval newMaxCheck, double newThreshold,
                                              int newMaxIter, EventHandler newHandler) {
-            return new LineOfSightDetector(otherSatProp, earth, newMaxCheck, newThreshold, newMaxIter, newHandler);
+            return new LineOfSightDetector(otherSatProp, newMaxCheck, newThreshold, newMaxIter, newHandler);
         }
     }
     // 最大距离探测器
     private static class MaxRangeDetector extends AbstractDetector<MaxRangeDetector> {
-        private final Propagator otherSatProp;
+        private final PositionVelocityProvider otherSatProp;
         private final double maxDistance;
+        private final double[] otherPos = new double[3];
 
-        public MaxRangeDetector(Propagator otherSatProp, double maxDistance,
+        public MaxRangeDetector(PositionVelocityProvider otherSatProp, double maxDistance,
                                 AdaptableInterval maxCheck, double threshold, int maxIter, EventHandler handler) {
             super(maxCheck, threshold, maxIter, handler);
             this.otherSatProp = otherSatProp;
             this.maxDistance = maxDistance;
         }
 
-        public MaxRangeDetector(Propagator otherSatProp, double maxDistance) {
+        public MaxRangeDetector(PositionVelocityProvider otherSatProp, double maxDistance) {
             this(otherSatProp, maxDistance, state -> AbstractDetector.DEFAULT_MAXCHECK, 1e-3, 100, new RecordAndContinue());
         }
 
         @Override
         public double g(SpacecraftState state) {
-            AbsoluteDate t = state.getDate();
-            Vector3D pos1 = state.getPVCoordinates(inertialFrame).getPosition();
-            Vector3D pos2 = otherSatProp.propagate(t).getPVCoordinates(inertialFrame).getPosition();
-            double distance = pos1.distance(pos2);
+            Vector3D pos1 = state.getPosition();
+            otherSatProp.getPosition(state.getDate(), otherPos);
+            double dx = otherPos[0] - pos1.getX();
+            double dy = otherPos[1] - pos1.getY();
+            double dz = otherPos[2] - pos1.getZ();
+            double distance = Math.sqrt(dx * dx + dy * dy + dz * dz);
             return maxDistance - distance;
         }
 
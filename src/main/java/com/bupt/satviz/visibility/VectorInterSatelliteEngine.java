@@ -0,0 +1,311 @@
+package com.bupt.satviz.visibility;
+
+import com.bupt.satviz.calculation.FastKeplerPropagator;
+import com.bupt.satviz.calculation.PositionVelocityProvider;
+import com.bupt.satviz.model.KeplerianElements;
+import com.bupt.satviz.model.SatResult;
+import com.bupt.satviz.model.VisibilityWindow;
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.orekit.frames.Frame;
+import org.orekit.frames.FramesFactory;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.utils.Constants;
+import org.orekit.utils.IERSConventions;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 卫星–卫星可见性批量计算引擎（SIMD 版本）
+ * 与 InterSatelliteVisibilityAnalyzer 的判定条件一致（距离不超过阈值且连线不被地球遮挡），
+ * 但不再逐对运行 Orekit 事件检测器，而是按固定时间步长：
+ * 1. 将所有卫星位置以结构数组（SoA）形式一次性算出；
+ * 2. 使用 jdk.incubator.vector 按 SIMD 通道批量计算所有卫星对的距离平方与遮挡判别式；
+ * 3. 仅对可见状态发生翻转的卫星对，在相邻两步之间求根精化窗口边界。
+ * 时间步长的作用与检测器的 maxCheck 相同：短于一个步长的窗口可能被漏检。
+ * 运行时需要添加 JVM 参数 --add-modules jdk.incubator.vector。
+ */
+public class VectorInterSatelliteEngine {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+    // 两卫星几乎重合时视为可见，与 LineOfSightDetector 保持一致
+    private static final double COINCIDENT_DISTANCE_SQ = 1e-12;
+
+    private static final Frame inertialFrame = FramesFactory.getEME2000();
+    private static final Frame earthFrame = FramesFactory.getITRF(IERSConventions.IERS_2010, true);
+
+    private final double maxDistance;
+    private final double stepSeconds;
+    private final double threshold;
+
+    /**
+     * @param maxDistance 最大允许距离（米）
+     * @param stepSeconds 采样步长（秒）
+     * @param threshold   窗口边界的时间精度（秒）
+     */
+    public VectorInterSatelliteEngine(double maxDistance, double stepSeconds, double threshold) {
+        this.maxDistance = maxDistance;
+        this.stepSeconds = stepSeconds;
+        this.threshold = threshold;
+    }
+
+    /**
+     * 计算所有卫星对在指定时间段内的可见性窗口。
+     * 结果中每颗卫星只记录与编号更大的卫星之间的窗口；与逐对检测器一致，每个卫星对都有条目，无窗口时为空列表。
+     *
+     * @param orbits 所有卫星轨道元素列表
+     * @param start  开始时间
+     * @param end    结束时间
+     * @return 每颗卫星的卫星间可见性结果列表（按卫星编号排列）
+     */
+    public List<SatResult> computeVisibility(List<KeplerianElements> orbits,
+                                             AbsoluteDate start, AbsoluteDate end) {
+        List<FastKeplerPropagator> props = new ArrayList<>(orbits.size());
+        for (KeplerianElements orbit : orbits) {
+            props.add(new FastKeplerPropagator(orbit, Constants.WGS84_EARTH_MU));
+        }
+        return computeVisibilityFromEphemerides(props, start, end);
+    }
+
+    /**
+     * 与 {@link #computeVisibility} 相同，但卫星位置来自预计算星历等数据源。
+     *
+     * @param satellites 所有卫星的位置速度数据源（EME2000），顺序即卫星编号
+     * @param start      开始时间
+     * @param end        结束时间
+     * @return 每颗卫星的卫星间可见性结果列表（按卫星编号排列）
+     */
+    public List<SatResult> computeVisibilityFromEphemerides(List<? extends PositionVelocityProvider> satellites,
+                                                            AbsoluteDate start, AbsoluteDate end) {
+        int[] rows = new int[Math.max(satellites.size() - 1, 0)];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = i;
+        }
+        return computeRows(satellites, start, end, rows);
+    }
+
+    /**
+     * 只计算指定行的卫星对：行 i 包含全部卫星对 (i, j)（j > i）。
+     * 各卫星对的计算互不影响，每一行的结果与整体计算时完全相同，因此可以把各行分给不同的线程或进程。
+     *
+     * @param satellites 所有卫星的位置速度数据源（EME2000），顺序即卫星编号
+     * @param start      开始时间
+     * @param end        结束时间
+     * @param rows       要计算的行（卫星编号）
+     * @return 每颗卫星的卫星间可见性结果列表（按卫星编号排列），不在 rows 中的卫星没有卫星间条目
+     */
+    public List<SatResult> computeRows(List<? extends PositionVelocityProvider> satellites,
+                                       AbsoluteDate start, AbsoluteDate end, int[] rows) {
+        int n = satellites.size();
+        PositionVelocityProvider[] props = satellites.toArray(new PositionVelocityProvider[0]);
+        List<SatResult> results = new ArrayList<>(n);
+        for (int s = 0; s < n; s++) {
+            results.add(new SatResult(s));
+        }
+        for (int i : rows) {
+            for (int other = i + 1; other < n; other++) {
+                results.get(i).addInterSatelliteResult(other, new ArrayList<>());
+            }
+        }
+
+        // 位置的结构数组：原始惯性系坐标 + 沿自转轴缩放后的坐标
+        double[] x = new double[n], y = new double[n], z = new double[n];
+        double[] sx = new double[n], sy = new double[n], sz = new double[n];
+        double[] pp = new double[n];
+        double[] buffer = new double[3];
+        double[] refineBuffer = new double[3];
+
+        // 每对卫星的可见状态位图：第 i 行第 j 位表示 (i, j) 是否可见
+        int wordsPerRow = (n + 63) >>> 6;
+        long[] state = new long[n * wordsPerRow];
+        // 当前处于可见状态的卫星对的窗口起点，键为 i * n + j
+        Map<Long, AbsoluteDate> openWindows = new HashMap<>();
+
+        double duration = end.durationFrom(start);
+        int steps = (int) Math.ceil(duration / stepSeconds);
+        double previousOffset = 0.0;
+        for (int k = 0; k <= steps; k++) {
+            double offset = Math.min(k * stepSeconds, duration);
+            AbsoluteDate date = start.shiftedBy(offset);
+            Vector3D pole = EarthOcclusion.poleAxis(earthFrame, inertialFrame, date);
+            fillPositions(props, date, pole, buffer, x, y, z, sx, sy, sz, pp);
+
+            for (int i : rows) {
+                if (i >= n - 1) {
+                    continue;
+                }
+                int rowBase = i * wordsPerRow;
+                int lanes = SPECIES.length();
+                for (int j = ((i + 1) / lanes) * lanes; j < n; j += lanes) {
+                    long bits = visibleLanes(i, j, n, x, y, z, sx, sy, sz, pp);
+                    // 屏蔽 j <= i 的通道（行内对齐起点之前的部分）
+                    if (j <= i) {
+                        bits &= -1L << (i + 1 - j);
+                    }
+                    int word = rowBase + (j >>> 6);
+                    int shift = j & 63;
+                    long laneMask = (lanes == 64 ? -1L : (1L << lanes) - 1) << shift;
+                    long previous = (state[word] & laneMask) >>> shift;
+                    long changed = previous ^ bits;
+                    if (changed == 0) {
+                        continue;
+                    }
+                    state[word] = (state[word] & ~laneMask) | (bits << shift);
+                    while (changed != 0) {
+                        int lane = Long.numberOfTrailingZeros(changed);
+                        changed &= changed - 1;
+                        int other = j + lane;
+                        boolean nowVisible = ((bits >>> lane) & 1L) != 0;
+                        AbsoluteDate edge = (k == 0) ? start
+                                : refineEdge(props[i], props[other],
+                                             start, previousOffset, offset, pole, buffer, refineBuffer);
+                        long key = (long) i * n + other;
+                        if (nowVisible) {
+                            openWindows.put(key, edge);
+                        } else {
+                            AbsoluteDate windowStart = openWindows.remove(key);
+                            addWindow(results.get(i), other,
+                                    new VisibilityWindow(windowStart, edge, edge.durationFrom(windowStart)));
+                        }
+                    }
+                }
+            }
+            previousOffset = offset;
+        }
+
+        // 传播结束时仍处于可见状态的窗口，结束时间为 null
+        for (Map.Entry<Long, AbsoluteDate> entry : openWindows.entrySet()) {
+            int i = (int) (entry.getKey() / n);
+            int other = (int) (entry.getKey() % n);
+            AbsoluteDate windowStart = entry.getValue();
+            addWindow(results.get(i), other, new VisibilityWindow(windowStart, null, end.durationFrom(windowStart)));
+        }
+        return results;
+    }
+
+    private static void fillPositions(PositionVelocityProvider[] props, AbsoluteDate date,
+                                      Vector3D pole, double[] buffer,
+                                      double[] x, double[] y, double[] z,
+                                      double[] sx, double[] sy, double[] sz, double[] pp) {
+        double kx = pole.getX(), ky = pole.getY(), kz = pole.getZ();
+        double scale = EarthOcclusion.POLAR_SCALE - 1.0;
+        double r2 = EarthOcclusion.EQUATORIAL_RADIUS * EarthOcclusion.EQUATORIAL_RADIUS;
+        for (int s = 0; s < props.length; s++) {
+            props[s].getPosition(date, buffer);
+            x[s] = buffer[0];
+            y[s] = buffer[1];
+            z[s] = buffer[2];
+            double p = scale * (buffer[0] * kx + buffer[1] * ky + buffer[2] * kz);
+            sx[s] = buffer[0] + p * kx;
+            sy[s] = buffer[1] + p * ky;
+            sz[s] = buffer[2] + p * kz;
+            pp[s] = sx[s] * sx[s] + sy[s] * sy[s] + sz[s] * sz[s] - r2;
+        }
+    }
+
+    /**
+     * 以 SIMD 方式计算卫星 i 与卫星 j..j+lanes-1 的可见性，返回按通道排列的位掩码。
+     */
+    private long visibleLanes(int i, int j, int n,
+                              double[] x, double[] y, double[] z,
+                              double[] sx, double[] sy, double[] sz, double[] pp) {
+        VectorMask<Double> inRange = SPECIES.indexInRange(j, n);
+
+        DoubleVector dx = DoubleVector.fromArray(SPECIES, x, j, inRange).sub(x[i]);
+        DoubleVector dy = DoubleVector.fromArray(SPECIES, y, j, inRange).sub(y[i]);
+        DoubleVector dz = DoubleVector.fromArray(SPECIES, z, j, inRange).sub(z[i]);
+        DoubleVector d2 = dx.mul(dx).add(dy.mul(dy)).add(dz.mul(dz));
+
+        // 遮挡判别式：disc = (p·d)^2 - |d|^2 (|p|^2 - a^2)，disc >= 0 表示连线与地球相交
+        DoubleVector ex = DoubleVector.fromArray(SPECIES, sx, j, inRange).sub(sx[i]);
+        DoubleVector ey = DoubleVector.fromArray(SPECIES, sy, j, inRange).sub(sy[i]);
+        DoubleVector ez = DoubleVector.fromArray(SPECIES, sz, j, inRange).sub(sz[i]);
+        DoubleVector pd = ex.mul(sx[i]).add(ey.mul(sy[i])).add(ez.mul(sz[i]));
+        DoubleVector dd = ex.mul(ex).add(ey.mul(ey)).add(ez.mul(ez));
+        DoubleVector disc = pd.mul(pd).sub(dd.mul(pp[i]));
+
+        VectorMask<Double> inDistance = d2.compare(VectorOperators.LE, maxDistance * maxDistance);
+        VectorMask<Double> clear = disc.compare(VectorOperators.LT, 0.0)
+                .or(d2.compare(VectorOperators.LT, COINCIDENT_DISTANCE_SQ));
+        return inDistance.and(clear).and(inRange).toLong();
+    }
+
+    /**
+     * 标量版本的可见性裕度，单位为米：min(最大距离 - 距离, 连线到地心的缩放距离 - 赤道半径)。
+     * 裕度为正与 {@link #visibleLanes} 判定可见等价，且随时间连续变化，便于求根。
+     */
+    private double visibilityMargin(double[] p1, double[] p2, Vector3D pole) {
+        double dx = p2[0] - p1[0], dy = p2[1] - p1[1], dz = p2[2] - p1[2];
+        double d2 = dx * dx + dy * dy + dz * dz;
+        double rangeMargin = maxDistance - Math.sqrt(d2);
+        if (d2 < COINCIDENT_DISTANCE_SQ) {
+            return rangeMargin;
+        }
+        // 缩放空间中地心到连线的距离 h，满足 h^2 = |p|^2 - (p·d)^2 / |d|^2
+        double kx = pole.getX(), ky = pole.getY(), kz = pole.getZ();
+        double scale = EarthOcclusion.POLAR_SCALE - 1.0;
+        double s1 = scale * (p1[0] * kx + p1[1] * ky + p1[2] * kz);
+        double s2 = scale * (p2[0] * kx + p2[1] * ky + p2[2] * kz);
+        double px = p1[0] + s1 * kx, py = p1[1] + s1 * ky, pz = p1[2] + s1 * kz;
+        double ex = dx + (s2 - s1) * kx, ey = dy + (s2 - s1) * ky, ez = dz + (s2 - s1) * kz;
+        double pd = px * ex + py * ey + pz * ez;
+        double h2 = px * px + py * py + pz * pz - pd * pd / (ex * ex + ey * ey + ez * ez);
+        double occlusionMargin = Math.sqrt(Math.max(h2, 0.0)) - EarthOcclusion.EQUATORIAL_RADIUS;
+        return Math.min(rangeMargin, occlusionMargin);
+    }
+
+    /**
+     * 在 (t0, t1] 内查找可见状态翻转时刻，直至区间宽度不超过 threshold。
+     * 采用 Illinois 改进的试位法，通常数次迭代即可收敛；步长内地球自转轴方向的变化可忽略，沿用本步的 pole。
+     */
+    private AbsoluteDate refineEdge(PositionVelocityProvider prop1, PositionVelocityProvider prop2,
+                                    AbsoluteDate start, double t0, double t1, Vector3D pole,
+                                    double[] p1, double[] p2) {
+        double g0 = margin(prop1, prop2, start, t0, pole, p1, p2);
+        double g1 = margin(prop1, prop2, start, t1, pole, p1, p2);
+        int side = 0;
+        for (int iter = 0; iter < 100 && t1 - t0 > threshold; iter++) {
+            double t = (g0 != g1) ? t1 - g1 * (t1 - t0) / (g1 - g0) : 0.5 * (t0 + t1);
+            if (!(t > t0 && t < t1)) {
+                t = 0.5 * (t0 + t1);
+            }
+            double g = margin(prop1, prop2, start, t, pole, p1, p2);
+            // 同一端点连续被保留时将其函数值减半，避免试位法单侧停滞
+            if ((g > 0) == (g1 > 0)) {
+                t1 = t;
+                g1 = g;
+                if (side == -1) {
+                    g0 *= 0.5;
+                }
+                side = -1;
+            } else {
+                t0 = t;
+                g0 = g;
+                if (side == 1) {
+                    g1 *= 0.5;
+                }
+                side = 1;
+            }
+        }
+        return start.shiftedBy(t1);
+    }
+
+    private double margin(PositionVelocityProvider prop1, PositionVelocityProvider prop2,
+                          AbsoluteDate start, double t, Vector3D pole,
+                          double[] p1, double[] p2) {
+        AbsoluteDate date = start.shiftedBy(t);
+        prop1.getPosition(date, p1);
+        prop2.getPosition(date, p2);
+        return visibilityMargin(p1, p2, pole);
+    }
+
+    private static void addWindow(SatResult result, int otherSatId, VisibilityWindow window) {
+        result.getInterSatelliteResults().get(otherSatId).add(window);
+    }
+}
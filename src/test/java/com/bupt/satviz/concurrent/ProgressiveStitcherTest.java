@@ -0,0 +1,152 @@
+package com.bupt.satviz.concurrent;
+
+import com.bupt.satviz.config.OrekitConfig;
+import com.bupt.satviz.model.VisibilityWindow;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.time.TimeScalesFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 渐进式计算逐时间片拼接窗口的边界情况：跨越多个时间片的窗口、恰好在边界处结束的窗口、计算出错的单元。
+ */
+class ProgressiveStitcherTest {
+
+    private static final double SLICE = 3600.0;
+
+    private static AbsoluteDate start;
+
+    private final ShardPlan.Unit unit = new ShardPlan.Unit(true, 0, 0);
+    private final ShardPlan.Unit other = new ShardPlan.Unit(false, 0, 1);
+    private final List<Published> finalised = new ArrayList<>();
+    private final List<Published> provisional = new ArrayList<>();
+    private ProgressiveVisibilityExecutor.Stitcher stitcher;
+
+    @BeforeAll
+    static void initOrekit() {
+        OrekitConfig.initialize();
+        start = new AbsoluteDate("2025-01-01T00:00:00Z", TimeScalesFactory.getUTC());
+    }
+
+    @BeforeEach
+    void newStitcher() {
+        // 三个一小时的时间片
+        TimeChunkPlan plan = new TimeChunkPlan(start, start.shiftedBy(3 * SLICE), SLICE, 0.0);
+        stitcher = new ProgressiveVisibilityExecutor.Stitcher(plan, new VisibilitySliceConsumer() {
+            @Override
+            public void windowFinalised(ShardPlan.Unit u, VisibilityWindow window) {
+                finalised.add(new Published(u, window));
+            }
+
+            @Override
+            public void windowProvisional(ShardPlan.Unit u, VisibilityWindow window) {
+                provisional.add(new Published(u, window));
+            }
+        });
+    }
+
+    @Test
+    void windowOpenAcrossSeveralSlicesIsFinalisedOnceWithItsOriginalStart() {
+        stitcher.advance(unit, List.of(open(1800, SLICE)), 0);
+        stitcher.advance(unit, List.of(open(SLICE, 2 * SLICE)), 1);
+        stitcher.advance(unit, List.of(closed(2 * SLICE, 2 * SLICE + 600)), 2);
+
+        assertEquals(2, provisional.size());
+        for (Published p : provisional) {
+            assertEquals(at(1800), p.window.getStartTime());
+            assertNull(p.window.getEndTime());
+        }
+        assertEquals(SLICE - 1800, provisional.get(0).window.getDurationSeconds(), 1e-9);
+        assertEquals(2 * SLICE - 1800, provisional.get(1).window.getDurationSeconds(), 1e-9);
+        assertEquals(1, finalised.size());
+        assertWindow(finalised.get(0).window, 1800, 2 * SLICE + 600);
+    }
+
+    @Test
+    void windowOpenAtTheLastSliceKeepsNullEnd() {
+        stitcher.advance(unit, List.of(open(600, SLICE)), 0);
+        stitcher.advance(unit, List.of(open(SLICE, 2 * SLICE)), 1);
+        stitcher.advance(unit, List.of(open(2 * SLICE, 3 * SLICE)), 2);
+
+        assertEquals(1, finalised.size());
+        VisibilityWindow window = finalised.get(0).window;
+        assertEquals(at(600), window.getStartTime());
+        assertNull(window.getEndTime());
+        assertEquals(3 * SLICE - 600, window.getDurationSeconds(), 1e-9);
+    }
+
+    @Test
+    void windowClosingExactlyAtBoundaryIsNotExtended() {
+        stitcher.advance(unit, List.of(closed(1200, SLICE)), 0);
+        stitcher.advance(unit, List.of(closed(SLICE + 900, SLICE + 1500)), 1);
+
+        assertTrue(provisional.isEmpty());
+        assertEquals(2, finalised.size());
+        assertWindow(finalised.get(0).window, 1200, SLICE);
+        assertWindow(finalised.get(1).window, SLICE + 900, SLICE + 1500);
+    }
+
+    @Test
+    void openWindowNotVisibleAtNextSliceStartEndsAtBoundary() {
+        // 上一片末可见、下一片起点不可见（g 恰好在边界处过零）
+        stitcher.advance(unit, List.of(open(2400, SLICE)), 0);
+        stitcher.advance(unit, List.of(closed(SLICE + 300, SLICE + 900)), 1);
+        stitcher.advance(other, List.of(open(3000, SLICE)), 0);
+        stitcher.advance(other, List.of(), 1);
+
+        assertEquals(List.of(unit, unit, other),
+                finalised.stream().map(Published::unit).toList());
+        assertWindow(finalised.get(0).window, 2400, SLICE);
+        assertWindow(finalised.get(1).window, SLICE + 300, SLICE + 900);
+        assertWindow(finalised.get(2).window, 3000, SLICE);
+    }
+
+    @Test
+    void failedUnitStopsPublishingWithoutAffectingOthers() {
+        stitcher.advance(unit, List.of(open(1800, SLICE)), 0);
+        stitcher.advance(other, List.of(closed(600, 1200)), 0);
+        stitcher.advance(unit, null, 1);
+        stitcher.advance(other, List.of(closed(SLICE + 600, SLICE + 1200)), 1);
+        stitcher.advance(unit, List.of(closed(2 * SLICE + 600, 2 * SLICE + 1200)), 2);
+        stitcher.advance(other, List.of(), 2);
+
+        // 出错前发布的暂定窗口不会被确定，出错后的时间片不再发布
+        assertEquals(1, provisional.size());
+        assertEquals(unit, provisional.get(0).unit);
+        assertEquals(List.of(other, other), finalised.stream().map(Published::unit).toList());
+        assertWindow(finalised.get(0).window, 600, 1200);
+        assertWindow(finalised.get(1).window, SLICE + 600, SLICE + 1200);
+    }
+
+    private static void assertWindow(VisibilityWindow window, double from, double to) {
+        assertEquals(at(from), window.getStartTime());
+        assertEquals(at(to), window.getEndTime());
+        assertEquals(to - from, window.getDurationSeconds(), 1e-9);
+    }
+
+    private static VisibilityWindow closed(double from, double to) {
+        return new VisibilityWindow(at(from), at(to), to - from);
+    }
+
+    /**
+     * 时间片末仍可见的窗口，持续时长计到 sliceEnd。
+     */
+    private static VisibilityWindow open(double from, double sliceEnd) {
+        return new VisibilityWindow(at(from), null, sliceEnd - from);
+    }
+
+    private static AbsoluteDate at(double seconds) {
+        return start.shiftedBy(seconds);
+    }
+
+    private record Published(ShardPlan.Unit unit, VisibilityWindow window) {
+    }
+}
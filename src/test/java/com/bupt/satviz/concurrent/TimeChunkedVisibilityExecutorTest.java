@@ -0,0 +1,132 @@
+package com.bupt.satviz.concurrent;
+
+import com.bupt.satviz.config.InterSatelliteEngineType;
+import com.bupt.satviz.config.OrekitConfig;
+import com.bupt.satviz.config.ToleranceProfile;
+import com.bupt.satviz.config.VisibilityConstraints;
+import com.bupt.satviz.model.GroundStation;
+import com.bupt.satviz.model.KeplerianElements;
+import com.bupt.satviz.model.SatResult;
+import com.bupt.satviz.model.VisibilityWindow;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.time.TimeScalesFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 时间分块计算与整段传播（ParallelVisibilityExecutor）的一致性：
+ * 两次计算的采样点不一定重合，短于一个检查间隔的窗口或间隙可能只被一方检测到，比较前先去掉短窗口、合并短间隙；
+ * 其余窗口一一对应，边界之差不超过两倍收敛阈值（两次根搜索各自的误差）。
+ */
+class TimeChunkedVisibilityExecutorTest {
+
+    private static final double DAY = 86400.0;
+    private static final double CHUNK_SECONDS = 3 * 3600.0;
+
+    @BeforeAll
+    static void initOrekit() {
+        OrekitConfig.initialize();
+    }
+
+    @Test
+    void chunkedWindowsMatchSerialRunWithinThreshold() throws Exception {
+        AbsoluteDate start = new AbsoluteDate("2025-01-01T04:00:00Z", TimeScalesFactory.getUTC());
+        AbsoluteDate end = start.shiftedBy(DAY);
+        // 卫星 0、1 同一轨道面相距 20°（约 2400 km），整个时段内始终可见，窗口跨越全部块边界
+        List<KeplerianElements> orbits = List.of(
+                new KeplerianElements(7_000_000.0, 0.001, 53.0, 0.0, 0.0, 0.0, start),
+                new KeplerianElements(7_000_000.0, 0.001, 53.0, 0.0, 0.0, 20.0, start),
+                new KeplerianElements(7_200_000.0, 0.01, 97.5, 120.0, 30.0, 200.0, start));
+        List<GroundStation> stations = List.of(
+                new GroundStation(39.9, 116.4, 50.0),
+                new GroundStation(-33.9, 18.4, 10.0),
+                new GroundStation(64.8, -147.7, 150.0));
+        ToleranceProfile tolerance = ToleranceProfile.precise();
+        VisibilityConstraints constraints = VisibilityConstraints.defaults();
+
+        List<SatResult> serial = ParallelVisibilityExecutor.computeAllVisibilities(orbits, null, stations,
+                start, end, InterSatelliteEngineType.DETECTOR, tolerance, constraints);
+        List<SatResult> chunked = TimeChunkedVisibilityExecutor.computeAllVisibilities(orbits, null, stations,
+                start, end, InterSatelliteEngineType.DETECTOR, tolerance, constraints, CHUNK_SECONDS);
+
+        double bound = 2 * Math.max(tolerance.getGroundThreshold(), tolerance.getInterThreshold());
+        TimeChunkPlan plan = new TimeChunkPlan(start, end, CHUNK_SECONDS,
+                TimeChunkPlan.alignment(tolerance, InterSatelliteEngineType.DETECTOR));
+        int crossing = 0;
+        assertEquals(serial.size(), chunked.size());
+        for (int s = 0; s < serial.size(); s++) {
+            crossing += assertWithin(serial.get(s).getGroundStationResults(),
+                    chunked.get(s).getGroundStationResults(), tolerance.getGroundMaxCheck(), bound, plan);
+            crossing += assertWithin(serial.get(s).getInterSatelliteResults(),
+                    chunked.get(s).getInterSatelliteResults(), tolerance.getInterMaxCheck(), bound, plan);
+        }
+        assertTrue(crossing > 0, "场景中应有跨越块边界的窗口");
+
+        List<VisibilityWindow> linked = chunked.get(0).getInterSatelliteResults().get(1);
+        assertEquals(1, linked.size());
+        assertEquals(start, linked.get(0).getStartTime());
+        assertNull(linked.get(0).getEndTime());
+    }
+
+    /**
+     * 逐个条目比较去掉短窗口、合并短间隙后的窗口，返回跨越块边界的窗口数。
+     */
+    private static <K> int assertWithin(Map<K, List<VisibilityWindow>> expected,
+                                        Map<K, List<VisibilityWindow>> actual,
+                                        double limit, double bound, TimeChunkPlan plan) {
+        assertEquals(expected.keySet(), actual.keySet());
+        int crossing = 0;
+        for (Map.Entry<K, List<VisibilityWindow>> entry : expected.entrySet()) {
+            List<VisibilityWindow> e = withoutShort(entry.getValue(), limit, plan.getEndDate());
+            List<VisibilityWindow> a = withoutShort(actual.get(entry.getKey()), limit, plan.getEndDate());
+            assertEquals(e.size(), a.size(), "窗口数不一致：" + entry.getKey());
+            for (int w = 0; w < e.size(); w++) {
+                VisibilityWindow ew = e.get(w);
+                VisibilityWindow aw = a.get(w);
+                assertTrue(Math.abs(aw.getStartTime().durationFrom(ew.getStartTime())) <= bound,
+                        "开始时间超出阈值：" + entry.getKey() + " " + ew + " / " + aw);
+                if (ew.getEndTime() == null) {
+                    assertNull(aw.getEndTime());
+                } else {
+                    assertTrue(Math.abs(aw.getEndTime().durationFrom(ew.getEndTime())) <= bound,
+                            "结束时间超出阈值：" + entry.getKey() + " " + ew + " / " + aw);
+                }
+                AbsoluteDate windowEnd = (ew.getEndTime() != null) ? ew.getEndTime() : plan.getEndDate();
+                if (plan.chunkOf(ew.getStartTime()) != plan.chunkOf(windowEnd)) {
+                    crossing++;
+                }
+            }
+        }
+        return crossing;
+    }
+
+    /**
+     * 去掉短于 limit 秒的窗口，再合并间隔短于 limit 秒的相邻窗口。
+     */
+    private static List<VisibilityWindow> withoutShort(List<VisibilityWindow> windows, double limit,
+                                                       AbsoluteDate horizon) {
+        List<VisibilityWindow> filtered = new ArrayList<>();
+        for (VisibilityWindow window : windows) {
+            AbsoluteDate end = (window.getEndTime() != null) ? window.getEndTime() : horizon;
+            if (end.durationFrom(window.getStartTime()) < limit) {
+                continue;
+            }
+            VisibilityWindow last = filtered.isEmpty() ? null : filtered.get(filtered.size() - 1);
+            if (last != null && window.getStartTime().durationFrom(last.getEndTime()) < limit) {
+                filtered.set(filtered.size() - 1, new VisibilityWindow(last.getStartTime(), window.getEndTime(),
+                        end.durationFrom(last.getStartTime())));
+            } else {
+                filtered.add(window);
+            }
+        }
+        return filtered;
+    }
+}
@@ -0,0 +1,222 @@
+package com.bupt.satviz.scheduling;
+
+import com.bupt.satviz.config.OrekitConfig;
+import com.bupt.satviz.config.SchedulingConstraints;
+import com.bupt.satviz.model.GroundStation;
+import com.bupt.satviz.model.SatResult;
+import com.bupt.satviz.model.ScheduledContact;
+import com.bupt.satviz.model.VisibilityWindow;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.time.TimeScalesFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 接触计划的约束不变量（天线准备间隔、卫星不重叠、最短时长）与增量重排的局部性。
+ */
+class ContactSchedulerTest {
+
+    private static final double DAY = 86400.0;
+    private static final double EPS = 1e-6;
+
+    private static AbsoluteDate start;
+
+    @BeforeAll
+    static void initOrekit() {
+        OrekitConfig.initialize();
+        start = new AbsoluteDate("2025-01-01T00:00:00Z", TimeScalesFactory.getUTC());
+    }
+
+    @Test
+    void scheduleRespectsSetupGapSatelliteOverlapAndMinPass() {
+        List<GroundStation> stations = stations(3);
+        SchedulingConstraints constraints = new SchedulingConstraints(1, new int[]{1, 2, 1}, 120.0, 180.0,
+                new double[]{3.0, 1.0, 1.0, 2.0, 1.0, 1.0, 0.5, 1.0});
+        Map<Integer, List<VisibilityWindow>> windows = randomWindows(8, stations.size(), new Random(42));
+        ContactScheduler scheduler = new ContactScheduler(results(8, stations, windows), stations,
+                start, start.shiftedBy(DAY), constraints);
+
+        assertTrue(scheduler.schedule() > 0);
+        assertFeasible(scheduler, constraints, windows);
+        double greedy = scheduler.getObjective();
+        scheduler.improve();
+        assertFeasible(scheduler, constraints, windows);
+        assertTrue(scheduler.getObjective() >= greedy - EPS);
+    }
+
+    @Test
+    void windowsShorterThanMinPassAreNeverScheduled() {
+        List<GroundStation> stations = stations(1);
+        SchedulingConstraints constraints = new SchedulingConstraints(1, null, 0.0, 180.0, null);
+        Map<Integer, List<VisibilityWindow>> windows = new HashMap<>();
+        windows.put(pairKey(0, 0, 1), List.of(window(1000, 1100), window(5000, 5179)));
+        ContactScheduler scheduler = new ContactScheduler(results(1, stations, windows), stations,
+                start, start.shiftedBy(DAY), constraints);
+
+        assertEquals(0, scheduler.getCandidateCount());
+        assertEquals(0, scheduler.schedule());
+        assertTrue(scheduler.getContacts().isEmpty());
+    }
+
+    @Test
+    void updateWindowsLeavesUnrelatedPairsAlone() {
+        // 卫星 0–3 只经过地面站 0、1，卫星 4–7 只经过地面站 2、3，两组之间没有任何冲突
+        List<GroundStation> stations = stations(4);
+        SchedulingConstraints constraints = new SchedulingConstraints(1, new int[]{1, 2, 1, 2}, 60.0, 120.0,
+                new double[]{1.0, 2.0, 1.0, 3.0, 1.0, 2.0, 1.0, 3.0});
+        Random random = new Random(7);
+        Map<Integer, List<VisibilityWindow>> windows = new HashMap<>();
+        for (int s = 0; s < 8; s++) {
+            int first = (s < 4) ? 0 : 2;
+            for (int g = first; g < first + 2; g++) {
+                windows.put(pairKey(s, g, stations.size()), randomPass(random));
+            }
+        }
+        ContactScheduler scheduler = new ContactScheduler(results(8, stations, windows), stations,
+                start, start.shiftedBy(DAY), constraints);
+        scheduler.schedule();
+        scheduler.improve();
+        List<ScheduledContact> before = contactsOf(scheduler, 4, 8);
+
+        // 卫星 3（最高优先级）在地面站 0 的窗口整体更换，可能抢占第一组的接触
+        List<VisibilityWindow> replaced = randomPass(random);
+        windows.put(pairKey(3, 0, stations.size()), replaced);
+        scheduler.updateWindows(3, 0, replaced);
+
+        assertFeasible(scheduler, constraints, windows);
+        assertEquals(before, contactsOf(scheduler, 4, 8));
+    }
+
+    @Test
+    void updateWindowsPreemptsLowerPriorityContact() {
+        List<GroundStation> stations = stations(1);
+        SchedulingConstraints constraints = new SchedulingConstraints(1, null, 0.0, 0.0, new double[]{1.0, 5.0});
+        Map<Integer, List<VisibilityWindow>> windows = new HashMap<>();
+        windows.put(pairKey(0, 0, 1), List.of(window(1000, 2000)));
+        ContactScheduler scheduler = new ContactScheduler(results(2, stations, windows), stations,
+                start, start.shiftedBy(DAY), constraints);
+        scheduler.schedule();
+        assertEquals(1, scheduler.getScheduledCount());
+
+        scheduler.updateWindows(1, 0, List.of(window(1200, 1900)));
+
+        List<ScheduledContact> contacts = scheduler.getContacts();
+        assertEquals(1, contacts.size());
+        assertEquals(1, contacts.get(0).getSatId());
+        assertEquals(5.0 * 700.0, scheduler.getObjective(), EPS);
+    }
+
+    /**
+     * 检查计划满足全部调度约束：接触落在所属组合的某个窗口内、不短于最短时长，
+     * 同一天线相邻接触至少间隔准备时间，同一卫星的接触互不重叠。
+     */
+    private static void assertFeasible(ContactScheduler scheduler, SchedulingConstraints constraints,
+                                       Map<Integer, List<VisibilityWindow>> windows) {
+        List<ScheduledContact> contacts = new ArrayList<>(scheduler.getContacts());
+        assertEquals(scheduler.getScheduledCount(), contacts.size());
+        contacts.sort(Comparator.comparing(ScheduledContact::getStartTime));
+        Map<Integer, ScheduledContact> lastOnAntenna = new HashMap<>();
+        Map<Integer, ScheduledContact> lastOfSatellite = new HashMap<>();
+        for (ScheduledContact c : contacts) {
+            assertTrue(c.getAntenna() < constraints.antennasAt(c.getStationIndex()), "天线编号越界：" + c);
+            assertTrue(c.getDurationSeconds() >= constraints.getMinPassSeconds() - EPS, "短于最短时长：" + c);
+            boolean inside = false;
+            for (VisibilityWindow w : windows.get(pairKey(c.getSatId(), c.getStationIndex(),
+                    scheduler.getStationCount()))) {
+                inside |= c.getStartTime().durationFrom(w.getStartTime()) >= -EPS
+                        && w.getEndTime().durationFrom(c.getEndTime()) >= -EPS;
+            }
+            assertTrue(inside, "接触不在可见窗口内：" + c);
+
+            ScheduledContact previous = lastOnAntenna.put(c.getStationIndex() * 16 + c.getAntenna(), c);
+            if (previous != null) {
+                assertTrue(c.getStartTime().durationFrom(previous.getEndTime())
+                        >= constraints.getSetupSeconds() - EPS, "天线准备间隔不足：" + previous + " / " + c);
+            }
+            previous = lastOfSatellite.put(c.getSatId(), c);
+            if (previous != null) {
+                assertTrue(c.getStartTime().durationFrom(previous.getEndTime()) >= -EPS,
+                        "卫星同时与两个地面站接触：" + previous + " / " + c);
+            }
+        }
+    }
+
+    private static List<ScheduledContact> contactsOf(ContactScheduler scheduler, int fromSat, int toSat) {
+        List<ScheduledContact> contacts = new ArrayList<>();
+        for (ScheduledContact c : scheduler.getContacts()) {
+            if (c.getSatId() >= fromSat && c.getSatId() < toSat) {
+                contacts.add(c);
+            }
+        }
+        return contacts;
+    }
+
+    private static Map<Integer, List<VisibilityWindow>> randomWindows(int satelliteCount, int stationCount,
+                                                                      Random random) {
+        Map<Integer, List<VisibilityWindow>> windows = new HashMap<>();
+        for (int s = 0; s < satelliteCount; s++) {
+            for (int g = 0; g < stationCount; g++) {
+                windows.put(pairKey(s, g, stationCount), randomPass(random));
+            }
+        }
+        return windows;
+    }
+
+    /**
+     * 一天内按时间顺序生成互不重叠的过境窗口，时长 60–1260 秒（部分短于最短时长）。
+     */
+    private static List<VisibilityWindow> randomPass(Random random) {
+        List<VisibilityWindow> windows = new ArrayList<>();
+        double t = random.nextDouble() * 6000.0;
+        while (true) {
+            double end = t + 60.0 + random.nextDouble() * 1200.0;
+            if (end > DAY) {
+                return windows;
+            }
+            windows.add(window(t, end));
+            t = end + 1000.0 + random.nextDouble() * 12000.0;
+        }
+    }
+
+    private static List<SatResult> results(int satelliteCount, List<GroundStation> stations,
+                                           Map<Integer, List<VisibilityWindow>> windows) {
+        List<SatResult> results = new ArrayList<>();
+        for (int s = 0; s < satelliteCount; s++) {
+            SatResult result = new SatResult(s);
+            for (int g = 0; g < stations.size(); g++) {
+                List<VisibilityWindow> pair = windows.get(pairKey(s, g, stations.size()));
+                if (pair != null) {
+                    result.addGroundStationResult(stations.get(g).toString(), pair);
+                }
+            }
+            results.add(result);
+        }
+        return results;
+    }
+
+    private static List<GroundStation> stations(int count) {
+        List<GroundStation> stations = new ArrayList<>();
+        for (int g = 0; g < count; g++) {
+            stations.add(new GroundStation(10.0 * g, 20.0 * g, 0.0));
+        }
+        return stations;
+    }
+
+    private static VisibilityWindow window(double from, double to) {
+        return new VisibilityWindow(start.shiftedBy(from), start.shiftedBy(to), to - from);
+    }
+
+    private static int pairKey(int satId, int stationIndex, int stationCount) {
+        return satId * stationCount + stationIndex;
+    }
+}